@@ -1,19 +1,14 @@
 package kr.masul;
 
-import kr.masul.system.IdWorker;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class MasulApplication {
 
 	public static void main(String[] args) {
 		SpringApplication.run(MasulApplication.class, args);
 	}
-
-	@Bean
-	public IdWorker idWorker() {
-		return new IdWorker(1,1);
-	}
 }
@@ -1,24 +1,35 @@
 package kr.masul.artifact;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import kr.masul.system.IdWorker;
 import kr.masul.wizard.Wizard;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
 
+// wizard별 목록(owner_id = ? and id < ? order by id desc)을 index 범위만 읽고 끝냄
 @Entity
+@Table(indexes = @Index(name = "idx_artifact_owner_id_id", columnList = "owner_id, id"))
 @Getter
 @Setter
 public class Artifact {
 
+    // IdWorker로 생성(시간순 증가), bigint
     @Id
-    private String id;
+    private Long id;
 
     private String name;
 
@@ -30,4 +41,21 @@ public class Artifact {
 
     @ManyToOne
     private Wizard owner;
+
+    // ArtifactViewCounter가 sql로 직접 더함(entity 수정시 덮어쓰지 않도록 update 제외)
+    @Column(nullable = false, updatable = false)
+    private long viewCount;
+
+    // 조회 api의 ETag, Last-Modified(ArtifactVersion)
+    @Version
+    private Long version;
+
+    @UpdateTimestamp
+    private Instant lastModified;
+
+    // 생성 시간은 id의 발급 시간으로 둠(날짜 검색을 id 범위로 바꿔서 찾음, ArtifactSpecs.createdFrom)
+    public void assignId(long id) {
+        this.id = id;
+        this.createAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(IdWorker.timestampOf(id)), ZoneId.systemDefault());
+    }
 }
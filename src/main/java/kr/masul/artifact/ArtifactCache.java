@@ -0,0 +1,180 @@
+package kr.masul.artifact;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import kr.masul.client.redisCache.RedisCacheClient;
+import kr.masul.system.AfterCommit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * artifact 단건 조회용 2단 캐시
+ * L1: 서버 내부 caffeine(크기, TTL 제한), L2: redis
+ * 같은 id에 대한 동시 miss는 caffeine이 한번만 loader를 실행(single-flight)
+ * 수정/삭제시 양쪽을 지우고 redis pub/sub으로 다른 서버의 L1도 지움
+ * 값은 artifact version과 같이 저장하고, 읽을 때 DB의 version(ArtifactVersion)보다 오래된 값은 버리고 다시 읽음
+ * (다른 서버가 commit 전에 읽은 값을 무효화 뒤에 redis에 쓰는 경우), redis에는 더 새로운 version이 없을 때만 씀
+ */
+@Component
+public class ArtifactCache {
+
+   static final String INVALIDATION_CHANNEL = "artifact:invalidate";
+   private static final String KEY_PREFIX = "artifact:";
+   // 여러건 무효화시 redis DEL, pub/sub 메세지 하나에 담는 id 수
+   private static final int EVICT_BATCH_SIZE = 1000;
+   private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactCache.class);
+
+   // 캐시에 두는 값, version은 Artifact.version
+   public record Entry(Long version, ArtifactDto artifact) {
+   }
+
+   private final Cache<Long, Entry> localCache;
+   private final RedisCacheClient redisCacheClient;
+   private final ObjectMapper objectMapper;
+   private final Duration redisTtl;
+
+   private final Counter redisHit;
+   private final Counter redisMiss;
+   private final Counter invalidations;
+   private final Counter stale;
+
+   public ArtifactCache(RedisCacheClient redisCacheClient,
+                        ObjectMapper objectMapper,
+                        MeterRegistry meterRegistry,
+                        RedisMessageListenerContainer listenerContainer,
+                        @Value("${artifact.cache.local.maximum-size:10000}") long maximumSize,
+                        @Value("${artifact.cache.local.expire-after-write:5m}") Duration localTtl,
+                        @Value("${artifact.cache.redis.ttl:30m}") Duration redisTtl) {
+      this.redisCacheClient = redisCacheClient;
+      this.objectMapper = objectMapper;
+      this.redisTtl = redisTtl;
+      this.localCache = Caffeine.newBuilder()
+              .maximumSize(maximumSize)
+              .expireAfterWrite(localTtl)
+              .recordStats()
+              .build();
+
+      // L1 hit/miss/eviction은 caffeine 통계로, L2는 별도 counter로 기록
+      CaffeineCacheMetrics.monitor(meterRegistry, localCache, "artifact.local");
+      this.redisHit = meterRegistry.counter("artifact.cache.redis", "result", "hit");
+      this.redisMiss = meterRegistry.counter("artifact.cache.redis", "result", "miss");
+      this.invalidations = meterRegistry.counter("artifact.cache.invalidation");
+      this.stale = meterRegistry.counter("artifact.cache.stale");
+
+      // 다른 서버에서 수정/삭제된 artifact는 내 L1에서도 지움(여러건이면 ','로 구분)
+      listenerContainer.addMessageListener(
+              (message, pattern) -> {
+                 for (String id : new String(message.getBody(), StandardCharsets.UTF_8).split(",")) {
+                    localCache.invalidate(Long.valueOf(id));
+                 }
+              },
+              new ChannelTopic(INVALIDATION_CHANNEL));
+   }
+
+   /**
+    * @param minVersion DB에서 방금 읽은 version, 이보다 오래된 L1, L2 값은 쓰지 않음
+    */
+   public ArtifactDto get(Long artifactId, long minVersion, Function<Long, Entry> loader) {
+      Entry entry = localCache.get(artifactId, id -> load(id, minVersion, loader));
+      if (entry.version() < minVersion) {
+         // 무효화보다 먼저 읽어 둔 옛날 값, 다른 요청이 이미 새 값을 넣었으면 그 값을 사용
+         stale.increment();
+         localCache.asMap().remove(artifactId, entry);
+         entry = localCache.get(artifactId, id -> load(id, minVersion, loader));
+      }
+      return entry.artifact();
+   }
+
+   private Entry load(Long artifactId, long minVersion, Function<Long, Entry> loader) {
+      Entry cached = readRedis(artifactId);
+      if (cached != null && cached.version() >= minVersion) {
+         redisHit.increment();
+         return cached;
+      }
+      redisMiss.increment();
+      Entry loaded = loader.apply(artifactId);
+      writeRedis(artifactId, loaded);
+      return loaded;
+   }
+
+   // commit 전에 지우면 다른 요청이 옛날 값을 다시 캐시에 올릴 수 있으므로 commit 이후에 지움
+   public void evict(Long artifactId) {
+      AfterCommit.run(() -> doEvict(artifactId));
+   }
+
+   // bulk update용, redis 삭제와 다른 서버 알림을 EVICT_BATCH_SIZE개씩 묶어서 보냄
+   public void evictAll(Collection<Long> artifactIds) {
+      if (artifactIds.isEmpty()) {
+         return;
+      }
+      List<Long> ids = List.copyOf(artifactIds);
+      AfterCommit.run(() -> doEvictAll(ids));
+   }
+
+   private void doEvictAll(List<Long> artifactIds) {
+      invalidations.increment(artifactIds.size());
+      localCache.invalidateAll(artifactIds);
+      try {
+         for (int from = 0; from < artifactIds.size(); from += EVICT_BATCH_SIZE) {
+            List<Long> batch = artifactIds.subList(from, Math.min(from + EVICT_BATCH_SIZE, artifactIds.size()));
+            redisCacheClient.delete(batch.stream().map(id -> KEY_PREFIX + id).toList());
+            redisCacheClient.publish(INVALIDATION_CHANNEL,
+                    batch.stream().map(String::valueOf).collect(Collectors.joining(",")));
+         }
+      } catch (DataAccessException e) {
+         LOGGER.warn("artifact cache invalidation failed for {} artifacts : {}", artifactIds.size(), e.getMessage());
+      }
+   }
+
+   private void doEvict(Long artifactId) {
+      invalidations.increment();
+      localCache.invalidate(artifactId);
+      try {
+         redisCacheClient.delete(KEY_PREFIX + artifactId);
+         redisCacheClient.publish(INVALIDATION_CHANNEL, String.valueOf(artifactId));
+      } catch (DataAccessException e) {
+         // redis 장애시 다른 서버의 L1은 TTL이 지나야 갱신됨
+         LOGGER.warn("artifact cache invalidation failed for {} : {}", artifactId, e.getMessage());
+      }
+   }
+
+   // redis 장애는 캐시 miss로 보고 DB에서 읽음(예전 형식의 값도 miss)
+   private Entry readRedis(Long artifactId) {
+      try {
+         String json = redisCacheClient.get(KEY_PREFIX + artifactId);
+         Entry entry = json == null ? null : objectMapper.readValue(json, Entry.class);
+         return entry == null || entry.version() == null || entry.artifact() == null ? null : entry;
+      } catch (DataAccessException | JsonProcessingException e) {
+         LOGGER.warn("artifact cache read failed for {} : {}", artifactId, e.getMessage());
+         return null;
+      }
+   }
+
+   // 그 사이 다른 서버가 더 새로운 version을 썼으면 덮어쓰지 않음
+   private void writeRedis(Long artifactId, Entry entry) {
+      try {
+         redisCacheClient.setIfNotOlder(KEY_PREFIX + artifactId, objectMapper.writeValueAsString(entry),
+                 entry.version(), redisTtl.toMillis(), TimeUnit.MILLISECONDS);
+      } catch (DataAccessException | JsonProcessingException e) {
+         LOGGER.warn("artifact cache write failed for {} : {}", artifactId, e.getMessage());
+      }
+   }
+}
@@ -1,20 +1,35 @@
 package kr.masul.artifact;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import kr.masul.artifact.bulk.ArtifactBulkImporter;
+import kr.masul.artifact.bulk.BulkImportResult;
+import kr.masul.artifact.export.ArtifactExportFormat;
+import kr.masul.artifact.summary.SummaryJob;
+import kr.masul.artifact.summary.SummaryJobService;
+import kr.masul.artifact.view.ArtifactViewCounter;
 import kr.masul.client.imageStorage.ImageStorageClient;
+import kr.masul.system.CursorCodec;
+import kr.masul.system.CursorSlice;
 import kr.masul.system.Result;
 import kr.masul.system.StatusCode;
+import kr.masul.system.converter.ArtifactProjectionToDto;
 import kr.masul.system.converter.ArtifactToDto;
 import kr.masul.system.converter.ArtifactToEntity;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -28,17 +43,22 @@ public class ArtifactController {
 
     private final ArtifactService artifactService;
     private final ArtifactToDto artifactToDto;
+    private final ArtifactProjectionToDto artifactProjectionToDto;
     private final ArtifactToEntity artifactToEntity;
-    private final MeterRegistry meterRegistry; // actuator에 metircs 값으로 가져오기 위해 필요
+    private final ArtifactViewCounter artifactViewCounter; // 조회수 집계
+    private final ArtifactBulkImporter artifactBulkImporter;
+    private final SummaryJobService summaryJobService;
     private final ImageStorageClient imageStrorageClient;
 
+    // 변경이 없으면 body 없이 304(캐시, Result를 거치지 않음)
     @GetMapping("/{artifactId}")
-    public Result findById(@PathVariable String artifactId) {
-        Artifact artifact = artifactService.findById(artifactId);
-        meterRegistry.counter("artifact.id." + artifactId).increment(); // 조회수를 가지고 옮
-//        meterRegistry.gauge("artifact_count", 13);
-//        meterRegistry.timer("artifact_findById", "timer");
-        ArtifactDto artifactDto = artifactToDto.convert(artifact);
+    public Result findById(@PathVariable Long artifactId, WebRequest webRequest) {
+        ArtifactVersion version = artifactService.findVersion(artifactId);
+        artifactViewCounter.increment(artifactId); // 조회수를 가지고 옮
+        if (webRequest.checkNotModified(version.eTag(), version.lastModifiedMillis())) {
+            return null;
+        }
+        ArtifactDto artifactDto = artifactService.findDtoById(artifactId, version);
 
         return new Result(true, StatusCode.SUCCESS, "Find Success", artifactDto);
     }
@@ -48,12 +68,19 @@ public class ArtifactController {
      * spring.data.web.pageable.size-parameter = size 사용자정의이름(default; size)
      * spring.data.web.sort.sort-parameter = sort 사용자정의이름
      * 요청 ; http://localhost:80/api/v1/artifacts?size=1&page=2&sort=name,asc
+     * after 파라미터가 있으면 cursor(keyset) 방식, id 역순 고정, count 쿼리 없음(깊은 페이지도 속도 일정)
+     * 요청 ; http://localhost:80/api/v1/artifacts?after=&size=10 (첫 페이지), 이후 응답의 next 값을 after로 전달
      * @param pageable
+     * @param after 이전 응답의 next cursor
      * @return
      */
     @GetMapping
     public Result findAll(
-            @PageableDefault(page = 0, size = 10, sort = "id", direction = Sort.Direction.DESC) Pageable pageable) {
+            @PageableDefault(page = 0, size = 10, sort = "id", direction = Sort.Direction.DESC) Pageable pageable,
+            @RequestParam(required = false) String after) {
+        if (after != null) {
+            return findAllByCursor(after, pageable.getPageSize());
+        }
          // frontend에서 파라미터 변수로 page, size, sort를 받아서 처리할 때는 아래 처럼 해서 처리해야함
         // findAll(@RequestParam(default=0) int page,
         //         @RequestParam(default=10) int size,
@@ -61,13 +88,37 @@ public class ArtifactController {
          // List<Sort.Order> sorts = List.of(Sort.Order.desc("name"));
          // pageable = PageRequest.of(0, 2, Sort.by(sorts));
 
-        Page<Artifact> artifactPage = artifactService.findAll(pageable);
+        Page<ArtifactProjection> artifactPage = artifactService.findAll(pageable);
         Page<ArtifactDto> artifactDtoPage = artifactPage // Page streamable no need stream()
-                .map(artifactToDto::convert);
+                .map(artifactProjectionToDto::convert);
 
         return new Result(true, StatusCode.SUCCESS, "Find all Success", artifactDtoPage);
     }
 
+    private Result findAllByCursor(String after, int size) {
+        Long afterId = after.isEmpty() ? null : CursorCodec.decodeLong(after);
+        Slice<ArtifactProjection> artifactSlice = artifactService.findAllAfter(afterId, size);
+        List<ArtifactDto> content = artifactSlice.map(artifactProjectionToDto::convert).getContent();
+        String next = artifactSlice.hasNext() ? CursorCodec.encode(String.valueOf(content.get(content.size() - 1).id())) : null;
+
+        return new Result(true, StatusCode.SUCCESS, "Find all Success",
+                new CursorSlice<>(content, size, artifactSlice.hasNext(), next));
+    }
+
+    /**
+     * 전체 목록을 한 줄에 한건씩 바로 내려보냄(페이지 없이 catalog 전체를 받을 때)
+     * 요청 ; http://localhost:80/api/v1/artifacts/export?format=csv (default ndjson)
+     */
+    @GetMapping("/export")
+    public void export(@RequestParam(defaultValue = "ndjson") String format,
+                       HttpServletResponse response) throws IOException {
+        ArtifactExportFormat exportFormat = ArtifactExportFormat.from(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"artifacts." + exportFormat.getExtension() + "\"");
+        artifactService.export(exportFormat, response.getOutputStream());
+    }
+
     @PostMapping
     public Result add(@Valid @RequestBody ArtifactDto artifactDto) {
         Artifact a = artifactToEntity.convert(artifactDto);
@@ -77,8 +128,18 @@ public class ArtifactController {
         return new Result(true, StatusCode.SUCCESS, "Add Success", dto);
     }
 
+    /**
+     * 한 줄에 ArtifactDto json 하나(NDJSON), body를 다 받기 전에 읽으면서 chunk 단위로 저장
+     * 형식이 잘못된 줄은 건너뛰고 결과에 줄 번호와 이유를 담음
+     */
+    @PostMapping("/bulk")
+    public Result bulkImport(HttpServletRequest request) throws IOException {
+        BulkImportResult result = artifactBulkImporter.importNdjson(request.getInputStream());
+        return new Result(true, StatusCode.SUCCESS, "Bulk Import Success", result);
+    }
+
     @PutMapping("/{artifactId}")
-    public Result update(@PathVariable String artifactId, @RequestBody ArtifactDto artifactDto) {
+    public Result update(@PathVariable Long artifactId, @RequestBody ArtifactDto artifactDto) {
         Artifact artifact = artifactToEntity.convert(artifactDto);
         Artifact update = artifactService.update(artifactId, artifact);
         ArtifactDto dto = artifactToDto.convert(update);
@@ -87,7 +148,7 @@ public class ArtifactController {
     }
 
     @DeleteMapping("/{artifactId}")
-    public Result delete(@PathVariable String artifactId) {
+    public Result delete(@PathVariable Long artifactId) {
         artifactService.delete(artifactId);
         return new Result(true, StatusCode.SUCCESS, "Delete Success");
     }
@@ -95,31 +156,75 @@ public class ArtifactController {
     @GetMapping("/summary")
     public Result summarizeArtifact() throws JsonProcessingException {
 
-        List<Artifact> artifacts = artifactService.findAll();
-        List<ArtifactDto> artifactDtos = artifacts.stream().map(artifactToDto::convert).toList();
-
-        String summarize = this.artifactService.summarize(artifactDtos);
+        String summarize = this.artifactService.summarizeAll();
 
         return new Result(true, StatusCode.SUCCESS, "Summarize Success", summarize);
     }
 
+    /**
+     * 요약을 기다리지 않고 작업 id를 바로 돌려줌
+     * 결과는 GET /summary/jobs/{jobId} 로 조회하거나 GET /summary/jobs/{jobId}/events(SSE)로 받음
+     */
+    @PostMapping("/summary/jobs")
+    public Result submitSummaryJob() {
+        SummaryJob job = summaryJobService.submit();
+        return new Result(true, StatusCode.SUCCESS, "Submit Success", job);
+    }
+
+    @GetMapping("/summary/jobs/{jobId}")
+    public Result findSummaryJob(@PathVariable String jobId) {
+        SummaryJob job = summaryJobService.find(jobId);
+        return new Result(true, StatusCode.SUCCESS, "Find Success", job);
+    }
+
+    @GetMapping(value = "/summary/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeSummaryJob(@PathVariable String jobId) {
+        return summaryJobService.subscribe(jobId);
+    }
+
+    /**
+     * 요약 결과를 생성되는 대로 SSE로 전달(첫 글자까지 기다리는 시간만 걸림)
+     * event: token(data: {"content":"..."}) 반복 후 event: done 또는 event: error
+     */
+    @GetMapping(value = "/summary/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSummary() {
+        return summaryJobService.streamSummary();
+    }
+
     @PostMapping("/search")
     public Result findArtifactByCriteria(
             @RequestBody Map<String, String> searchCriteria ,
 //            @PageableDefault(page = 0, size = 3, direction = Sort.Direction.ASC, sort = "name")
             Pageable pageable){
-        Page<Artifact> artifactPage = artifactService.findByCriteria(searchCriteria, pageable);
-        Page<ArtifactDto> artifactDtoPage = artifactPage.map(artifactToDto::convert);
+        Page<ArtifactProjection> artifactPage = artifactService.findByCriteria(searchCriteria, pageable);
+        Page<ArtifactDto> artifactDtoPage = artifactPage.map(artifactProjectionToDto::convert);
 
         return new Result(true, StatusCode.SUCCESS, "Search Success", artifactDtoPage);
     }
 
     // azure 에 올리걸로 개정 안만들어서(돈 들어감) 동작안함
+    // multipart는 먼저 메모리/임시 파일에 받으므로 작은 파일(spring.servlet.multipart.max-file-size)만
     @PostMapping("/images")
     public Result uploadImage(
             @RequestParam String containerName, @RequestParam MultipartFile file) throws IOException {
         try(InputStream inputStream = file.getInputStream()) {
-            String imageUrl = imageStrorageClient.uploadImage(containerName, file.getOriginalFilename(), inputStream, file.getSize());
+            String imageUrl = imageStrorageClient.uploadImage(containerName, file.getOriginalFilename(), inputStream,
+                    file.getSize(), file.getContentType());
+            return new Result(true, StatusCode.SUCCESS, "Upload Image Success", imageUrl);
+        }
+    }
+
+    /**
+     * body 자체가 이미지(Content-Type: image/*), multipart 복사 없이 받으면서 바로 저장소로 보냄
+     * 요청 ; POST /artifacts/images?containerName=c&fileName=a.png (크기 제한은 image-storage.upload.max-size)
+     */
+    @PostMapping(value = "/images", consumes = "image/*")
+    public Result uploadImageStream(@RequestParam String containerName,
+                                    @RequestParam String fileName,
+                                    HttpServletRequest request) throws IOException {
+        try(InputStream inputStream = request.getInputStream()) {
+            String imageUrl = imageStrorageClient.uploadImage(containerName, fileName, inputStream,
+                    request.getContentLengthLong(), request.getContentType());
             return new Result(true, StatusCode.SUCCESS, "Upload Image Success", imageUrl);
         }
     }
@@ -1,5 +1,6 @@
 package kr.masul.artifact;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.validation.constraints.NotEmpty;
 import kr.masul.wizard.WizardDto;
 import lombok.Getter;
@@ -10,7 +11,9 @@ import java.time.LocalDateTime;
 
 public record ArtifactDto(
 
-        String id,
+        // javascript number(53bit)로는 정확히 표현할 수 없으므로 json에서는 문자열("1250808601744904191")
+        @JsonFormat(shape = JsonFormat.Shape.STRING)
+        Long id,
 
         @NotEmpty(message = "NAME is required.")
         String name,
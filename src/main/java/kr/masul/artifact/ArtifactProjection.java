@@ -0,0 +1,21 @@
+package kr.masul.artifact;
+
+import java.time.LocalDateTime;
+
+/**
+ * 목록 조회용 projection
+ * artifact + owner + owner의 artifact 수를 한번의 sql로 읽음(entity를 만들지 않으므로 N+1 없음)
+ * ArtifactProjectionToDto로 ArtifactDto로 변환
+ */
+public record ArtifactProjection(
+        Long id,
+        String name,
+        String description,
+        String imageUrl,
+        LocalDateTime createAt,
+        Integer ownerId,
+        String ownerName,
+        LocalDateTime ownerBirthday,
+        Integer ownerNumberOfArtifacts
+) {
+}
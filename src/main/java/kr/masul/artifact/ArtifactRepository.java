@@ -2,12 +2,19 @@ package kr.masul.artifact;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import kr.masul.artifact.summary.CatalogFingerprint;
+import kr.masul.wizard.Wizard;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface ArtifactRepository extends JpaRepository<Artifact, String>,
-        JpaSpecificationExecutor<Artifact> {
+public interface ArtifactRepository extends JpaRepository<Artifact, Long>,
+        JpaSpecificationExecutor<Artifact>, ArtifactRepositoryCustom {
 
 /*
    List<Artifact> findByIdAndNameContainingAndDescriptionContainingAndCreateAtBetweenOrderByNameAsc(
@@ -17,6 +24,35 @@ public interface ArtifactRepository extends JpaRepository<Artifact, String>,
 */
 
    /**
-    * hasId, containsName, containsDescription, hasOwnerName
+    * 검색 조건은 ArtifactSpecs(hasId, hasOwnerName, createdFrom, createdBefore)로 만들어 findProjections에 전달
+    * name, description은 검색 index의 idIn으로 찾고, index 결과가 max-hits에서 잘린 경우만 containsName, containsDescription(like)
     */
+
+   @Query("select new kr.masul.artifact.ArtifactVersion(a.version, a.lastModified, " +
+           "o.id, o.version, o.lastModified, o.artifactCount) " +
+           "from Artifact a left join a.owner o where a.id = :artifactId")
+   Optional<ArtifactVersion> findVersionById(Long artifactId);
+
+   // owner_id index만 읽음(bulk update 전에 캐시를 지울 id 목록)
+   @Query("select a.id from Artifact a where a.owner.id = :ownerId")
+   List<Long> findIdsByOwnerId(Integer ownerId);
+
+   // 아래 bulk update는 한 문장으로 owner_id를 바꿈(entity를 읽지 않음)
+   // entity를 거치지 않으므로 version, lastModified를 직접 올리고, 영속성 컨텍스트는 flush 후 비움
+   @Modifying(flushAutomatically = true, clearAutomatically = true)
+   @Query("update versioned Artifact a set a.owner = :to, a.lastModified = :now where a.owner.id = :fromId")
+   int transferAll(Integer fromId, Wizard to, Instant now);
+
+   @Modifying(flushAutomatically = true, clearAutomatically = true)
+   @Query("update versioned Artifact a set a.owner = :to, a.lastModified = :now " +
+           "where a.owner.id = :fromId and a.id in :artifactIds")
+   int transfer(Integer fromId, Wizard to, Collection<Long> artifactIds, Instant now);
+
+   @Modifying(flushAutomatically = true, clearAutomatically = true)
+   @Query("update versioned Artifact a set a.owner = null, a.lastModified = :now where a.owner.id = :ownerId")
+   int clearOwner(Integer ownerId, Instant now);
+
+   @Query("select new kr.masul.artifact.summary.CatalogFingerprint(count(a), max(a.id), max(a.lastModified), " +
+           "(select max(w.lastModified) from Wizard w)) from Artifact a")
+   CatalogFingerprint findCatalogFingerprint();
 }
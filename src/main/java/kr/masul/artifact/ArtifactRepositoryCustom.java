@@ -0,0 +1,23 @@
+package kr.masul.artifact;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+/**
+ * Specification 조건으로 ArtifactProjection을 읽는 쿼리(ArtifactRepositoryCustomImpl에서 구현)
+ */
+public interface ArtifactRepositoryCustom {
+
+   Page<ArtifactProjection> findProjections(Specification<Artifact> spec, Pageable pageable);
+
+   // count 쿼리 없이 size+1개를 읽어서 다음 페이지 여부만 판단
+   Slice<ArtifactProjection> findProjectionSlice(Specification<Artifact> spec, Sort sort, int size);
+
+   // 조건에 맞는 목록을 fetchSize씩 cursor로 읽음(transaction 안에서 사용하고 close 해야함)
+   Stream<ArtifactProjection> streamProjections(Specification<Artifact> spec, Sort sort, int fetchSize);
+}
@@ -0,0 +1,105 @@
+package kr.masul.artifact;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import kr.masul.wizard.Wizard;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * select a.id, ..., o.id, o.name, o.birthday, o.artifact_count
+ * from artifact a left join wizard o on a.owner_id = o.id where {spec} order by {sort}
+ */
+public class ArtifactRepositoryCustomImpl implements ArtifactRepositoryCustom {
+
+   @PersistenceContext
+   private EntityManager entityManager;
+
+   @Override
+   public Page<ArtifactProjection> findProjections(Specification<Artifact> spec, Pageable pageable) {
+      TypedQuery<ArtifactProjection> query = entityManager.createQuery(projectionQuery(spec, pageable.getSort()));
+      if (pageable.isPaged()) {
+         query.setFirstResult((int) pageable.getOffset());
+         query.setMaxResults(pageable.getPageSize());
+      }
+      List<ArtifactProjection> content = query.getResultList();
+      // 마지막 페이지처럼 개수를 알 수 있으면 count 쿼리를 생략함
+      return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+   }
+
+   @Override
+   public Slice<ArtifactProjection> findProjectionSlice(Specification<Artifact> spec, Sort sort, int size) {
+      List<ArtifactProjection> content = entityManager.createQuery(projectionQuery(spec, sort))
+              .setMaxResults(size + 1)
+              .getResultList();
+      boolean hasNext = content.size() > size;
+      return new SliceImpl<>(hasNext ? content.subList(0, size) : content, PageRequest.of(0, size, sort), hasNext);
+   }
+
+   @Override
+   public Stream<ArtifactProjection> streamProjections(Specification<Artifact> spec, Sort sort, int fetchSize) {
+      // projection은 영속성 컨텍스트에 올라가지 않으므로 행 수와 관계없이 메모리 사용이 일정함
+      return entityManager.createQuery(projectionQuery(spec, sort))
+              .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+              .setHint(AvailableHints.HINT_READ_ONLY, true)
+              .getResultStream();
+   }
+
+   private CriteriaQuery<ArtifactProjection> projectionQuery(Specification<Artifact> spec, Sort sort) {
+      CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+      CriteriaQuery<ArtifactProjection> query = cb.createQuery(ArtifactProjection.class);
+      Root<Artifact> root = query.from(Artifact.class);
+      Join<Artifact, Wizard> owner = root.join("owner", JoinType.LEFT);
+
+      query.select(cb.construct(ArtifactProjection.class,
+              root.get("id"),
+              root.get("name"),
+              root.get("description"),
+              root.get("imageUrl"),
+              root.get("createAt"),
+              owner.get("id"),
+              owner.get("name"),
+              owner.get("birthday"),
+              owner.get("artifactCount")));
+      Predicate predicate = toPredicate(spec, root, query, cb);
+      if (predicate != null) {
+         query.where(predicate);
+      }
+      query.orderBy(QueryUtils.toOrders(sort, root, cb));
+      return query;
+   }
+
+   private long count(Specification<Artifact> spec) {
+      CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+      CriteriaQuery<Long> query = cb.createQuery(Long.class);
+      Root<Artifact> root = query.from(Artifact.class);
+      query.select(cb.count(root));
+      Predicate predicate = toPredicate(spec, root, query, cb);
+      if (predicate != null) {
+         query.where(predicate);
+      }
+      return entityManager.createQuery(query).getSingleResult();
+   }
+
+   private Predicate toPredicate(Specification<Artifact> spec, Root<Artifact> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
+      return spec == null ? null : spec.toPredicate(root, query, cb);
+   }
+}
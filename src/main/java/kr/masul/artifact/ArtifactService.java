@@ -2,25 +2,51 @@ package kr.masul.artifact;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import io.micrometer.core.annotation.Timed;
 import jakarta.transaction.Transactional;
-import kr.masul.client.ai.chat.ChatClient;
-import kr.masul.client.ai.chat.dto.ChatRequest;
-import kr.masul.client.ai.chat.dto.ChatResponse;
-import kr.masul.client.ai.chat.dto.Message;
+import kr.masul.artifact.export.ArtifactExportFormat;
+import kr.masul.artifact.export.ArtifactExportWriter;
+import kr.masul.artifact.search.ArtifactSearchIndex;
+import kr.masul.artifact.summary.ArtifactSummarizer;
+import kr.masul.artifact.summary.ArtifactSummaryCache;
+import kr.masul.artifact.summary.CatalogFingerprint;
 import kr.masul.system.IdWorker;
+import kr.masul.system.converter.ArtifactProjectionToDto;
+import kr.masul.system.converter.ArtifactToDto;
+import kr.masul.system.exception.InvalidSearchCriteriaException;
 import kr.masul.system.exception.ObjectNotFoundException;
+import kr.masul.wizard.Wizard;
+import kr.masul.wizard.WizardDto;
+import kr.masul.wizard.WizardLeaderboard;
+import kr.masul.wizard.WizardRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -28,26 +54,73 @@ import java.util.Map;
 public class ArtifactService {
 
    private final ArtifactRepository artifactRepository;
+   private final WizardRepository wizardRepository;
+   private final WizardLeaderboard wizardLeaderboard;
    private final IdWorker idWorker;
-   private final ChatClient chatClient;
-
-   public Artifact findById(String artifactId) {
+   private final ArtifactSummarizer artifactSummarizer;
+   private final ArtifactSummaryCache artifactSummaryCache;
+   private final ArtifactCache artifactCache;
+   private final ArtifactToDto artifactToDto;
+   private final ArtifactSearchIndex artifactSearchIndex;
+   private final ArtifactProjectionToDto artifactProjectionToDto;
+   private final ObjectMapper objectMapper;
+
+   @Value("${artifact.export.fetch-size:1000}")
+   private int exportFetchSize = 1000;
+
+   // 검색 결과를 관련도 순으로 정렬할 때 쓰는 sort 이름(sort=relevance)
+   static final String RELEVANCE = "relevance";
+   // 검색 index에서 찾은 id를 in (...)으로 DB에서 읽을 때 한번에 넣는 최대 개수
+   private static final int ID_IN_BATCH_SIZE = 1000;
+
+   public Artifact findById(Long artifactId) {
       return artifactRepository
               .findById(artifactId)
               .orElseThrow(() -> new ObjectNotFoundException("artifact",artifactId));
    }
 
+   // 조건부 조회(If-None-Match, If-Modified-Since)용, entity 대신 version 관련 column만 읽음
+   public ArtifactVersion findVersion(Long artifactId) {
+      return artifactRepository.findVersionById(artifactId)
+              .orElseThrow(() -> new ObjectNotFoundException("artifact", artifactId));
+   }
+
+   /**
+    * 조회 api용: L1(local) -> L2(redis) -> DB 순서로 읽음
+    * owner의 artifact 수는 다른 artifact의 assign/transfer로도 바뀌므로(이 artifact의 캐시는 지우지 않음) 캐시에 넣지 않고,
+    * ETag를 계산한 version의 값을 붙임(본문과 ETag가 같은 값을 사용)
+    */
+   public ArtifactDto findDtoById(Long artifactId, ArtifactVersion version) {
+      // owner가 바뀌면 artifact version도 올라가므로 캐시의 owner도 version으로 확인됨
+      ArtifactDto cached = artifactCache.get(artifactId, version.version(), id -> {
+         Artifact artifact = findById(id);
+         return new ArtifactCache.Entry(artifact.getVersion(), withOwnerCount(artifactToDto.convert(artifact), null));
+      });
+      return withOwnerCount(cached, version.ownerNumberOfArtifacts());
+   }
+
+   private ArtifactDto withOwnerCount(ArtifactDto dto, Integer numberOfArtifacts) {
+      if (dto.owner() == null) {
+         return dto;
+      }
+      WizardDto owner = dto.owner();
+      return new ArtifactDto(dto.id(), dto.name(), dto.description(), dto.imageUrl(), dto.createAt(),
+              new WizardDto(owner.id(), owner.name(), owner.birthday(), numberOfArtifacts));
+   }
+
    @Timed("동작 시간 측정용") // 동작하지 않음
    public List<Artifact> findAll() {
       return artifactRepository.findAll();
    }
 
    public Artifact add(Artifact artifact) {
-      artifact.setId(idWorker.nextId() + "");
-      return artifactRepository.save(artifact);
+      artifact.assignId(idWorker.nextId());
+      Artifact savedArtifact = artifactRepository.save(artifact);
+      artifactSearchIndex.index(savedArtifact);
+      return savedArtifact;
    }
 
-   public Artifact update(String artifactId, Artifact update) {
+   public Artifact update(Long artifactId, Artifact update) {
       Artifact oldArtifact = artifactRepository.findById(artifactId)
               .orElseThrow(() -> new ObjectNotFoundException("artifact", artifactId));
 
@@ -55,83 +128,293 @@ public class ArtifactService {
       oldArtifact.setName(update.getName());
       oldArtifact.setDescription(update.getDescription());
       oldArtifact.setImageUrl(update.getImageUrl());
-      oldArtifact.setOwner(update.getOwner());
+      changeOwner(oldArtifact, update.getOwner());
       artifactRepository.save(oldArtifact);
+      artifactCache.evict(artifactId);
+      artifactSearchIndex.index(oldArtifact);
 
       return oldArtifact;
    }
 
-   public void delete(String artifactId) {
-      artifactRepository.findById(artifactId)
+   public void delete(Long artifactId) {
+      Artifact artifact = artifactRepository.findById(artifactId)
               .orElseThrow(() -> new ObjectNotFoundException("artifact", artifactId));
+      changeOwner(artifact, null);
       artifactRepository.deleteById(artifactId);
+      artifactCache.evict(artifactId);
+      artifactSearchIndex.delete(artifactId);
+   }
+
+   // owner가 바뀌면 양쪽 wizard의 artifact 수를 sql로 더함(Wizard.artifactCount는 entity 수정으로 저장되지 않음)
+   private void changeOwner(Artifact artifact, Wizard newOwner) {
+      Wizard oldOwner = artifact.getOwner();
+      if (Objects.equals(oldOwner == null ? null : oldOwner.getId(), newOwner == null ? null : newOwner.getId())) {
+         return;
+      }
+      if (oldOwner != null) {
+         oldOwner.removeArtifact(artifact);
+         wizardRepository.addArtifactCount(oldOwner.getId(), -1, Instant.now());
+         wizardLeaderboard.increment(oldOwner.getId(), -1);
+      }
+      if (newOwner != null) {
+         newOwner.addArtifact(artifact);
+         wizardRepository.addArtifactCount(newOwner.getId(), 1, Instant.now());
+         wizardLeaderboard.increment(newOwner.getId(), 1);
+      }
+   }
+
+   /**
+    * 전체 artifact를 id 순서로 한건씩 읽어서 바로 출력(findAll()처럼 목록을 메모리에 모으지 않음)
+    * @return 출력한 artifact 수
+    */
+   public long export(ArtifactExportFormat format, OutputStream outputStream) throws IOException {
+      return export(null, format, outputStream);
+   }
+
+   // 한 wizard의 artifact만(Wizard.artifacts를 읽지 않고 owner_id index로 읽음)
+   public long exportByOwner(Integer ownerId, ArtifactExportFormat format, OutputStream outputStream) throws IOException {
+      return export(ArtifactSpecs.hasOwnerId(ownerId), format, outputStream);
    }
 
+   private long export(Specification<Artifact> spec, ArtifactExportFormat format, OutputStream outputStream) throws IOException {
+      ArtifactExportWriter writer = ArtifactExportWriter.of(format, outputStream, objectMapper);
+      long count = 0;
+      try (Stream<ArtifactProjection> projections =
+                   artifactRepository.streamProjections(spec, Sort.by(Sort.Direction.ASC, "id"), exportFetchSize)) {
+         for (ArtifactProjection projection : (Iterable<ArtifactProjection>) projections::iterator) {
+            writer.write(artifactProjectionToDto.convert(projection));
+            count++;
+         }
+      }
+      writer.flush();
+      return count;
+   }
+
+   /**
+    * 전체 artifact 요약
+    * 목록이 마지막 요약 이후 바뀌지 않았으면(CatalogFingerprint) 목록을 읽지 않고 캐시된 요약을 돌려줌
+    * AI 응답을 기다리는 동안 DB connection을 잡고 있지 않도록 transaction 없이 실행
+    */
+   @Transactional(Transactional.TxType.NOT_SUPPORTED)
+   public String summarizeAll() throws JsonProcessingException {
+      return summarizeAll(artifactSummarizer::summarize, cached -> {});
+   }
+
+   // summarizeAll과 같지만 생성되는 대로 onToken으로 전달(캐시된 요약은 한번에 전달)
+   @Transactional(Transactional.TxType.NOT_SUPPORTED)
+   public String streamSummaryAll(Consumer<String> onToken) throws JsonProcessingException {
+      return summarizeAll(artifactDtos -> artifactSummarizer.stream(artifactDtos, onToken), onToken);
+   }
+
+   // chunk로 나누어 동시에 요약하고 합침(ArtifactSummarizer), 같은 입력은 캐시된 요약을 사용
+   @Transactional(Transactional.TxType.NOT_SUPPORTED)
    public String summarize(List<ArtifactDto> artifactDtos) throws JsonProcessingException {
-      // LocalDateTime이 있으면 pom.xml에 dependency 추가하고 registerModule(new JavaTimeMoudle()) 추가해야함
-      ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
-      String json = objectMapper.writeValueAsString(artifactDtos);
+      if (!artifactSummaryCache.isEnabled()) {
+         return artifactSummarizer.summarize(artifactDtos);
+      }
+      return summarize(artifactDtos, artifactSummaryCache.hash(artifactDtos), artifactSummarizer::summarize, cached -> {});
+   }
 
-      ChatRequest chatRequest = new ChatRequest("gpt-4", List.of(
-              new Message("system", "질문할 내용"),
-              new Message("user", json)
-      ));
+   private String summarizeAll(Summarizing summarizing, Consumer<String> onCached) throws JsonProcessingException {
+      if (!artifactSummaryCache.isEnabled()) {
+         return summarizing.apply(findAllDtos());
+      }
+      CatalogFingerprint fingerprint = artifactRepository.findCatalogFingerprint();
+      String cached = artifactSummaryCache.findByFingerprint(fingerprint);
+      if (cached != null) {
+         onCached.accept(cached);
+         return cached;
+      }
+      List<ArtifactDto> artifactDtos = findAllDtos();
+      String contentHash = artifactSummaryCache.hash(artifactDtos);
+      String summary = summarize(artifactDtos, contentHash, summarizing, onCached);
+      artifactSummaryCache.putFingerprint(fingerprint, contentHash);
+      return summary;
+   }
 
-      ChatResponse generatedResponse = chatClient.generate(chatRequest);
+   private String summarize(List<ArtifactDto> artifactDtos, String contentHash,
+                            Summarizing summarizing, Consumer<String> onCached) throws JsonProcessingException {
+      String cached = artifactSummaryCache.findByContent(contentHash);
+      if (cached != null) {
+         onCached.accept(cached);
+         return cached;
+      }
+      String summary = summarizing.apply(artifactDtos);
+      artifactSummaryCache.put(contentHash, summary);
+      return summary;
+   }
 
-      return generatedResponse.choices().get(0).message().content();
+   private interface Summarizing {
+      String apply(List<ArtifactDto> artifactDtos) throws JsonProcessingException;
    }
 
-   public Page<Artifact> findAll(Pageable pageable) {
+   // 요약 입력: id 순서로 고정해야 같은 목록의 hash가 같음
+   private List<ArtifactDto> findAllDtos() {
+      return artifactRepository.findProjections(null, Pageable.unpaged(Sort.by("id")))
+              .map(artifactProjectionToDto::convert)
+              .getContent();
+   }
+
+   // 목록은 entity 대신 projection으로 읽음(owner, owner의 artifact 수까지 한번의 sql)
+   public Page<ArtifactProjection> findAll(Pageable pageable) {
 //      List<Sort.Order> sorts = new ArrayList<>();
 //      sorts.add(Sort.Order.desc("name"));
 //
 //      pageable = PageRequest.of(0, 2, (Sort) sorts);
-      return artifactRepository.findAll(pageable);
+      return artifactRepository.findProjections(null, pageable);
+   }
+
+   /**
+    * id(IdWorker로 생성, 시간순) 역순으로 afterId 다음부터 size개
+    * offset 방식처럼 앞 페이지를 읽고 버리지 않고 id 조건(seek)으로 바로 찾아감
+    * afterId가 null이면 첫 페이지
+    */
+   public Slice<ArtifactProjection> findAllAfter(Long afterId, int size) {
+      Specification<Artifact> spec = afterId == null ? null : ArtifactSpecs.idLessThan(afterId);
+      return artifactRepository.findProjectionSlice(spec, Sort.by(Sort.Direction.DESC, "id"), size);
+   }
+
+   // 한 wizard의 artifact를 최신순으로(owner_id, id index 범위만 읽음)
+   public Slice<ArtifactProjection> findAllByOwnerAfter(Integer ownerId, Long afterId, int size) {
+      Specification<Artifact> spec = ArtifactSpecs.hasOwnerId(ownerId);
+      if (afterId != null) {
+         spec = spec.and(ArtifactSpecs.idLessThan(afterId));
+      }
+      return artifactRepository.findProjectionSlice(spec, Sort.by(Sort.Direction.DESC, "id"), size);
    }
 
-   public Page<Artifact> findByCriteria(Map<String, String> searchCriteria, Pageable pageable) {
+   /**
+    * name, description은 검색 index에서 id 목록으로 바꾸고(like '%x%' full scan 대신)
+    * 나머지 조건과 페이지 처리는 DB에서 그 id들에 대해서만 수행
+    * sort=relevance 이면 검색 index의 관련도 순서로 정렬
+    * index 결과가 max-hits개에서 잘리면 DB 정렬은 like 조건으로, 관련도 순은 index의 id 전체로 찾음(400 없음)
+    */
+   public Page<ArtifactProjection> findByCriteria(Map<String, String> searchCriteria, Pageable pageable) {
       // spec을 위한 기본 설정
       Specification<Artifact> spec = Specification.where(null);
+      boolean hasOtherCriteria = false;
       // 찾는 값을 만들어 놓은 spec을 이용해서 찾기를 수행
       if(StringUtils.hasLength(searchCriteria.get("id"))){
          spec = spec.and(ArtifactSpecs.hasId(searchCriteria.get("id")));
-      }
-      if (StringUtils.hasLength(searchCriteria.get("name"))) {
-         spec = spec.and(ArtifactSpecs.containsName(searchCriteria.get("name")));
-      }
-      if (StringUtils.hasLength(searchCriteria.get("description"))) {
-         spec = spec.and(ArtifactSpecs.containsDescription(searchCriteria.get("description")));
+         hasOtherCriteria = true;
       }
       if (StringUtils.hasLength(searchCriteria.get("ownerName"))) {
          spec = spec.and(ArtifactSpecs.hasOwnerName(searchCriteria.get("ownerName")));
+         hasOtherCriteria = true;
       }
-      if (StringUtils.hasLength(searchCriteria.get("start_date")) && StringUtils.hasLength(searchCriteria.get("end_date"))) {
-         spec = spec.and(ArtifactSpecs.betweenDateTime(searchCriteria.get("start_date"), searchCriteria.get("end_date")));
+      // 생성 날짜는 id 범위로 바꿔서 찾음(end_date는 그 시간/날짜까지 포함)
+      if (StringUtils.hasLength(searchCriteria.get("start_date"))) {
+         spec = spec.and(ArtifactSpecs.createdFrom(parseDateCriteria("start_date", searchCriteria.get("start_date"), false)));
+         hasOtherCriteria = true;
+      }
+      if (StringUtils.hasLength(searchCriteria.get("end_date"))) {
+         spec = spec.and(ArtifactSpecs.createdBefore(parseDateCriteria("end_date", searchCriteria.get("end_date"), true)));
+         hasOtherCriteria = true;
       }
-      // 스팩과 페이지를 전달
-      return artifactRepository.findAll(spec, pageable);
-   }
-}
-
-
-
-
-
-
-
-
-
-
-
-
-
-
 
+      boolean byRelevance = pageable.getSort().getOrderFor(RELEVANCE) != null;
+      Pageable dbPageable = byRelevance ? withoutRelevance(pageable) : pageable;
 
+      String name = searchCriteria.get("name");
+      String description = searchCriteria.get("description");
+      if (!StringUtils.hasLength(name) && !StringUtils.hasLength(description)) {
+         // 스팩과 페이지를 전달
+         return artifactRepository.findProjections(spec, dbPageable);
+      }
 
+      ArtifactSearchIndex.Hits hits = artifactSearchIndex.search(name, description);
+      if (hits.ids().isEmpty()) {
+         return Page.empty(pageable);
+      }
+      if (!byRelevance) {
+         // index가 max-hits개에서 잘렸으면 id 목록 대신 like 조건으로 찾음(정렬, 페이지, 개수는 DB가 맞춤)
+         Specification<Artifact> textSpec = hits.truncated()
+                 ? containsWords(name, description)
+                 : ArtifactSpecs.idIn(hits.ids());
+         return artifactRepository.findProjections(spec.and(textSpec), pageable);
+      }
 
+      // 관련도 순: 필요한 순위가 max-hits 뒤에 있으면(다른 조건, 뒤 페이지, 전체 조회) 일치하는 id를 모두 읽음
+      List<Long> allIds = hits.ids();
+      boolean pageInHits = !hasOtherCriteria && pageable.isPaged()
+              && pageable.getOffset() + pageable.getPageSize() <= allIds.size();
+      if (hits.truncated() && !pageInHits) {
+         allIds = artifactSearchIndex.searchAll(name, description);
+      }
+      long total = Math.max(hits.totalHits(), allIds.size());
+      // 다른 조건이 없으면 해당 페이지의 id만, 있으면 조건에 맞는 후보를 모두 읽어서 순위대로 자름
+      List<Long> rankedIds = allIds;
+      if (!hasOtherCriteria && pageable.isPaged()) {
+         int from = (int) Math.min(pageable.getOffset(), rankedIds.size());
+         rankedIds = rankedIds.subList(from, Math.min(from + pageable.getPageSize(), rankedIds.size()));
+         if (rankedIds.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, total);
+         }
+      }
+      Map<Long, Integer> rank = new HashMap<>();
+      for (int i = 0; i < allIds.size(); i++) {
+         rank.put(allIds.get(i), i);
+      }
+      List<ArtifactProjection> content = findProjectionsByIds(spec, rankedIds).stream()
+              .sorted(Comparator.comparing(p -> rank.get(p.id())))
+              .toList();
+      if (!hasOtherCriteria) {
+         return new PageImpl<>(content, pageable, total);
+      }
+      if (pageable.isUnpaged()) {
+         return new PageImpl<>(content, pageable, content.size());
+      }
+      int from = (int) Math.min(pageable.getOffset(), content.size());
+      return new PageImpl<>(content.subList(from, Math.min(from + pageable.getPageSize(), content.size())),
+              pageable, content.size());
+   }
 
+   // in (...)에 id를 너무 많이 넣지 않도록 ID_IN_BATCH_SIZE개씩 나누어 읽음
+   private List<ArtifactProjection> findProjectionsByIds(Specification<Artifact> spec, List<Long> ids) {
+      List<ArtifactProjection> projections = new ArrayList<>(ids.size());
+      for (int from = 0; from < ids.size(); from += ID_IN_BATCH_SIZE) {
+         List<Long> batch = ids.subList(from, Math.min(from + ID_IN_BATCH_SIZE, ids.size()));
+         projections.addAll(artifactRepository.findProjections(spec.and(ArtifactSpecs.idIn(batch)), Pageable.unpaged())
+                 .getContent());
+      }
+      return projections;
+   }
 
+   // index는 단어마다 prefix로 찾으므로 like도 단어마다 AND(부분 문자열이라 index보다 조금 넓게 찾음)
+   private static Specification<Artifact> containsWords(String name, String description) {
+      Specification<Artifact> spec = Specification.where(null);
+      if (StringUtils.hasText(name)) {
+         for (String word : name.trim().split("\\s+")) {
+            spec = spec.and(ArtifactSpecs.containsName(word));
+         }
+      }
+      if (StringUtils.hasText(description)) {
+         for (String word : description.trim().split("\\s+")) {
+            spec = spec.and(ArtifactSpecs.containsDescription(word));
+         }
+      }
+      return spec;
+   }
 
+   // 2026-10-01T10:00:00 또는 2026-10-01(하루 전체), end이면 그 다음 시간(exclusive)을 돌려줌
+   private static Instant parseDateCriteria(String name, String value, boolean end) {
+      try {
+         LocalDateTime dateTime = LocalDateTime.parse(value.trim());
+         Instant instant = dateTime.atZone(ZoneId.systemDefault()).toInstant().truncatedTo(ChronoUnit.MILLIS);
+         return end ? instant.plusMillis(1) : instant;
+      } catch (DateTimeParseException e) {
+         // 날짜만 입력한 경우
+      }
+      try {
+         LocalDate date = LocalDate.parse(value.trim());
+         return (end ? date.plusDays(1) : date).atStartOfDay(ZoneId.systemDefault()).toInstant();
+      } catch (DateTimeParseException e) {
+         throw new InvalidSearchCriteriaException(name, value);
+      }
+   }
 
+   private Pageable withoutRelevance(Pageable pageable) {
+      Sort sort = Sort.by(pageable.getSort().filter(order -> !RELEVANCE.equals(order.getProperty())).toList());
+      return pageable.isPaged() ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort) : Pageable.unpaged(sort);
+   }
+}
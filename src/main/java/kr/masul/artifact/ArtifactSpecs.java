@@ -4,17 +4,38 @@ import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import kr.masul.system.IdWorker;
 import org.springframework.data.jpa.domain.Specification;
 
-import java.time.LocalDateTime;
+import java.time.Instant;
+import java.util.Collection;
 
 public class ArtifactSpecs {
 
+   // 숫자가 아니면 일치하는 artifact 없음
    public static Specification<Artifact> hasId(String providedId) {
+      return (root, query, criteriaBuilder) -> {
+         try {
+            return criteriaBuilder.equal(root.get("id"), Long.parseLong(providedId.trim()));
+         } catch (NumberFormatException e) {
+            return criteriaBuilder.disjunction();
+         }
+      };
+   }
+
+   // keyset 페이지용 seek 조건
+   public static Specification<Artifact> idLessThan(Long providedId) {
       return (root, query, criteriaBuilder) ->
-              criteriaBuilder.equal(root.get("id"), providedId);
+              criteriaBuilder.lessThan(root.get("id"), providedId);
    }
 
+   // 검색 index에서 찾은 id만 DB에서 읽음
+   public static Specification<Artifact> idIn(Collection<Long> providedIds) {
+      return (root, query, criteriaBuilder) ->
+              root.get("id").in(providedIds);
+   }
+
+   // like '%x%'는 index를 못타므로 검색 index 결과가 잘렸을 때만 사용(ArtifactService.findByCriteria)
    public static Specification<Artifact> containsName(String providedName) {
       return (root, query, criteriaBuilder) ->
               criteriaBuilder.like(criteriaBuilder.lower(root.get("name")),
@@ -29,6 +50,12 @@ public class ArtifactSpecs {
                       "%" + providedDescription.toLowerCase() + "%");
    }
 
+   // owner_id column만 비교(wizard join 없음), (owner_id, id) index 사용
+   public static Specification<Artifact> hasOwnerId(Integer providedOwnerId) {
+      return (root, query, criteriaBuilder) ->
+              criteriaBuilder.equal(root.get("owner").get("id"), providedOwnerId);
+   }
+
    public static Specification<Artifact> hasOwnerName(String providedOwnerName) {
       return (root, query, criteriaBuilder) ->
               criteriaBuilder.equal(criteriaBuilder.lower(root.get("owner").get("name")),
@@ -44,13 +71,14 @@ public class ArtifactSpecs {
          }
       };
    }
-   public static Specification<Artifact> betweenDateTime(String start, String end) {
+   // createAt 대신 id(IdWorker 발급 시간이 들어있음)의 범위로 찾음
+   // primary key range scan이 되므로 createAt index가 필요 없음
+   public static Specification<Artifact> createdFrom(Instant fromInclusive) {
+      return (root, query, criteriaBuilder) ->
+              criteriaBuilder.greaterThanOrEqualTo(root.get("id"), IdWorker.minIdAt(fromInclusive.toEpochMilli()));
+   }
 
-      return new Specification<Artifact>() {
-         @Override
-         public Predicate toPredicate(Root<Artifact> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
-            return criteriaBuilder.between(root.get("createAt"), start, end);
-         }
-      };
+   public static Specification<Artifact> createdBefore(Instant toExclusive) {
+      return idLessThan(IdWorker.minIdAt(toExclusive.toEpochMilli()));
    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,28 @@
+package kr.masul.artifact;
+
+import java.time.Instant;
+
+/**
+ * 단건 조회의 ETag, Last-Modified 계산용(entity 전체를 읽지 않고 version 관련 column만 읽음)
+ * 응답의 owner 정보(이름, artifact 수)도 바뀔 수 있으므로 owner의 version, artifact 수를 같이 사용
+ */
+public record ArtifactVersion(
+        Long version,
+        Instant lastModified,
+        Integer ownerId,
+        Long ownerVersion,
+        Instant ownerLastModified,
+        Integer ownerNumberOfArtifacts
+) {
+
+   public String eTag() {
+      return "\"" + version + "-" + (ownerId == null ? "0" : ownerId + "." + ownerVersion + "." + ownerNumberOfArtifacts) + "\"";
+   }
+
+   public long lastModifiedMillis() {
+      if (ownerLastModified != null && ownerLastModified.isAfter(lastModified)) {
+         return ownerLastModified.toEpochMilli();
+      }
+      return lastModified.toEpochMilli();
+   }
+}
@@ -0,0 +1,156 @@
+package kr.masul.artifact.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import kr.masul.artifact.Artifact;
+import kr.masul.artifact.ArtifactDto;
+import kr.masul.artifact.search.ArtifactSearchIndex;
+import kr.masul.system.IdWorker;
+import kr.masul.system.converter.ArtifactToEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * NDJSON(한 줄에 ArtifactDto 하나)을 읽으면서 chunk-size개씩 저장
+ * - id는 chunk마다 IdWorker에서 한번에 예약
+ * - chunk마다 transaction을 commit 하므로 중간에 실패해도 앞의 chunk는 남음
+ * - insert는 hibernate jdbc batch로 묶임(spring.jpa.properties.hibernate.jdbc.batch_size)
+ */
+@Component
+public class ArtifactBulkImporter {
+
+   private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactBulkImporter.class);
+
+   private final EntityManager entityManager;
+   private final TransactionTemplate transactionTemplate;
+   private final ObjectMapper objectMapper;
+   private final Validator validator;
+   private final IdWorker idWorker;
+   private final ArtifactToEntity artifactToEntity;
+   private final ArtifactSearchIndex artifactSearchIndex;
+   private final int chunkSize;
+   private final int maxErrors;
+
+   public ArtifactBulkImporter(EntityManager entityManager,
+                               TransactionTemplate transactionTemplate,
+                               ObjectMapper objectMapper,
+                               Validator validator,
+                               IdWorker idWorker,
+                               ArtifactToEntity artifactToEntity,
+                               ArtifactSearchIndex artifactSearchIndex,
+                               @Value("${artifact.bulk.chunk-size:1000}") int chunkSize,
+                               @Value("${artifact.bulk.max-errors:100}") int maxErrors) {
+      this.entityManager = entityManager;
+      this.transactionTemplate = transactionTemplate;
+      this.objectMapper = objectMapper;
+      this.validator = validator;
+      this.idWorker = idWorker;
+      this.artifactToEntity = artifactToEntity;
+      this.artifactSearchIndex = artifactSearchIndex;
+      this.chunkSize = chunkSize;
+      this.maxErrors = maxErrors;
+   }
+
+   public BulkImportResult importNdjson(InputStream inputStream) throws IOException {
+      Summary summary = new Summary();
+      List<Artifact> chunk = new ArrayList<>(chunkSize);
+      List<Long> chunkLines = new ArrayList<>(chunkSize);
+      BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+      long lineNumber = 0;
+      String line;
+      while ((line = reader.readLine()) != null) {
+         lineNumber++;
+         if (line.isBlank()) {
+            continue;
+         }
+         Artifact artifact = parse(line, lineNumber, summary);
+         if (artifact == null) {
+            continue;
+         }
+         chunk.add(artifact);
+         chunkLines.add(lineNumber);
+         if (chunk.size() == chunkSize) {
+            save(chunk, chunkLines, summary);
+         }
+      }
+      save(chunk, chunkLines, summary);
+      return new BulkImportResult(summary.accepted, summary.rejected, summary.errors);
+   }
+
+   private Artifact parse(String line, long lineNumber, Summary summary) {
+      ArtifactDto artifactDto;
+      try {
+         artifactDto = objectMapper.readValue(line, ArtifactDto.class);
+      } catch (JsonProcessingException e) {
+         summary.reject(lineNumber, "Invalid json: " + e.getOriginalMessage());
+         return null;
+      }
+      Set<ConstraintViolation<ArtifactDto>> violations = validator.validate(artifactDto);
+      if (!violations.isEmpty()) {
+         summary.reject(lineNumber, violations.stream()
+                 .map(ConstraintViolation::getMessage)
+                 .sorted()
+                 .collect(Collectors.joining(" ")));
+         return null;
+      }
+      return artifactToEntity.convert(artifactDto);
+   }
+
+   private void save(List<Artifact> chunk, List<Long> chunkLines, Summary summary) {
+      if (chunk.isEmpty()) {
+         return;
+      }
+      long[] ids = idWorker.nextIds(chunk.size());
+      for (int i = 0; i < chunk.size(); i++) {
+         chunk.get(i).assignId(ids[i]);
+      }
+      try {
+         transactionTemplate.executeWithoutResult(status -> {
+            // id를 직접 넣으므로 save(merge)가 아닌 persist로 select 없이 insert만 함
+            chunk.forEach(entityManager::persist);
+            // open-in-view로 요청 동안 영속성 컨텍스트가 유지되므로 chunk마다 비워서 메모리를 일정하게 유지
+            entityManager.flush();
+            entityManager.clear();
+            artifactSearchIndex.indexAll(List.copyOf(chunk));
+         });
+         summary.accepted += chunk.size();
+      } catch (DataAccessException | PersistenceException e) {
+         LOGGER.warn("artifact bulk chunk (lines {}-{}) failed : {}",
+                 chunkLines.get(0), chunkLines.get(chunkLines.size() - 1), e.getMessage());
+         chunkLines.forEach(line -> summary.reject(line, "Save failed: " + e.getMessage()));
+      }
+      chunk.clear();
+      chunkLines.clear();
+   }
+
+   private class Summary {
+      long accepted;
+      long rejected;
+      final List<BulkImportResult.LineError> errors = new ArrayList<>();
+
+      void reject(long line, String message) {
+         rejected++;
+         if (errors.size() < maxErrors) {
+            errors.add(new BulkImportResult.LineError(line, message));
+         }
+      }
+   }
+}
@@ -0,0 +1,17 @@
+package kr.masul.artifact.bulk;
+
+import java.util.List;
+
+/**
+ * POST /artifacts/bulk 결과
+ * errors는 앞에서부터 artifact.bulk.max-errors개까지만 담음
+ */
+public record BulkImportResult(
+        long accepted,
+        long rejected,
+        List<LineError> errors
+) {
+
+   public record LineError(long line, String message) {
+   }
+}
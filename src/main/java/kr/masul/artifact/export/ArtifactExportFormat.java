@@ -0,0 +1,37 @@
+package kr.masul.artifact.export;
+
+import kr.masul.system.exception.InvalidExportFormatException;
+
+/**
+ * GET /artifacts/export?format=ndjson|csv
+ */
+public enum ArtifactExportFormat {
+
+   NDJSON("application/x-ndjson", "ndjson"),
+   CSV("text/csv", "csv");
+
+   private final String contentType;
+   private final String extension;
+
+   ArtifactExportFormat(String contentType, String extension) {
+      this.contentType = contentType;
+      this.extension = extension;
+   }
+
+   public String getContentType() {
+      return contentType;
+   }
+
+   public String getExtension() {
+      return extension;
+   }
+
+   public static ArtifactExportFormat from(String format) {
+      for (ArtifactExportFormat value : values()) {
+         if (value.extension.equalsIgnoreCase(format)) {
+            return value;
+         }
+      }
+      throw new InvalidExportFormatException(format);
+   }
+}
@@ -0,0 +1,93 @@
+package kr.masul.artifact.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kr.masul.artifact.ArtifactDto;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * artifact 한건씩 바로 출력(전체 목록을 메모리에 모으지 않음)
+ */
+public abstract class ArtifactExportWriter implements Flushable {
+
+   protected final Writer writer;
+
+   protected ArtifactExportWriter(OutputStream outputStream) {
+      this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+   }
+
+   public static ArtifactExportWriter of(ArtifactExportFormat format, OutputStream outputStream, ObjectMapper objectMapper) throws IOException {
+      return switch (format) {
+         case NDJSON -> new NdjsonWriter(outputStream, objectMapper);
+         case CSV -> new CsvWriter(outputStream);
+      };
+   }
+
+   public abstract void write(ArtifactDto artifactDto) throws IOException;
+
+   @Override
+   public void flush() throws IOException {
+      writer.flush();
+   }
+
+   // 한 줄에 ArtifactDto json 하나
+   private static class NdjsonWriter extends ArtifactExportWriter {
+
+      private final ObjectMapper objectMapper;
+
+      NdjsonWriter(OutputStream outputStream, ObjectMapper objectMapper) {
+         super(outputStream);
+         this.objectMapper = objectMapper;
+      }
+
+      @Override
+      public void write(ArtifactDto artifactDto) throws IOException {
+         writer.write(objectMapper.writeValueAsString(artifactDto));
+         writer.write('\n');
+      }
+   }
+
+   // owner는 id, name만 출력
+   private static class CsvWriter extends ArtifactExportWriter {
+
+      CsvWriter(OutputStream outputStream) throws IOException {
+         super(outputStream);
+         writer.write("id,name,description,imageUrl,createAt,ownerId,ownerName\n");
+      }
+
+      @Override
+      public void write(ArtifactDto artifactDto) throws IOException {
+         writer.write(String.valueOf(artifactDto.id()));
+         writer.write(',');
+         writer.write(escape(artifactDto.name()));
+         writer.write(',');
+         writer.write(escape(artifactDto.description()));
+         writer.write(',');
+         writer.write(escape(artifactDto.imageUrl()));
+         writer.write(',');
+         writer.write(artifactDto.createAt() == null ? "" : artifactDto.createAt().toString());
+         writer.write(',');
+         writer.write(artifactDto.owner() == null ? "" : artifactDto.owner().id().toString());
+         writer.write(',');
+         writer.write(artifactDto.owner() == null ? "" : escape(artifactDto.owner().name()));
+         writer.write('\n');
+      }
+
+      // 쉼표, 따옴표, 줄바꿈이 있으면 따옴표로 감싸고 따옴표는 두번 씀(RFC 4180)
+      private String escape(String value) {
+         if (value == null) {
+            return "";
+         }
+         if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+         }
+         return '"' + value.replace("\"", "\"\"") + '"';
+      }
+   }
+}
@@ -0,0 +1,359 @@
+package kr.masul.artifact.search;
+
+import jakarta.annotation.PreDestroy;
+import kr.masul.artifact.Artifact;
+import kr.masul.artifact.ArtifactProjection;
+import kr.masul.artifact.ArtifactRepository;
+import kr.masul.artifact.ArtifactSpecs;
+import kr.masul.artifact.summary.CatalogFingerprint;
+import kr.masul.client.redisCache.RedisCacheClient;
+import kr.masul.system.AfterCommit;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * artifact name, description 검색용 내장 역색인(lucene)
+ * like '%x%'는 index를 못타서 매번 artifact table 전체를 읽으므로,
+ * 검색어는 여기서 id 목록으로 바꾸고 DB는 그 id만 읽음
+ * ArtifactService의 add/update/delete에서 commit 이후에 같이 반영하고,
+ * 바뀐 id를 redis pub/sub으로 알려서 다른 서버는 DB에서 다시 읽어 반영함(ArtifactCache 무효화와 같은 방식)
+ * artifact.search.index-dir가 비어 있으면 메모리에 두고 서버 시작시 DB에서 다시 만듦
+ * 디스크 index는 commit할 때 DB 상태(count, max id, 최근 수정 시간)를 같이 저장하고,
+ * 서버 시작시 DB와 다르면(꺼져 있는 동안 다른 서버에서 바뀐 경우) 다시 만듦
+ * search는 최대 max-hits개의 id만 돌려주므로 totalHits가 더 크면 잘린 결과임(Hits.truncated), 전부 필요하면 searchAll
+ */
+@Component
+public class ArtifactSearchIndex {
+
+   private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactSearchIndex.class);
+   private static final String ID = "id";
+   private static final String NAME = "name";
+   private static final String DESCRIPTION = "description";
+   private static final int REBUILD_BATCH_SIZE = 1000;
+   static final String CHANGE_CHANNEL = "artifact:search:changed";
+   // commit user data에 저장하는 DB 상태
+   private static final String FINGERPRINT = "fingerprint";
+
+   private final ArtifactRepository artifactRepository;
+   private final RedisCacheClient redisCacheClient;
+   // 내가 보낸 변경 알림은 이미 반영했으므로 무시
+   private final String nodeId = UUID.randomUUID().toString();
+   private final Analyzer analyzer;
+   private final Directory directory;
+   private final IndexWriter writer;
+   private final SearcherManager searcherManager;
+   private final int maxHits;
+
+   public ArtifactSearchIndex(ArtifactRepository artifactRepository,
+                              RedisCacheClient redisCacheClient,
+                              RedisMessageListenerContainer listenerContainer,
+                              @Value("${artifact.search.index-dir:}") String indexDir,
+                              @Value("${artifact.search.max-hits:1000}") int maxHits) throws IOException {
+      this.artifactRepository = artifactRepository;
+      this.redisCacheClient = redisCacheClient;
+      this.maxHits = maxHits;
+      this.analyzer = new StandardAnalyzer();
+      this.directory = StringUtils.hasText(indexDir) ? FSDirectory.open(Path.of(indexDir)) : new ByteBuffersDirectory();
+      this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+      this.searcherManager = new SearcherManager(writer, null);
+
+      // 메세지: 보낸 서버 id + '|' + ','로 구분한 artifact id
+      listenerContainer.addMessageListener(
+              (message, pattern) -> onRemoteChange(new String(message.getBody(), StandardCharsets.UTF_8)),
+              new ChannelTopic(CHANGE_CHANNEL));
+   }
+
+   /**
+    * 검색 결과: 관련도(score) 순서의 id 목록(최대 max-hits개)과 전체 일치 건수
+    */
+   public record Hits(List<Long> ids, long totalHits) {
+
+      // max-hits 보다 많이 일치해서 ids가 일부만 담긴 경우
+      public boolean truncated() {
+         return totalHits > ids.size();
+      }
+   }
+
+   public void index(Artifact artifact) {
+      Long id = artifact.getId();
+      String name = artifact.getName();
+      String description = artifact.getDescription();
+      AfterCommit.run(() -> {
+         write(id, name, description);
+         refresh();
+         publish(List.of(id));
+      });
+   }
+
+   // 여러건을 반영하고 refresh는 한번만 함(bulk insert용)
+   public void indexAll(List<Artifact> artifacts) {
+      List<Row> rows = artifacts.stream()
+              .map(a -> new Row(a.getId(), a.getName(), a.getDescription()))
+              .toList();
+      AfterCommit.run(() -> {
+         rows.forEach(row -> write(row.id(), row.name(), row.description()));
+         refresh();
+         publish(rows.stream().map(Row::id).toList());
+      });
+   }
+
+   // commit 이후에 쓰므로 entity 대신 값만 복사해 둠
+   private record Row(Long id, String name, String description) {
+   }
+
+   public void delete(Long artifactId) {
+      AfterCommit.run(() -> {
+         try {
+            writer.deleteDocuments(new Term(ID, String.valueOf(artifactId)));
+         } catch (IOException e) {
+            throw new UncheckedIOException(e);
+         }
+         refresh();
+         publish(List.of(artifactId));
+      });
+   }
+
+   private void publish(List<Long> artifactIds) {
+      try {
+         for (int from = 0; from < artifactIds.size(); from += REBUILD_BATCH_SIZE) {
+            List<Long> batch = artifactIds.subList(from, Math.min(from + REBUILD_BATCH_SIZE, artifactIds.size()));
+            redisCacheClient.publish(CHANGE_CHANNEL,
+                    nodeId + "|" + batch.stream().map(String::valueOf).collect(Collectors.joining(",")));
+         }
+      } catch (DataAccessException e) {
+         // 다른 서버의 index는 다음 시작시 fingerprint가 달라서 다시 만들 때 맞춰짐
+         LOGGER.warn("artifact search index change publish failed for {} artifacts : {}", artifactIds.size(), e.getMessage());
+      }
+   }
+
+   // 다른 서버에서 바뀐 artifact는 DB에서 다시 읽음(없으면 삭제된 것)
+   void onRemoteChange(String message) {
+      int separator = message.indexOf('|');
+      if (separator < 0 || message.substring(0, separator).equals(nodeId)) {
+         return;
+      }
+      List<Long> ids = Arrays.stream(message.substring(separator + 1).split(","))
+              .map(Long::valueOf)
+              .toList();
+      Set<Long> deleted = new HashSet<>(ids);
+      artifactRepository.findProjectionSlice(ArtifactSpecs.idIn(ids), Sort.by(ID), ids.size())
+              .forEach(p -> {
+                 write(p.id(), p.name(), p.description());
+                 deleted.remove(p.id());
+              });
+      try {
+         for (Long id : deleted) {
+            writer.deleteDocuments(new Term(ID, String.valueOf(id)));
+         }
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+      refresh();
+   }
+
+   /**
+    * 입력된 단어가 모두 포함된 artifact(단어 앞부분 일치, 대소문자 무시)
+    * name과 description을 같이 주면 둘 다 만족해야 함
+    */
+   public Hits search(String name, String description) {
+      try {
+         IndexSearcher searcher = searcherManager.acquire();
+         try {
+            TopDocs topDocs = searcher.search(query(name, description), maxHits);
+            return new Hits(ids(searcher, topDocs), topDocs.totalHits.value);
+         } finally {
+            searcherManager.release(searcher);
+         }
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+
+   /**
+    * 일치하는 id 전부를 관련도 순으로 돌려줌(max-hits개씩 searchAfter로 나누어 읽음)
+    * 관련도 순 결과에서 max-hits 뒤의 id가 필요할 때(다른 조건과 같이 거르거나 뒤 페이지)만 사용
+    */
+   public List<Long> searchAll(String name, String description) {
+      Query query = query(name, description);
+      try {
+         IndexSearcher searcher = searcherManager.acquire();
+         try {
+            List<Long> ids = new ArrayList<>();
+            TopDocs topDocs = searcher.search(query, maxHits);
+            while (true) {
+               ids.addAll(ids(searcher, topDocs));
+               if (topDocs.scoreDocs.length < maxHits) {
+                  return ids;
+               }
+               topDocs = searcher.searchAfter(topDocs.scoreDocs[topDocs.scoreDocs.length - 1], query, maxHits);
+            }
+         } finally {
+            searcherManager.release(searcher);
+         }
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+
+   private Query query(String name, String description) {
+      BooleanQuery.Builder query = new BooleanQuery.Builder();
+      addTerms(query, NAME, name);
+      addTerms(query, DESCRIPTION, description);
+      return query.build();
+   }
+
+   private static List<Long> ids(IndexSearcher searcher, TopDocs topDocs) throws IOException {
+      List<Long> ids = new ArrayList<>(topDocs.scoreDocs.length);
+      for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+         ids.add(Long.valueOf(searcher.storedFields().document(scoreDoc.doc).get(ID)));
+      }
+      return ids;
+   }
+
+   // 메모리 index거나 디스크 index가 비어 있거나, 저장된 DB 상태가 지금과 다르면 DB에서 다시 만듦
+   // (dev 초기 데이터는 repository로 바로 저장됨)
+   @EventListener(ApplicationReadyEvent.class)
+   public void rebuildIfStale() throws IOException {
+      String fingerprint = fingerprint();
+      if (writer.getDocStats().numDocs > 0 && fingerprint.equals(committedFingerprint())) {
+         return;
+      }
+      writer.deleteAll();
+      Sort byIdDesc = Sort.by(Sort.Direction.DESC, ID);
+      Slice<ArtifactProjection> slice = artifactRepository.findProjectionSlice(null, byIdDesc, REBUILD_BATCH_SIZE);
+      long count = 0;
+      while (true) {
+         slice.forEach(p -> write(p.id(), p.name(), p.description()));
+         count += slice.getNumberOfElements();
+         if (!slice.hasNext()) {
+            break;
+         }
+         Long lastId = slice.getContent().get(slice.getNumberOfElements() - 1).id();
+         slice = artifactRepository.findProjectionSlice(ArtifactSpecs.idLessThan(lastId), byIdDesc, REBUILD_BATCH_SIZE);
+      }
+      writer.setLiveCommitData(Map.of(FINGERPRINT, fingerprint).entrySet());
+      writer.commit();
+      refresh();
+      LOGGER.info("artifact search index rebuilt with {} artifacts", count);
+   }
+
+   // 검색에는 refresh만 필요하고, 디스크 반영(commit)은 주기적으로 함
+   // DB 상태는 반영하기 전에 읽음(그 사이 바뀐 것은 다음 commit 때 다시 저장됨)
+   @Scheduled(fixedDelayString = "${artifact.search.commit-interval:30000}")
+   public void commit() throws IOException {
+      if (writer.hasUncommittedChanges()) {
+         writer.setLiveCommitData(Map.of(FINGERPRINT, fingerprint()).entrySet());
+         writer.commit();
+      }
+   }
+
+   // index에 영향이 있는 artifact 쪽 값만 사용(wizard 수정은 보지 않음)
+   private String fingerprint() {
+      CatalogFingerprint fingerprint = artifactRepository.findCatalogFingerprint();
+      return fingerprint.count() + ":" + fingerprint.maxId() + ":"
+              + (fingerprint.artifactLastModified() == null ? 0 : fingerprint.artifactLastModified().toEpochMilli());
+   }
+
+   private String committedFingerprint() {
+      Iterable<Map.Entry<String, String>> commitData = writer.getLiveCommitData();
+      if (commitData != null) {
+         for (Map.Entry<String, String> entry : commitData) {
+            if (FINGERPRINT.equals(entry.getKey())) {
+               return entry.getValue();
+            }
+         }
+      }
+      return null;
+   }
+
+   @PreDestroy
+   public void close() throws IOException {
+      searcherManager.close();
+      writer.close();
+      directory.close();
+   }
+
+   // id는 term 일치로만 찾으므로 문자열로 저장
+   private void write(Long artifactId, String name, String description) {
+      String id = String.valueOf(artifactId);
+      Document document = new Document();
+      document.add(new StringField(ID, id, Field.Store.YES));
+      document.add(new TextField(NAME, name == null ? "" : name, Field.Store.NO));
+      document.add(new TextField(DESCRIPTION, description == null ? "" : description, Field.Store.NO));
+      try {
+         writer.updateDocument(new Term(ID, id), document);
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+
+   private void refresh() {
+      try {
+         searcherManager.maybeRefresh();
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+
+   private void addTerms(BooleanQuery.Builder query, String field, String text) {
+      if (!StringUtils.hasText(text)) {
+         return;
+      }
+      try (TokenStream tokens = analyzer.tokenStream(field, text)) {
+         CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+         tokens.reset();
+         while (tokens.incrementToken()) {
+            query.add(new PrefixQuery(new Term(field, term.toString())), BooleanClause.Occur.MUST);
+         }
+         tokens.end();
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+}
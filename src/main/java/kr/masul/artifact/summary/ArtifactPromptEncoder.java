@@ -0,0 +1,94 @@
+package kr.masul.artifact.summary;
+
+import kr.masul.artifact.ArtifactDto;
+import kr.masul.client.ai.chat.TokenEstimator;
+import kr.masul.wizard.WizardDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 요약 요청에 넣을 artifact 목록을 짧은 표 형식으로 만듦(json보다 token이 훨씬 적음)
+ * - 요약에 필요 없는 id, imageUrl, createAt, 소유자 birthday 등은 보내지 않음
+ * - 소유자는 owners 표에 한번만 쓰고 artifact에서는 w1, w2 같은 참조로 씀
+ * - description은 max-description-chars까지만, null은 빈칸
+ * <pre>
+ * owners(ref|name)
+ * w1|Albus Dumbledore
+ * artifacts(name|description|owner)
+ * Deluminator|A Deluminator is a device ...|w1
+ * </pre>
+ */
+@Component
+public class ArtifactPromptEncoder {
+
+   static final String OWNERS_HEADER = "owners(ref|name)";
+   static final String ARTIFACTS_HEADER = "artifacts(name|description|owner)";
+   private static final String ELLIPSIS = "…";
+
+   private final int maxDescriptionChars;
+
+   public ArtifactPromptEncoder(@Value("${artifact.summary.prompt.max-description-chars:200}") int maxDescriptionChars) {
+      this.maxDescriptionChars = maxDescriptionChars;
+   }
+
+   public String encode(List<ArtifactDto> artifactDtos) {
+      Map<Integer, String> ownerRefs = new HashMap<>();
+      StringBuilder owners = new StringBuilder();
+      StringBuilder artifacts = new StringBuilder();
+      for (ArtifactDto artifactDto : artifactDtos) {
+         String ref = "";
+         WizardDto owner = artifactDto.owner();
+         if (owner != null) {
+            ref = ownerRefs.get(owner.id());
+            if (ref == null) {
+               ref = "w" + (ownerRefs.size() + 1);
+               ownerRefs.put(owner.id(), ref);
+               owners.append(ref).append('|').append(clean(owner.name())).append('\n');
+            }
+         }
+         artifacts.append(row(artifactDto, ref)).append('\n');
+      }
+      StringBuilder prompt = new StringBuilder();
+      if (!owners.isEmpty()) {
+         prompt.append(OWNERS_HEADER).append('\n').append(owners);
+      }
+      return prompt.append(ARTIFACTS_HEADER).append('\n').append(artifacts).toString();
+   }
+
+   // chunk를 나눌 때 쓰는 artifact 하나의 token 수(소유자 줄도 따로 들어간다고 보고 보수적으로 계산)
+   public int estimateTokens(ArtifactDto artifactDto) {
+      int tokens = TokenEstimator.estimate(row(artifactDto, "w00")) + 1;
+      if (artifactDto.owner() != null) {
+         tokens += TokenEstimator.estimate("w00|" + clean(artifactDto.owner().name())) + 1;
+      }
+      return tokens;
+   }
+
+   // chunk마다 붙는 표 제목의 token 수
+   public int headerTokens() {
+      return TokenEstimator.estimate(OWNERS_HEADER) + TokenEstimator.estimate(ARTIFACTS_HEADER) + 2;
+   }
+
+   private String row(ArtifactDto artifactDto, String ownerRef) {
+      return clean(artifactDto.name()) + '|' + truncate(clean(artifactDto.description())) + '|' + ownerRef;
+   }
+
+   private String truncate(String text) {
+      if (text.length() <= maxDescriptionChars) {
+         return text;
+      }
+      return text.substring(0, maxDescriptionChars).stripTrailing() + ELLIPSIS;
+   }
+
+   // 구분자(|)와 줄바꿈은 표를 깨므로 바꿈
+   private String clean(String text) {
+      if (text == null) {
+         return "";
+      }
+      return text.replace('|', '/').replaceAll("\\s+", " ").strip();
+   }
+}
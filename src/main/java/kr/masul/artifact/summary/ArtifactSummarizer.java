@@ -0,0 +1,198 @@
+package kr.masul.artifact.summary;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import kr.masul.artifact.ArtifactDto;
+import kr.masul.client.ai.chat.ChatClient;
+import kr.masul.client.ai.chat.TokenEstimator;
+import kr.masul.client.ai.chat.dto.ChatRequest;
+import kr.masul.client.ai.chat.dto.ChatResponse;
+import kr.masul.client.ai.chat.dto.Message;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * artifact 목록 요약(map-reduce)
+ * 1. map: artifact 목록을 ArtifactPromptEncoder 표 형식으로 chunk-tokens 이하로 나누어 chunk마다 동시에 요약(최대 concurrency개)
+ * 2. reduce: 부분 요약들을 합쳐서 하나의 요약으로 만듦(합친 길이가 chunk-tokens를 넘으면 다시 나누어 반복)
+ *    부분 요약은 chunk-tokens의 절반 이하로 잘라서 chunk마다 2개 이상 들어가게 함(반복할 때마다 수가 줄어듦)
+ *    max-reduce-rounds번 반복해도 하나로 모이지 않으면 남은 부분 요약을 그대로 합쳐서 마지막 요청을 보냄
+ * chunk가 하나면 예전처럼 한번만 요청함
+ * 단계별 시간은 artifact.summary timer(stage=map|reduce|total)로 기록
+ * 요청 크기는 artifact.summary.prompt.bytes, artifact.summary.prompt.tokens(stage=map|reduce)로 기록
+ */
+@Component
+public class ArtifactSummarizer {
+
+   static final String SYSTEM_PROMPT = "질문할 내용";
+   static final String REDUCE_PROMPT = "다음은 artifact 목록을 나누어 요약한 내용입니다. 하나의 요약으로 합쳐주세요.";
+
+   private final ChatClient chatClient;
+   private final ArtifactPromptEncoder promptEncoder;
+   private final ExecutorService executor;
+   private final String model;
+   private final int chunkTokens;
+   private final int maxReduceRounds;
+
+   private final Timer mapTimer;
+   private final Timer reduceTimer;
+   private final Timer totalTimer;
+   private final Counter reduceRoundsExceeded;
+   private final MeterRegistry meterRegistry;
+
+   public ArtifactSummarizer(ChatClient chatClient,
+                             ArtifactPromptEncoder promptEncoder,
+                             MeterRegistry meterRegistry,
+                             @Value("${artifact.summary.model:gpt-4}") String model,
+                             @Value("${artifact.summary.chunk-tokens:6000}") int chunkTokens,
+                             @Value("${artifact.summary.concurrency:4}") int concurrency,
+                             @Value("${artifact.summary.max-reduce-rounds:5}") int maxReduceRounds) {
+      this.chatClient = chatClient;
+      this.promptEncoder = promptEncoder;
+      this.meterRegistry = meterRegistry;
+      this.model = model;
+      this.chunkTokens = chunkTokens;
+      this.maxReduceRounds = maxReduceRounds;
+      // 대기열이 차면 호출한 thread에서 실행(작업을 버리지 않고 속도를 늦춤)
+      AtomicInteger threadNumber = new AtomicInteger();
+      this.executor = new ThreadPoolExecutor(concurrency, concurrency, 60, TimeUnit.SECONDS,
+              new ArrayBlockingQueue<>(concurrency * 16),
+              runnable -> {
+                 Thread thread = new Thread(runnable, "artifact-summary-" + threadNumber.incrementAndGet());
+                 thread.setDaemon(true);
+                 return thread;
+              },
+              new ThreadPoolExecutor.CallerRunsPolicy());
+      this.mapTimer = meterRegistry.timer("artifact.summary", "stage", "map");
+      this.reduceTimer = meterRegistry.timer("artifact.summary", "stage", "reduce");
+      this.totalTimer = meterRegistry.timer("artifact.summary", "stage", "total");
+      this.reduceRoundsExceeded = meterRegistry.counter("artifact.summary.reduce.rounds-exceeded");
+   }
+
+   public String summarize(List<ArtifactDto> artifactDtos) {
+      return run(artifactDtos, this::generate);
+   }
+
+   // summarize와 같지만 마지막 요청(chunk가 하나면 그 요청, 아니면 마지막 reduce)의 결과를 생성되는 대로 전달
+   public String stream(List<ArtifactDto> artifactDtos, Consumer<String> onToken) {
+      return run(artifactDtos, (systemPrompt, input) -> {
+         StringBuilder summary = new StringBuilder();
+         chatClient.stream(request(systemPrompt, input), token -> {
+            summary.append(token);
+            onToken.accept(token);
+         });
+         return summary.toString();
+      });
+   }
+
+   private String run(List<ArtifactDto> artifactDtos, BinaryOperator<String> last) {
+      Timer.Sample total = Timer.start();
+      try {
+         // 표 제목은 chunk마다 붙으므로 그만큼 빼고 나눔
+         List<List<ArtifactDto>> chunks = chunk(artifactDtos, promptEncoder::estimateTokens,
+                 chunkTokens - promptEncoder.headerTokens());
+         if (chunks.size() <= 1) {
+            return last.apply(SYSTEM_PROMPT, promptEncoder.encode(artifactDtos));
+         }
+         List<String> partials = mapTimer.record(() ->
+                 generateAll(SYSTEM_PROMPT, chunks.stream().map(promptEncoder::encode).toList()));
+         return reduceTimer.record(() -> reduce(partials, last));
+      } finally {
+         total.stop(totalTimer);
+      }
+   }
+
+   private String reduce(List<String> partials, BinaryOperator<String> last) {
+      // 구분자(1 token)를 포함해 chunk-tokens의 절반 이하면 어떤 두 부분 요약도 한 chunk에 들어감
+      int maxPartialTokens = Math.max(1, chunkTokens / 2 - 1);
+      List<String> current = partials;
+      for (int round = 0; ; round++) {
+         current = current.stream().map(partial -> TokenEstimator.truncate(partial, maxPartialTokens)).toList();
+         List<List<String>> chunks = chunk(current, partial -> TokenEstimator.estimate(partial) + 1, chunkTokens);
+         if (chunks.size() <= 1) {
+            return last.apply(REDUCE_PROMPT, String.join("\n\n", current));
+         }
+         if (round >= maxReduceRounds) {
+            reduceRoundsExceeded.increment();
+            return last.apply(REDUCE_PROMPT, String.join("\n\n", current));
+         }
+         current = generateAll(REDUCE_PROMPT, chunks.stream().map(c -> String.join("\n\n", c)).toList());
+      }
+   }
+
+   // 입력 순서대로 maxTokens를 넘지 않게 묶음(하나가 넘으면 단독 chunk)
+   private <T> List<List<T>> chunk(List<T> items, ToIntFunction<T> estimator, int maxTokens) {
+      List<List<T>> chunks = new ArrayList<>();
+      List<T> current = new ArrayList<>();
+      int tokens = 0;
+      for (T item : items) {
+         int itemTokens = estimator.applyAsInt(item);
+         if (!current.isEmpty() && tokens + itemTokens > maxTokens) {
+            chunks.add(current);
+            current = new ArrayList<>();
+            tokens = 0;
+         }
+         current.add(item);
+         tokens += itemTokens;
+      }
+      if (!current.isEmpty()) {
+         chunks.add(current);
+      }
+      return chunks;
+   }
+
+   private List<String> generateAll(String systemPrompt, List<String> inputs) {
+      List<CompletableFuture<String>> futures = inputs.stream()
+              .map(input -> CompletableFuture.supplyAsync(() -> generate(systemPrompt, input), executor))
+              .toList();
+      try {
+         return futures.stream().map(CompletableFuture::join).toList();
+      } catch (CompletionException e) {
+         futures.forEach(f -> f.cancel(true));
+         // HttpClientErrorException 등은 그대로 던져서 ExceptionHandlerAdvice에서 처리
+         if (e.getCause() instanceof RuntimeException cause) {
+            throw cause;
+         }
+         throw e;
+      }
+   }
+
+   private String generate(String systemPrompt, String input) {
+      ChatResponse generatedResponse = chatClient.generate(request(systemPrompt, input));
+      return generatedResponse.choices().get(0).message().content();
+   }
+
+   private ChatRequest request(String systemPrompt, String input) {
+      // 요청마다 보내는 크기(stage=map|reduce), map 입력은 ArtifactPromptEncoder 형식
+      String stage = REDUCE_PROMPT.equals(systemPrompt) ? "reduce" : "map";
+      meterRegistry.summary("artifact.summary.prompt.bytes", "stage", stage)
+              .record(systemPrompt.getBytes(StandardCharsets.UTF_8).length + input.getBytes(StandardCharsets.UTF_8).length);
+      meterRegistry.summary("artifact.summary.prompt.tokens", "stage", stage)
+              .record(TokenEstimator.estimate(systemPrompt) + TokenEstimator.estimate(input));
+      return new ChatRequest(model, List.of(
+              new Message("system", systemPrompt),
+              new Message("user", input)
+      ));
+   }
+
+   @PreDestroy
+   public void close() {
+      executor.shutdownNow();
+   }
+}
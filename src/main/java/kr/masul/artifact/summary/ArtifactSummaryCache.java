@@ -0,0 +1,137 @@
+package kr.masul.artifact.summary;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import kr.masul.artifact.ArtifactDto;
+import kr.masul.client.redisCache.RedisCacheClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * artifact 요약 캐시(L1: caffeine, L2: redis)
+ * - 요약은 입력(ArtifactDto 목록 json)의 hash로 저장: 같은 입력이면 AI를 다시 부르지 않음
+ * - CatalogFingerprint -> hash도 저장: 목록이 바뀌지 않았으면 목록을 읽지도 않고 바로 요약을 돌려줌
+ * redis 장애는 캐시 miss로 처리
+ */
+@Component
+public class ArtifactSummaryCache {
+
+   private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactSummaryCache.class);
+   private static final String FINGERPRINT_PREFIX = "artifact:summary:fingerprint:";
+   private static final String SUMMARY_PREFIX = "artifact:summary:";
+
+   private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+   private final RedisCacheClient redisCacheClient;
+   private final Cache<String, String> localCache;
+   private final boolean enabled;
+   private final String model;
+   private final Duration ttl;
+
+   private final Counter fingerprintHit;
+   private final Counter contentHit;
+   private final Counter miss;
+
+   public ArtifactSummaryCache(RedisCacheClient redisCacheClient,
+                               MeterRegistry meterRegistry,
+                               @Value("${artifact.summary.cache.enabled:true}") boolean enabled,
+                               @Value("${artifact.summary.model:gpt-4}") String model,
+                               @Value("${artifact.summary.cache.ttl:24h}") Duration ttl) {
+      this.redisCacheClient = redisCacheClient;
+      this.enabled = enabled;
+      this.model = model;
+      this.ttl = ttl;
+      this.localCache = Caffeine.newBuilder()
+              .maximumSize(64)
+              .expireAfterWrite(ttl)
+              .build();
+      this.fingerprintHit = meterRegistry.counter("artifact.summary.cache", "result", "fingerprint-hit");
+      this.contentHit = meterRegistry.counter("artifact.summary.cache", "result", "content-hit");
+      this.miss = meterRegistry.counter("artifact.summary.cache", "result", "miss");
+   }
+
+   public boolean isEnabled() {
+      return enabled;
+   }
+
+   // 목록이 바뀌지 않았으면 마지막 요약, 아니면 null
+   public String findByFingerprint(CatalogFingerprint fingerprint) {
+      String contentHash = read(FINGERPRINT_PREFIX + fingerprint.key());
+      String summary = contentHash == null ? null : read(SUMMARY_PREFIX + contentHash);
+      if (summary != null) {
+         fingerprintHit.increment();
+      }
+      return summary;
+   }
+
+   // 같은 입력의 요약, 없으면 null
+   public String findByContent(String contentHash) {
+      String summary = read(SUMMARY_PREFIX + contentHash);
+      if (summary != null) {
+         contentHit.increment();
+      } else {
+         miss.increment();
+      }
+      return summary;
+   }
+
+   public void put(String contentHash, String summary) {
+      write(SUMMARY_PREFIX + contentHash, summary);
+   }
+
+   public void putFingerprint(CatalogFingerprint fingerprint, String contentHash) {
+      write(FINGERPRINT_PREFIX + fingerprint.key(), contentHash);
+   }
+
+   // 사용하는 model이 바뀌면 요약도 달라지므로 model을 같이 hash함
+   public String hash(List<ArtifactDto> artifactDtos) throws JsonProcessingException {
+      try {
+         MessageDigest digest = MessageDigest.getInstance("SHA-256");
+         digest.update(model.getBytes());
+         digest.update(objectMapper.writeValueAsBytes(artifactDtos));
+         return HexFormat.of().formatHex(digest.digest());
+      } catch (NoSuchAlgorithmException e) {
+         throw new IllegalStateException(e);
+      }
+   }
+
+   private String read(String key) {
+      String value = localCache.getIfPresent(key);
+      if (value != null) {
+         return value;
+      }
+      try {
+         value = redisCacheClient.get(key);
+      } catch (DataAccessException e) {
+         LOGGER.warn("artifact summary cache read failed for {} : {}", key, e.getMessage());
+         return null;
+      }
+      if (value != null) {
+         localCache.put(key, value);
+      }
+      return value;
+   }
+
+   private void write(String key, String value) {
+      localCache.put(key, value);
+      try {
+         redisCacheClient.set(key, value, ttl.toMillis(), TimeUnit.MILLISECONDS);
+      } catch (DataAccessException e) {
+         LOGGER.warn("artifact summary cache write failed for {} : {}", key, e.getMessage());
+      }
+   }
+}
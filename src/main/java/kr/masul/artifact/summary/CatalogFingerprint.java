@@ -0,0 +1,23 @@
+package kr.masul.artifact.summary;
+
+import java.time.Instant;
+
+/**
+ * artifact 목록이 바뀌었는지 확인하는 값(aggregate 쿼리 한번으로 계산, 목록을 읽지 않음)
+ * 추가/삭제는 count, max id로, 수정(owner 변경 포함)은 artifact와 wizard의 최근 수정 시간으로 알 수 있음
+ */
+public record CatalogFingerprint(
+        Long count,
+        Long maxId,
+        Instant artifactLastModified,
+        Instant wizardLastModified
+) {
+
+   public String key() {
+      return count + ":" + maxId + ":" + millis(artifactLastModified) + ":" + millis(wizardLastModified);
+   }
+
+   private static long millis(Instant instant) {
+      return instant == null ? 0 : instant.toEpochMilli();
+   }
+}
@@ -0,0 +1,69 @@
+package kr.masul.artifact.summary;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 요약 작업 상태(POST /artifacts/summary/jobs)
+ * redis hash로 저장하므로 다른 서버에서도 조회 가능
+ */
+public record SummaryJob(
+        String id,
+        Status status,
+        String result,
+        String error,
+        LocalDateTime createAt,
+        LocalDateTime updateAt
+) {
+
+   public enum Status {
+      QUEUED, RUNNING, DONE, FAILED;
+
+      public boolean isFinished() {
+         return this == DONE || this == FAILED;
+      }
+   }
+
+   public static SummaryJob queued(String id) {
+      LocalDateTime now = LocalDateTime.now();
+      return new SummaryJob(id, Status.QUEUED, null, null, now, now);
+   }
+
+   public SummaryJob running() {
+      return new SummaryJob(id, Status.RUNNING, null, null, createAt, LocalDateTime.now());
+   }
+
+   public SummaryJob done(String result) {
+      return new SummaryJob(id, Status.DONE, result, null, createAt, LocalDateTime.now());
+   }
+
+   public SummaryJob failed(String error) {
+      return new SummaryJob(id, Status.FAILED, null, error, createAt, LocalDateTime.now());
+   }
+
+   Map<String, String> toHash() {
+      Map<String, String> hash = new HashMap<>();
+      hash.put("id", id);
+      hash.put("status", status.name());
+      hash.put("createAt", createAt.toString());
+      hash.put("updateAt", updateAt.toString());
+      if (result != null) {
+         hash.put("result", result);
+      }
+      if (error != null) {
+         hash.put("error", error);
+      }
+      return hash;
+   }
+
+   static SummaryJob fromHash(Map<String, String> hash) {
+      return new SummaryJob(
+              hash.get("id"),
+              Status.valueOf(hash.get("status")),
+              hash.get("result"),
+              hash.get("error"),
+              LocalDateTime.parse(hash.get("createAt")),
+              LocalDateTime.parse(hash.get("updateAt")));
+   }
+}
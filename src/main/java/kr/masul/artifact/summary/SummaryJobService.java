@@ -0,0 +1,222 @@
+package kr.masul.artifact.summary;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import kr.masul.artifact.ArtifactService;
+import kr.masul.client.redisCache.RedisCacheClient;
+import kr.masul.system.exception.ObjectNotFoundException;
+import kr.masul.system.exception.SummaryJobRejectedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 요약을 요청 thread(tomcat)가 아닌 별도 thread pool에서 실행
+ * - 작업 상태는 redis hash(artifact:summary:job:{id})에 저장하므로 어느 서버에서나 조회 가능
+ * - 이 서버에서 실행 중인 작업은 local에도 저장(redis 장애시에도 조회 가능)
+ * - SSE 구독자에게는 상태가 바뀔 때마다 전송하고 끝나면 연결을 닫음
+ * - streamSummary는 작업을 저장하지 않고 생성되는 글자를 바로 SSE로 전달(같은 thread pool 사용)
+ */
+@Service
+public class SummaryJobService {
+
+   private static final Logger LOGGER = LoggerFactory.getLogger(SummaryJobService.class);
+   private static final String KEY_PREFIX = "artifact:summary:job:";
+
+   private final ArtifactService artifactService;
+   private final RedisCacheClient redisCacheClient;
+   private final ThreadPoolExecutor executor;
+   private final Cache<String, SummaryJob> localJobs;
+   private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+   private final Duration ttl;
+   private final Duration sseTimeout;
+
+   public SummaryJobService(ArtifactService artifactService,
+                            RedisCacheClient redisCacheClient,
+                            @Value("${artifact.summary.job.workers:2}") int workers,
+                            @Value("${artifact.summary.job.queue-capacity:10}") int queueCapacity,
+                            @Value("${artifact.summary.job.ttl:1h}") Duration ttl,
+                            @Value("${artifact.summary.job.sse-timeout:5m}") Duration sseTimeout) {
+      this.artifactService = artifactService;
+      this.redisCacheClient = redisCacheClient;
+      this.ttl = ttl;
+      this.sseTimeout = sseTimeout;
+      this.localJobs = Caffeine.newBuilder().expireAfterWrite(ttl).build();
+      // 대기열이 차면 바로 거절(요청 thread에서 실행하지 않음)
+      AtomicInteger threadNumber = new AtomicInteger();
+      this.executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+              new ArrayBlockingQueue<>(queueCapacity),
+              runnable -> {
+                 Thread thread = new Thread(runnable, "summary-job-" + threadNumber.incrementAndGet());
+                 thread.setDaemon(true);
+                 return thread;
+              },
+              new ThreadPoolExecutor.AbortPolicy());
+   }
+
+   public SummaryJob submit() {
+      SummaryJob job = SummaryJob.queued(UUID.randomUUID().toString());
+      save(job);
+      try {
+         executor.execute(() -> run(job));
+      } catch (RejectedExecutionException e) {
+         save(job.failed("rejected"));
+         throw new SummaryJobRejectedException();
+      }
+      return job;
+   }
+
+   /**
+    * event: token, data: {"content":"..."} 생성되는 대로
+    * event: done 또는 event: error, data: {"message":"..."} 마지막에 한번
+    */
+   public SseEmitter streamSummary() {
+      SseEmitter emitter = new SseEmitter(sseTimeout.toMillis());
+      try {
+         executor.execute(() -> {
+            try {
+               artifactService.streamSummaryAll(token -> send(emitter, "token", Map.of("content", token)));
+               send(emitter, "done", Map.of());
+            } catch (Exception e) {
+               LOGGER.warn("summary stream failed : {}", e.getMessage());
+               try {
+                  send(emitter, "error", Map.of("message", String.valueOf(e.getMessage())));
+               } catch (UncheckedIOException ignored) {
+                  // 이미 연결이 끊김
+               }
+            }
+            emitter.complete();
+         });
+      } catch (RejectedExecutionException e) {
+         throw new SummaryJobRejectedException();
+      }
+      return emitter;
+   }
+
+   // 연결이 끊기면 예외를 던져서 AI 응답 읽기도 중단
+   private void send(SseEmitter emitter, String name, Object data) {
+      try {
+         emitter.send(SseEmitter.event().name(name).data(data));
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+
+   public SummaryJob find(String jobId) {
+      SummaryJob job = read(jobId);
+      if (job == null) {
+         throw new ObjectNotFoundException("summary job", jobId);
+      }
+      return job;
+   }
+
+   // 현재 상태를 바로 보내고, 이후 바뀔 때마다 전송
+   public SseEmitter subscribe(String jobId) {
+      SummaryJob job = find(jobId);
+      SseEmitter emitter = new SseEmitter(sseTimeout.toMillis());
+      Subscription subscription = new Subscription(jobId, emitter);
+      emitter.onCompletion(() -> subscriptions.remove(subscription));
+      emitter.onTimeout(() -> subscriptions.remove(subscription));
+      emitter.onError(e -> subscriptions.remove(subscription));
+      subscriptions.add(subscription);
+      subscription.send(job);
+      return emitter;
+   }
+
+   // 다른 서버에서 실행 중인 작업도 알 수 있도록 저장소를 주기적으로 읽어서 전송
+   @Scheduled(fixedDelayString = "${artifact.summary.job.sse-poll-interval:1000}")
+   public void pushUpdates() {
+      for (Subscription subscription : subscriptions) {
+         SummaryJob job = read(subscription.jobId);
+         if (job != null) {
+            subscription.send(job);
+         }
+      }
+   }
+
+   private void run(SummaryJob job) {
+      save(job.running());
+      try {
+         save(job.done(artifactService.summarizeAll()));
+      } catch (Exception e) {
+         LOGGER.warn("summary job {} failed : {}", job.id(), e.getMessage());
+         save(job.failed(e.getMessage()));
+      }
+   }
+
+   private void save(SummaryJob job) {
+      localJobs.put(job.id(), job);
+      try {
+         redisCacheClient.putHash(KEY_PREFIX + job.id(), job.toHash(), ttl.toMillis(), TimeUnit.MILLISECONDS);
+      } catch (DataAccessException e) {
+         LOGGER.warn("summary job {} save failed : {}", job.id(), e.getMessage());
+      }
+   }
+
+   private SummaryJob read(String jobId) {
+      SummaryJob job = localJobs.getIfPresent(jobId);
+      if (job != null) {
+         return job;
+      }
+      try {
+         Map<String, String> hash = redisCacheClient.getHash(KEY_PREFIX + jobId);
+         return hash.isEmpty() ? null : SummaryJob.fromHash(hash);
+      } catch (DataAccessException e) {
+         LOGGER.warn("summary job {} read failed : {}", jobId, e.getMessage());
+         return null;
+      }
+   }
+
+   @PreDestroy
+   public void close() {
+      executor.shutdownNow();
+      subscriptions.forEach(s -> s.emitter.complete());
+   }
+
+   private class Subscription {
+      final String jobId;
+      final SseEmitter emitter;
+      LocalDateTime lastSent;
+
+      Subscription(String jobId, SseEmitter emitter) {
+         this.jobId = jobId;
+         this.emitter = emitter;
+      }
+
+      synchronized void send(SummaryJob job) {
+         if (job.updateAt().equals(lastSent)) {
+            return;
+         }
+         lastSent = job.updateAt();
+         try {
+            emitter.send(SseEmitter.event().name(job.status().name().toLowerCase()).data(job));
+            if (job.status().isFinished()) {
+               subscriptions.remove(this);
+               emitter.complete();
+            }
+         } catch (IOException | IllegalStateException e) {
+            // 연결이 끊긴 구독자
+            subscriptions.remove(this);
+         }
+      }
+   }
+}
@@ -0,0 +1,92 @@
+package kr.masul.artifact.view;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * artifact 조회수 집계
+ * artifact 마다 meter를 만들면 meter 수가 끝없이 늘어나므로(heap, prometheus scrape 시간 증가)
+ * 메모리에 모았다가 주기적으로 artifact.view_count 컬럼에 batch update 하고,
+ * 많이 조회된 artifact는 고정 크기 sketch로 추적해서 actuator(top-artifacts)로 보여줌
+ */
+@Component
+public class ArtifactViewCounter {
+
+   private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactViewCounter.class);
+   private static final String UPDATE_SQL = "update artifact set view_count = view_count + ? where id = ?";
+
+   private final JdbcTemplate jdbcTemplate;
+   private final ViewCountBuffer buffer;
+   private final SpaceSavingSketch sketch;
+   private final Counter totalViews;
+   private final int batchSize;
+   // 아직 DB에 반영하지 못한 조회수(artifact id별 한개), DB 장애 중에도 id 수 이상 늘어나지 않음
+   private final Map<Long, Long> pending = new HashMap<>();
+
+   public ArtifactViewCounter(JdbcTemplate jdbcTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${artifact.view.top-k-capacity:100}") int topKCapacity,
+                              @Value("${artifact.view.batch-size:500}") int batchSize) {
+      this.jdbcTemplate = jdbcTemplate;
+      this.buffer = new ViewCountBuffer(Runtime.getRuntime().availableProcessors() * 2, 64);
+      this.sketch = new SpaceSavingSketch(topKCapacity);
+      // 전체 조회수는 meter 한개로만 기록
+      this.totalViews = meterRegistry.counter("artifact.views");
+      this.batchSize = batchSize;
+   }
+
+   public void increment(Long artifactId) {
+      buffer.add(artifactId, 1);
+      totalViews.increment();
+   }
+
+   public List<TopArtifact> top(int limit) {
+      return sketch.top(limit);
+   }
+
+   @Scheduled(fixedDelayString = "${artifact.view.flush-interval:10000}")
+   public synchronized void flush() {
+      // 이전 flush에서 실패한 조회수가 있으면 같은 id끼리 더해서 보냄(sketch에는 이미 반영됨)
+      buffer.drainTo((id, count) -> {
+         sketch.offer(id, count);
+         pending.merge(id, count, Long::sum);
+      });
+      if (pending.isEmpty()) {
+         return;
+      }
+      List<Object[]> rows = pending.entrySet().stream()
+              .map(e -> new Object[]{e.getValue(), e.getKey()})
+              .toList();
+      // batch마다 반영된 id만 지움(중간에 실패해도 앞 batch를 다시 더하지 않음)
+      for (int from = 0; from < rows.size(); from += batchSize) {
+         List<Object[]> batch = rows.subList(from, Math.min(from + batchSize, rows.size()));
+         try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, batch, batchSize, (ps, row) -> {
+               ps.setLong(1, (Long) row[0]);
+               ps.setLong(2, (Long) row[1]);
+            });
+         } catch (DataAccessException e) {
+            LOGGER.warn("artifact view count flush failed, {} artifacts will be retried : {}", pending.size(), e.getMessage());
+            return;
+         }
+         batch.forEach(row -> pending.remove((Long) row[1]));
+      }
+   }
+
+   @PreDestroy
+   public void flushOnShutdown() {
+      flush();
+   }
+}
@@ -0,0 +1,111 @@
+package kr.masul.artifact.view;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving 알고리즘으로 가장 많이 조회된 artifact를 고정된 크기(capacity)로 추적
+ * - 추적 중인 id는 count를 더하고, 새로운 id는 가장 작은 항목을 밀어내고 들어옴
+ * - 밀어낸 항목의 count를 error로 기록(실제 조회수는 count - error 이상 count 이하)
+ * - 최소값을 빨리 찾기 위해 배열 기반 min-heap 사용
+ */
+class SpaceSavingSketch {
+
+   private final int capacity;
+   private final long[] ids;
+   private final long[] counts;
+   private final long[] errors;
+   private final Map<Long, Integer> positions;
+   private int size;
+
+   SpaceSavingSketch(int capacity) {
+      this.capacity = capacity;
+      this.ids = new long[capacity];
+      this.counts = new long[capacity];
+      this.errors = new long[capacity];
+      this.positions = new HashMap<>(capacity * 2);
+   }
+
+   synchronized void offer(long id, long weight) {
+      Integer position = positions.get(id);
+      if (position != null) {
+         counts[position] += weight;
+         siftDown(position);
+      } else if (size < capacity) {
+         ids[size] = id;
+         counts[size] = weight;
+         errors[size] = 0;
+         positions.put(id, size);
+         siftUp(size++);
+      } else {
+         // 가장 적게 조회된 항목(root)을 새 id로 교체
+         positions.remove(ids[0]);
+         errors[0] = counts[0];
+         counts[0] += weight;
+         ids[0] = id;
+         positions.put(id, 0);
+         siftDown(0);
+      }
+   }
+
+   // limit은 0 ~ capacity(음수면 빈 목록)
+   synchronized List<TopArtifact> top(int limit) {
+      int count = Math.max(0, Math.min(limit, capacity));
+      if (count == 0) {
+         return List.of();
+      }
+      List<TopArtifact> result = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+         result.add(new TopArtifact(ids[i], counts[i], errors[i]));
+      }
+      result.sort(Comparator.comparingLong(TopArtifact::views).reversed());
+      return List.copyOf(result.subList(0, Math.min(count, result.size())));
+   }
+
+   private void siftUp(int i) {
+      while (i > 0) {
+         int parent = (i - 1) >>> 1;
+         if (counts[parent] <= counts[i]) {
+            return;
+         }
+         swap(i, parent);
+         i = parent;
+      }
+   }
+
+   private void siftDown(int i) {
+      while (true) {
+         int left = 2 * i + 1;
+         int right = left + 1;
+         int smallest = i;
+         if (left < size && counts[left] < counts[smallest]) {
+            smallest = left;
+         }
+         if (right < size && counts[right] < counts[smallest]) {
+            smallest = right;
+         }
+         if (smallest == i) {
+            return;
+         }
+         swap(i, smallest);
+         i = smallest;
+      }
+   }
+
+   private void swap(int a, int b) {
+      long id = ids[a];
+      long count = counts[a];
+      long error = errors[a];
+      ids[a] = ids[b];
+      counts[a] = counts[b];
+      errors[a] = errors[b];
+      ids[b] = id;
+      counts[b] = count;
+      errors[b] = error;
+      positions.put(ids[a], a);
+      positions.put(ids[b], b);
+   }
+}
@@ -0,0 +1,16 @@
+package kr.masul.artifact.view;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+/**
+ * 많이 조회된 artifact
+ * views는 추정값이며 실제 조회수는 views - error 이상 views 이하
+ */
+public record TopArtifact(
+        // ArtifactDto와 같이 문자열로 출력
+        @JsonFormat(shape = JsonFormat.Shape.STRING)
+        long id,
+        long views,
+        long error
+) {
+}
@@ -0,0 +1,136 @@
+package kr.masul.artifact.view;
+
+import java.util.Arrays;
+
+/**
+ * 조회수를 잠깐 모아두는 메모리 버퍼
+ * - thread 별로 stripe를 나눠서 같은 artifact를 동시에 조회해도 lock 경합이 적음
+ * - stripe는 long 배열 기반 open addressing table이라 조회시 객체 생성이 없음(boxing 없음)
+ * - drain시 같은 id가 여러 stripe에 있으면 그대로 여러번 넘겨줌(받는 쪽에서 더하면 됨)
+ */
+class ViewCountBuffer {
+
+   @FunctionalInterface
+   interface Consumer {
+      void accept(long id, long count);
+   }
+
+   private final Stripe[] stripes;
+   private final int stripeMask;
+
+   ViewCountBuffer(int stripeCount, int initialCapacity) {
+      int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+      this.stripes = new Stripe[size];
+      this.stripeMask = size - 1;
+      for (int i = 0; i < size; i++) {
+         stripes[i] = new Stripe(initialCapacity);
+      }
+   }
+
+   void add(long id, long count) {
+      int index = (int) mix(Thread.currentThread().getId()) & stripeMask;
+      stripes[index].add(id, count);
+   }
+
+   // flush는 scheduler 한 thread에서만 호출
+   synchronized void drainTo(Consumer consumer) {
+      for (Stripe stripe : stripes) {
+         stripe.drainTo(consumer);
+      }
+   }
+
+   static long mix(long h) {
+      h ^= h >>> 33;
+      h *= 0xff51afd7ed558ccdL;
+      h ^= h >>> 33;
+      h *= 0xc4ceb9fe1a85ec53L;
+      h ^= h >>> 33;
+      return h;
+   }
+
+   private static final class Stripe {
+
+      // count가 0이면 빈 칸(조회수는 항상 1 이상)
+      private long[] keys;
+      private long[] counts;
+      private int size;
+
+      // drain 할 때 바꿔 끼우는 예비 배열(매번 새로 만들지 않음)
+      private long[] spareKeys;
+      private long[] spareCounts;
+
+      Stripe(int capacity) {
+         int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+         this.keys = new long[size];
+         this.counts = new long[size];
+         this.spareKeys = new long[size];
+         this.spareCounts = new long[size];
+      }
+
+      synchronized void add(long id, long count) {
+         int mask = keys.length - 1;
+         int i = (int) mix(id) & mask;
+         while (counts[i] != 0) {
+            if (keys[i] == id) {
+               counts[i] += count;
+               return;
+            }
+            i = (i + 1) & mask;
+         }
+         keys[i] = id;
+         counts[i] = count;
+         if (++size * 2 > keys.length) {
+            grow();
+         }
+      }
+
+      void drainTo(Consumer consumer) {
+         long[] drainedKeys;
+         long[] drainedCounts;
+         synchronized (this) {
+            if (size == 0) {
+               return;
+            }
+            drainedKeys = keys;
+            drainedCounts = counts;
+            if (spareKeys.length != keys.length) {
+               spareKeys = new long[keys.length];
+               spareCounts = new long[keys.length];
+            }
+            keys = spareKeys;
+            counts = spareCounts;
+            size = 0;
+         }
+         // lock 밖에서 처리해서 조회 요청을 막지 않음
+         for (int i = 0; i < drainedCounts.length; i++) {
+            if (drainedCounts[i] != 0) {
+               consumer.accept(drainedKeys[i], drainedCounts[i]);
+            }
+         }
+         Arrays.fill(drainedCounts, 0L);
+         synchronized (this) {
+            spareKeys = drainedKeys;
+            spareCounts = drainedCounts;
+         }
+      }
+
+      private void grow() {
+         long[] oldKeys = keys;
+         long[] oldCounts = counts;
+         keys = new long[oldKeys.length << 1];
+         counts = new long[oldKeys.length << 1];
+         int mask = keys.length - 1;
+         for (int j = 0; j < oldCounts.length; j++) {
+            if (oldCounts[j] == 0) {
+               continue;
+            }
+            int i = (int) mix(oldKeys[j]) & mask;
+            while (counts[i] != 0) {
+               i = (i + 1) & mask;
+            }
+            keys[i] = oldKeys[j];
+            counts[i] = oldCounts[j];
+         }
+      }
+   }
+}
@@ -3,7 +3,12 @@ package kr.masul.client.ai.chat;
 import kr.masul.client.ai.chat.dto.ChatRequest;
 import kr.masul.client.ai.chat.dto.ChatResponse;
 
+import java.util.function.Consumer;
+
 public interface ChatClient {
 
    ChatResponse generate(ChatRequest chatRequest);
+
+   // 생성되는 대로 조각(token)을 onToken으로 전달, 응답이 끝나면 반환
+   void stream(ChatRequest chatRequest, Consumer<String> onToken);
 }
@@ -0,0 +1,103 @@
+package kr.masul.client.ai.chat;
+
+import kr.masul.system.exception.ChatRateLimitException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 분당 요청 수(RPM)와 분당 token 수(TPM) 한도에 맞추어 요청을 내보냄
+ * 한도를 넘으면 429를 받는 대신 여기서 차례를 기다림(먼저 예약한 요청이 먼저 나감)
+ * 기다릴 시간이 max-wait을 넘으면 바로 ChatRateLimitException
+ * 한도가 0 이하이면 제한하지 않음
+ */
+class ChatRateLimiter {
+
+   private static final long MINUTE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+   private final Bucket requests;
+   private final Bucket tokens;
+   private final long maxWaitNanos;
+   private final LongSupplier ticker;
+   private long pausedUntil;
+
+   ChatRateLimiter(int requestsPerMinute, int tokensPerMinute, Duration maxWait) {
+      this(requestsPerMinute, tokensPerMinute, maxWait, System::nanoTime);
+   }
+
+   ChatRateLimiter(int requestsPerMinute, int tokensPerMinute, Duration maxWait, LongSupplier ticker) {
+      this.ticker = ticker;
+      this.maxWaitNanos = maxWait.toNanos();
+      long now = ticker.getAsLong();
+      this.requests = new Bucket(requestsPerMinute, now);
+      this.tokens = new Bucket(tokensPerMinute, now);
+      this.pausedUntil = now;
+   }
+
+   public void acquire(int tokenCount) {
+      long waitNanos = reserve(tokenCount);
+      if (waitNanos <= 0) {
+         return;
+      }
+      try {
+         TimeUnit.NANOSECONDS.sleep(waitNanos);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new ChatRateLimitException("Interrupted while waiting for the chat rate limit");
+      }
+   }
+
+   // 429를 받으면 Retry-After 동안 다른 요청도 내보내지 않음
+   public synchronized void pause(Duration duration) {
+      pausedUntil = Math.max(pausedUntil, ticker.getAsLong() + duration.toNanos());
+   }
+
+   public long maxWaitNanos() {
+      return maxWaitNanos;
+   }
+
+   // 양쪽 bucket에서 미리 빼 두고(음수 허용) 채워질 때까지 기다릴 시간을 돌려줌
+   synchronized long reserve(int tokenCount) {
+      long now = ticker.getAsLong();
+      long readyAt = Math.max(pausedUntil, Math.max(requests.readyAt(now, 1), tokens.readyAt(now, tokenCount)));
+      long waitNanos = readyAt - now;
+      if (waitNanos > maxWaitNanos) {
+         throw new ChatRateLimitException("Chat rate limit is exhausted, try again later");
+      }
+      requests.take(1);
+      tokens.take(tokenCount);
+      return waitNanos;
+   }
+
+   // 1분에 perMinute만큼 일정하게 채워지는 bucket
+   private static final class Bucket {
+
+      private final long capacity;
+      private double available;
+      private long refilledAt;
+
+      Bucket(long perMinute, long now) {
+         this.capacity = perMinute;
+         this.available = perMinute;
+         this.refilledAt = now;
+      }
+
+      long readyAt(long now, long amount) {
+         if (capacity <= 0) {
+            return now;
+         }
+         available = Math.min(capacity, available + (double) (now - refilledAt) * capacity / MINUTE_NANOS);
+         refilledAt = now;
+         // 한도보다 큰 요청은 한도만큼만 기다림
+         double deficit = Math.min(amount, capacity) - available;
+         return deficit <= 0 ? now : now + (long) Math.ceil(deficit * MINUTE_NANOS / capacity);
+      }
+
+      void take(long amount) {
+         if (capacity > 0) {
+            available -= Math.min(amount, capacity);
+         }
+      }
+   }
+}
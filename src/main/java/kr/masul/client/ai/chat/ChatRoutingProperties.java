@@ -0,0 +1,36 @@
+package kr.masul.client.ai.chat;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * ai.routing 설정
+ * ladder는 작은(빠른) model부터 순서대로 적음
+ * latencySlo가 0이면 응답시간은 보지 않음, route의 timeout이 0이면 기다리는 시간 제한 없음
+ * maxTimeoutRate를 넘게 timeout 나는 model도 건너뛰고, 건너뛴 model은 probeInterval마다 한번씩 다시 보내봄
+ * maxConcurrency는 timeout을 걸기 위해 쓰는 thread 수(넘으면 ChatRateLimitException)
+ */
+@ConfigurationProperties("ai.routing")
+public record ChatRoutingProperties(Duration latencySlo,
+                                    Double maxTimeoutRate,
+                                    Duration probeInterval,
+                                    Integer maxConcurrency,
+                                    List<Route> ladder) {
+
+   public ChatRoutingProperties {
+      latencySlo = latencySlo == null ? Duration.ZERO : latencySlo;
+      maxTimeoutRate = maxTimeoutRate == null ? 0.5 : maxTimeoutRate;
+      probeInterval = probeInterval == null ? Duration.ofSeconds(30) : probeInterval;
+      maxConcurrency = maxConcurrency == null ? 16 : maxConcurrency;
+      ladder = ladder == null ? List.of() : List.copyOf(ladder);
+   }
+
+   public record Route(String model, int maxInputTokens, Duration timeout) {
+
+      public Route {
+         timeout = timeout == null ? Duration.ZERO : timeout;
+      }
+   }
+}
@@ -1,35 +1,199 @@
 package kr.masul.client.ai.chat;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import kr.masul.client.ai.chat.dto.ChatRequest;
 import kr.masul.client.ai.chat.dto.ChatResponse;
+import kr.masul.client.ai.chat.dto.ChatStreamResponse;
+import kr.masul.client.ai.chat.dto.Message;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClient;
 
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * OpenAI chat completions 호출
+ * - 같은 요청(json hash)이 처리 중이면 새로 보내지 않고 그 결과를 같이 받음(single-flight)
+ * - ai.openai.rate-limit 한도 안에서만 보내고, 넘으면 ChatRateLimiter에서 기다림
+ * - 429를 받으면 Retry-After 만큼 쉬고 retry.max-attempts까지 다시 보냄
+ */
 @Component
 public class OpenAiChatClient implements ChatClient{
 
+   private static final Logger LOGGER = LoggerFactory.getLogger(OpenAiChatClient.class);
+   private static final String DATA_PREFIX = "data:";
+   private static final String DONE = "[DONE]";
+   private static final String RETRY_AFTER_MS = "retry-after-ms";
+
    private final RestClient restClient;
+   private final ObjectMapper objectMapper;
+   private final ChatRateLimiter rateLimiter;
+   private final int maxAttempts;
+   private final Duration defaultBackoff;
+   private final ConcurrentMap<String, CompletableFuture<ChatResponse>> inFlight = new ConcurrentHashMap<>();
 
    public OpenAiChatClient(
            @Value("${ai.openai.endpoint}")  String endpoint,
            @Value("${ai.openai.api-key}") String apiKey,
-           RestClient.Builder restClientBuilder) {
+           RestClient.Builder restClientBuilder,
+           ObjectMapper objectMapper,
+           @Value("${ai.openai.rate-limit.requests-per-minute:0}") int requestsPerMinute,
+           @Value("${ai.openai.rate-limit.tokens-per-minute:0}") int tokensPerMinute,
+           @Value("${ai.openai.rate-limit.max-wait:30s}") Duration maxWait,
+           @Value("${ai.openai.retry.max-attempts:3}") int maxAttempts,
+           @Value("${ai.openai.retry.default-backoff:1s}") Duration defaultBackoff) {
       this.restClient = restClientBuilder
               .baseUrl(endpoint)
               .defaultHeader("Authorization", "Bearer "+apiKey)
               .build();
+      this.objectMapper = objectMapper;
+      this.rateLimiter = new ChatRateLimiter(requestsPerMinute, tokensPerMinute, maxWait);
+      this.maxAttempts = Math.max(1, maxAttempts);
+      this.defaultBackoff = defaultBackoff;
    }
 
    @Override
    public ChatResponse generate(ChatRequest chatRequest) {
+      String key = key(chatRequest);
+      CompletableFuture<ChatResponse> flight = new CompletableFuture<>();
+      CompletableFuture<ChatResponse> running = inFlight.putIfAbsent(key, flight);
+      if (running != null) {
+         return join(running);
+      }
+      try {
+         ChatResponse chatResponse = send(chatRequest, () -> this.restClient
+                 .post()
+                 .contentType(MediaType.APPLICATION_JSON)
+                 .body(chatRequest)
+                 .retrieve()
+                 .body(ChatResponse.class));
+         flight.complete(chatResponse);
+         return chatResponse;
+      } catch (RuntimeException e) {
+         flight.completeExceptionally(e);
+         throw e;
+      } finally {
+         inFlight.remove(key, flight);
+      }
+   }
 
-      return this.restClient
+   /**
+    * stream=true로 요청하고 SSE 응답을 한 줄씩 읽으면서 delta.content를 전달
+    * data: {"choices":[{"index":0,"delta":{"content":"..."}}]}
+    * data: [DONE]
+    */
+   @Override
+   public void stream(ChatRequest chatRequest, Consumer<String> onToken) {
+      ChatRequest streamRequest = new ChatRequest(chatRequest.model(), chatRequest.messages(), true);
+      // 429는 응답 본문을 읽기 전에 오므로 token이 중복 전달되지 않음
+      send(streamRequest, () -> this.restClient
               .post()
               .contentType(MediaType.APPLICATION_JSON)
-              .body(chatRequest)
-              .retrieve()
-              .body(ChatResponse.class);
+              .accept(MediaType.TEXT_EVENT_STREAM)
+              .body(streamRequest)
+              .exchange((request, response) -> {
+                 // retrieve()와 같은 애러(HttpClientErrorException 등)를 던짐
+                 if (response.getStatusCode().isError()) {
+                    new DefaultResponseErrorHandler().handleError(request.getURI(), request.getMethod(), response);
+                 }
+                 try (BufferedReader reader = new BufferedReader(
+                         new InputStreamReader(response.getBody(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                       if (!line.startsWith(DATA_PREFIX)) {
+                          continue;
+                       }
+                       String data = line.substring(DATA_PREFIX.length()).trim();
+                       if (DONE.equals(data)) {
+                          break;
+                       }
+                       ChatStreamResponse chunk = objectMapper.readValue(data, ChatStreamResponse.class);
+                       if (chunk.choices() == null || chunk.choices().isEmpty()) {
+                          continue;
+                       }
+                       Message delta = chunk.choices().get(0).delta();
+                       if (delta != null && delta.content() != null) {
+                          onToken.accept(delta.content());
+                       }
+                    }
+                 }
+                 return null;
+              }));
+   }
+
+   private <T> T send(ChatRequest chatRequest, Supplier<T> call) {
+      int tokens = TokenEstimator.estimate(chatRequest);
+      for (int attempt = 1; ; attempt++) {
+         rateLimiter.acquire(tokens);
+         try {
+            return call.get();
+         } catch (HttpClientErrorException.TooManyRequests e) {
+            Duration wait = retryAfter(e.getResponseHeaders(), attempt);
+            if (attempt >= maxAttempts || wait.toNanos() > rateLimiter.maxWaitNanos()) {
+               throw e;
+            }
+            LOGGER.warn("openai rate limited, retry {}/{} after {}ms", attempt, maxAttempts - 1, wait.toMillis());
+            rateLimiter.pause(wait);
+         }
+      }
+   }
+
+   // retry-after-ms(azure, openai) -> Retry-After(초) -> default-backoff * 2^(attempt-1)
+   private Duration retryAfter(HttpHeaders headers, int attempt) {
+      if (headers != null) {
+         try {
+            String millis = headers.getFirst(RETRY_AFTER_MS);
+            if (millis != null) {
+               return Duration.ofMillis((long) Double.parseDouble(millis));
+            }
+            String seconds = headers.getFirst(HttpHeaders.RETRY_AFTER);
+            if (seconds != null) {
+               return Duration.ofMillis((long) (Double.parseDouble(seconds) * 1000));
+            }
+         } catch (NumberFormatException e) {
+            // http-date 형식 등은 무시하고 기본값 사용
+         }
+      }
+      return defaultBackoff.multipliedBy(1L << Math.min(attempt - 1, 10));
+   }
+
+   private ChatResponse join(CompletableFuture<ChatResponse> running) {
+      try {
+         return running.join();
+      } catch (CompletionException e) {
+         // 먼저 보낸 요청의 애러(HttpClientErrorException 등)를 그대로 던짐
+         if (e.getCause() instanceof RuntimeException cause) {
+            throw cause;
+         }
+         throw e;
+      }
+   }
+
+   private String key(ChatRequest chatRequest) {
+      try {
+         MessageDigest digest = MessageDigest.getInstance("SHA-256");
+         return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(chatRequest)));
+      } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+         throw new IllegalStateException(e);
+      }
    }
 }
@@ -1,16 +1,31 @@
 package kr.masul.client.ai.chat;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
 @Configuration
 public class RestClientBuilderConfiguration {
 
+   // HttpClient 하나를 계속 써야 연결(pool)이 재사용됨, HTTP/2면 연결 하나로 여러 요청을 동시에 보냄(안되면 HTTP/1.1)
+   // pool 크기, keepalive는 jdk.httpclient.connectionPoolSize, jdk.httpclient.keepalive.timeout 시스템 속성으로 조정
    @Bean
-   public RestClient.Builder restClientBuilder(){
+   public RestClient.Builder restClientBuilder(
+           @Value("${ai.openai.http.connect-timeout:5s}") Duration connectTimeout,
+           @Value("${ai.openai.http.read-timeout:120s}") Duration readTimeout){
+      HttpClient httpClient = HttpClient.newBuilder()
+              .version(HttpClient.Version.HTTP_2)
+              .connectTimeout(connectTimeout)
+              .build();
+      JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+      // 응답 header까지 기다리는 시간(stream은 첫 token까지)
+      requestFactory.setReadTimeout(readTimeout);
       return RestClient.builder()
-              .requestFactory(new JdkClientHttpRequestFactory());
+              .requestFactory(requestFactory);
    }
 }
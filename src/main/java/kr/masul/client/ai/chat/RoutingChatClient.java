@@ -0,0 +1,224 @@
+package kr.masul.client.ai.chat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import kr.masul.client.ai.chat.ChatRoutingProperties.Route;
+import kr.masul.client.ai.chat.dto.ChatRequest;
+import kr.masul.client.ai.chat.dto.ChatResponse;
+import kr.masul.system.exception.ChatRateLimitException;
+import kr.masul.system.exception.ChatTimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 입력 크기로 model을 골라 OpenAiChatClient에 보냄(ai.routing.ladder)
+ * 1. 입력 token(추정)이 max-input-tokens 이하인 model들을 ladder 순서대로 후보로 함(없으면 마지막 model)
+ * 2. 최근 응답시간(성공한 요청의 지수이동평균)이 latency-slo를 넘거나 timeout 비율이 max-timeout-rate를 넘는 앞쪽 model은 건너뜀
+ *    (모두 넘으면 첫 후보), 건너뛴 model도 probe-interval마다 요청 하나를 보내서 다시 좋아졌는지 확인
+ * 3. route의 timeout 안에 응답이 없으면 취소하고 다음 후보 model로 다시 보냄, 마지막도 timeout이면 ChatTimeoutException
+ * stream은 model만 고르고, token을 이미 보냈을 수 있으므로 다른 model로 다시 보내지 않음
+ * model별 응답시간은 ai.chat.latency timer(model, outcome=success|error|timeout)로 기록
+ * timeout을 거는 thread는 max-concurrency개까지만 만들고, 모두 사용중이면 ChatRateLimitException(503)
+ * ladder가 비어 있으면 요청의 model 그대로 보냄
+ */
+@Primary
+@Component
+@EnableConfigurationProperties(ChatRoutingProperties.class)
+public class RoutingChatClient implements ChatClient {
+
+   private static final Logger LOGGER = LoggerFactory.getLogger(RoutingChatClient.class);
+   // 최근 응답시간, timeout 비율 평균에서 새 값의 비중
+   private static final double EWMA_WEIGHT = 0.2;
+
+   private final OpenAiChatClient delegate;
+   private final MeterRegistry meterRegistry;
+   private final List<Route> ladder;
+   private final long latencySloNanos;
+   private final double maxTimeoutRate;
+   private final long probeIntervalNanos;
+   private final Map<String, ModelStats> stats = new ConcurrentHashMap<>();
+   // timeout을 걸기 위해 별도 thread에서 보냄
+   // 취소된 요청도 응답(read-timeout)까지 thread를 잡고 있을 수 있으므로 thread 수를 제한
+   private final ThreadPoolExecutor executor;
+
+   public RoutingChatClient(OpenAiChatClient delegate,
+                            MeterRegistry meterRegistry,
+                            ChatRoutingProperties properties) {
+      this.delegate = delegate;
+      this.meterRegistry = meterRegistry;
+      this.ladder = properties.ladder();
+      this.latencySloNanos = properties.latencySlo().toNanos();
+      this.maxTimeoutRate = properties.maxTimeoutRate();
+      this.probeIntervalNanos = properties.probeInterval().toNanos();
+      AtomicInteger threadNumber = new AtomicInteger();
+      this.executor = new ThreadPoolExecutor(properties.maxConcurrency(), properties.maxConcurrency(), 60, TimeUnit.SECONDS,
+              new SynchronousQueue<>(),
+              runnable -> {
+                 Thread thread = new Thread(runnable, "ai-chat-" + threadNumber.incrementAndGet());
+                 thread.setDaemon(true);
+                 return thread;
+              });
+      this.executor.allowCoreThreadTimeOut(true);
+   }
+
+   @Override
+   public ChatResponse generate(ChatRequest chatRequest) {
+      if (ladder.isEmpty()) {
+         return delegate.generate(chatRequest);
+      }
+      List<Route> candidates = candidates(chatRequest);
+      for (int i = 0; ; i++) {
+         Route route = candidates.get(i);
+         try {
+            return call(route, new ChatRequest(route.model(), chatRequest.messages(), chatRequest.stream()));
+         } catch (TimeoutException e) {
+            if (i == candidates.size() - 1) {
+               throw new ChatTimeoutException("No response from " + route.model() + " within " + route.timeout());
+            }
+            LOGGER.warn("{} timed out after {}, falling back to {}", route.model(), route.timeout(), candidates.get(i + 1).model());
+         }
+      }
+   }
+
+   @Override
+   public void stream(ChatRequest chatRequest, Consumer<String> onToken) {
+      if (ladder.isEmpty()) {
+         delegate.stream(chatRequest, onToken);
+         return;
+      }
+      Route route = candidates(chatRequest).get(0);
+      long start = System.nanoTime();
+      String outcome = "error";
+      try {
+         delegate.stream(new ChatRequest(route.model(), chatRequest.messages(), chatRequest.stream()), onToken);
+         outcome = "success";
+      } finally {
+         record(route.model(), outcome, System.nanoTime() - start);
+      }
+   }
+
+   List<Route> candidates(ChatRequest chatRequest) {
+      int tokens = TokenEstimator.estimate(chatRequest);
+      int first = -1;
+      for (int i = 0; i < ladder.size(); i++) {
+         if (ladder.get(i).maxInputTokens() >= tokens) {
+            first = i;
+            break;
+         }
+      }
+      if (first < 0) {
+         return List.of(ladder.get(ladder.size() - 1));
+      }
+      List<Route> eligible = ladder.subList(first, ladder.size());
+      for (int i = 0; i < eligible.size(); i++) {
+         ModelStats modelStats = stats.get(eligible.get(i).model());
+         if (modelStats == null || modelStats.isHealthy() || modelStats.tryProbe()) {
+            return eligible.subList(i, eligible.size());
+         }
+      }
+      return eligible;
+   }
+
+   private ChatResponse call(Route route, ChatRequest chatRequest) throws TimeoutException {
+      long start = System.nanoTime();
+      if (route.timeout().isZero()) {
+         String outcome = "error";
+         try {
+            ChatResponse chatResponse = delegate.generate(chatRequest);
+            outcome = "success";
+            return chatResponse;
+         } finally {
+            record(route.model(), outcome, System.nanoTime() - start);
+         }
+      }
+      Future<ChatResponse> future;
+      try {
+         future = executor.submit(() -> delegate.generate(chatRequest));
+      } catch (RejectedExecutionException e) {
+         throw new ChatRateLimitException("Too many AI chat requests in progress, try again later");
+      }
+      try {
+         ChatResponse chatResponse = future.get(route.timeout().toNanos(), TimeUnit.NANOSECONDS);
+         record(route.model(), "success", System.nanoTime() - start);
+         return chatResponse;
+      } catch (TimeoutException e) {
+         future.cancel(true);
+         record(route.model(), "timeout", System.nanoTime() - start);
+         throw e;
+      } catch (ExecutionException e) {
+         record(route.model(), "error", System.nanoTime() - start);
+         // HttpClientErrorException 등은 그대로 던져서 ExceptionHandlerAdvice에서 처리
+         if (e.getCause() instanceof RuntimeException cause) {
+            throw cause;
+         }
+         throw new IllegalStateException(e.getCause());
+      } catch (InterruptedException e) {
+         future.cancel(true);
+         Thread.currentThread().interrupt();
+         throw new IllegalStateException(e);
+      }
+   }
+
+   // 응답시간 평균에는 성공만 넣고, timeout은 따로 비율로 봄(애러는 빨리 끝나므로 둘 다 넣지 않음)
+   private void record(String model, String outcome, long nanos) {
+      Timer.builder("ai.chat.latency")
+              .tag("model", model)
+              .tag("outcome", outcome)
+              .publishPercentileHistogram()
+              .register(meterRegistry)
+              .record(nanos, TimeUnit.NANOSECONDS);
+      stats.computeIfAbsent(model, m -> new ModelStats()).record(outcome, nanos);
+   }
+
+   @PreDestroy
+   public void close() {
+      executor.shutdownNow();
+   }
+
+   private final class ModelStats {
+
+      private double latency = -1;
+      private double timeoutRate;
+      // 마지막으로 보낸 시각, 건너뛰는 동안은 바뀌지 않으므로 probe 시점 계산에 씀
+      private final AtomicLong lastAttempt = new AtomicLong(System.nanoTime());
+
+      synchronized void record(String outcome, long nanos) {
+         lastAttempt.set(System.nanoTime());
+         if ("success".equals(outcome)) {
+            latency = latency < 0 ? nanos : latency + EWMA_WEIGHT * (nanos - latency);
+            timeoutRate -= EWMA_WEIGHT * timeoutRate;
+         } else if ("timeout".equals(outcome)) {
+            timeoutRate += EWMA_WEIGHT * (1 - timeoutRate);
+         }
+      }
+
+      synchronized boolean isHealthy() {
+         return (latencySloNanos <= 0 || latency <= latencySloNanos) && timeoutRate <= maxTimeoutRate;
+      }
+
+      // probe-interval 동안 보내지 않았으면 요청 하나만 보냄(동시에 여러 요청이 probe 하지 않음)
+      boolean tryProbe() {
+         long last = lastAttempt.get();
+         long now = System.nanoTime();
+         return now - last >= probeIntervalNanos && lastAttempt.compareAndSet(last, now);
+      }
+   }
+}
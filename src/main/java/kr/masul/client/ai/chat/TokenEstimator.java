@@ -0,0 +1,54 @@
+package kr.masul.client.ai.chat;
+
+import kr.masul.client.ai.chat.dto.ChatRequest;
+import kr.masul.client.ai.chat.dto.Message;
+
+/**
+ * tokenizer 없이 token 수를 대략 계산
+ * 영어는 대략 4글자에 1 token, 한글은 1글자에 1 token 이상이므로 보수적으로 글자수 기준으로 계산
+ */
+public final class TokenEstimator {
+
+   // message마다 role 등으로 붙는 token
+   private static final int MESSAGE_OVERHEAD = 4;
+
+   private TokenEstimator() {
+   }
+
+   public static int estimate(String text) {
+      if (text == null) {
+         return 0;
+      }
+      int tokens = 0;
+      for (int i = 0; i < text.length(); i++) {
+         tokens += text.charAt(i) < 0x80 ? 1 : 4;
+      }
+      return (tokens + 3) / 4;
+   }
+
+   // estimate가 maxTokens 이하가 되도록 뒤를 자름
+   public static String truncate(String text, int maxTokens) {
+      if (text == null || estimate(text) <= maxTokens) {
+         return text;
+      }
+      int weight = 0;
+      int end = 0;
+      while (end < text.length()) {
+         int next = weight + (text.charAt(end) < 0x80 ? 1 : 4);
+         if ((next + 3) / 4 > maxTokens) {
+            break;
+         }
+         weight = next;
+         end++;
+      }
+      return text.substring(0, end);
+   }
+
+   public static int estimate(ChatRequest chatRequest) {
+      int tokens = 0;
+      for (Message message : chatRequest.messages()) {
+         tokens += MESSAGE_OVERHEAD + estimate(message.content());
+      }
+      return tokens;
+   }
+}
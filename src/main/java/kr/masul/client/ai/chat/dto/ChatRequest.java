@@ -1,8 +1,17 @@
 package kr.masul.client.ai.chat.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
+// stream이 true이면 응답을 SSE(data: {ChatStreamResponse})로 나누어 받음, null이면 보내지 않음
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record ChatRequest(
         String model,
-        List<Message> messages )
-{}
+        List<Message> messages,
+        Boolean stream)
+{
+   public ChatRequest(String model, List<Message> messages) {
+      this(model, messages, null);
+   }
+}
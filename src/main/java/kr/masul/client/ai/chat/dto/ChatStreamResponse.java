@@ -0,0 +1,12 @@
+package kr.masul.client.ai.chat.dto;
+
+import java.util.List;
+
+// stream 응답의 한 조각, delta.content에 새로 생성된 글자만 들어있음
+public record ChatStreamResponse(List<StreamChoice> choices) {
+
+   public record StreamChoice(
+           int index,
+           Message delta
+   ) {}
+}
@@ -1,44 +1,134 @@
 package kr.masul.client.imageStorage;
 
+import com.azure.core.util.Context;
 import com.azure.storage.blob.BlobClient;
 import com.azure.storage.blob.BlobContainerClient;
 import com.azure.storage.blob.BlobServiceClient;
+import com.azure.storage.blob.models.BlobHttpHeaders;
 import com.azure.storage.blob.models.BlobStorageException;
+import com.azure.storage.blob.models.ParallelTransferOptions;
+import com.azure.storage.blob.options.BlobParallelUploadOptions;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import kr.masul.system.exception.CustomBlobStorageException;
+import kr.masul.system.exception.ImageTooLargeException;
+import kr.masul.system.exception.ImageUploadRejectedException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * 요청 body를 임시 파일에 받지 않고 읽으면서 올림
+ * max-single-upload-size 보다 크거나 길이를 모르면 block-size로 나누어 max-concurrency개씩 동시에 올림(put block)
+ * 업로드 하나가 쓰는 buffer는 최대 block-size * (max-concurrency + 1) 정도이고,
+ * 동시 업로드 수를 max-concurrent-uploads로 제한해서 전체 메모리를 묶어둠(넘으면 503)
+ */
 @Service
 public class AzureImageStorageClient implements ImageStorageClient{
 
    // pom.xml에 spring-cloud-azure-storage-blob를 추가하면 자동으로 BlobServiceClient를 생성해줌
    private final BlobServiceClient blobServiceClient;
+   private final ParallelTransferOptions transferOptions;
+   private final long maxSize;
+   private final Semaphore uploadPermits;
 
-   public AzureImageStorageClient(BlobServiceClient blobServiceClient) {
+   private final Timer uploadSuccess;
+   private final Timer uploadFailure;
+   private final DistributionSummary uploadSize;
+   private final DistributionSummary uploadThroughput;
+
+   public AzureImageStorageClient(BlobServiceClient blobServiceClient,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${image-storage.upload.max-size:20MB}") DataSize maxSize,
+                                  @Value("${image-storage.upload.block-size:4MB}") DataSize blockSize,
+                                  @Value("${image-storage.upload.max-single-upload-size:4MB}") DataSize maxSingleUploadSize,
+                                  @Value("${image-storage.upload.max-concurrency:4}") int maxConcurrency,
+                                  @Value("${image-storage.upload.max-concurrent-uploads:8}") int maxConcurrentUploads) {
       this.blobServiceClient = blobServiceClient;
+      this.maxSize = maxSize.toBytes();
+      this.transferOptions = new ParallelTransferOptions()
+              .setBlockSizeLong(blockSize.toBytes())
+              .setMaxSingleUploadSizeLong(maxSingleUploadSize.toBytes())
+              .setMaxConcurrency(maxConcurrency);
+      this.uploadPermits = new Semaphore(maxConcurrentUploads);
+
+      this.uploadSuccess = meterRegistry.timer("image.upload", "result", "success");
+      this.uploadFailure = meterRegistry.timer("image.upload", "result", "failure");
+      this.uploadSize = DistributionSummary.builder("image.upload.size")
+              .baseUnit("bytes")
+              .register(meterRegistry);
+      this.uploadThroughput = DistributionSummary.builder("image.upload.throughput")
+              .baseUnit("bytes/s")
+              .register(meterRegistry);
    }
 
    @Override
    public String uploadImage(
-           String containerName, String originalImageName, InputStream data, long length)
+           String containerName, String originalImageName, InputStream data, long length, String contentType)
            throws IOException {
+      // 받기 전에 알 수 있으면 바로 거절
+      if (length > maxSize) {
+         throw new ImageTooLargeException(maxSize);
+      }
+      if (!uploadPermits.tryAcquire()) {
+         throw new ImageUploadRejectedException();
+      }
+      SizeLimitedInputStream limited = new SizeLimitedInputStream(data, maxSize);
+      long start = System.nanoTime();
       try {
          // conainer와 상호동작하기 위한 BlobContainerClient 객체를 받아옮
          BlobContainerClient blobContainerClient = blobServiceClient.getBlobContainerClient(containerName);
          // UUID를 활용 새로운 이미지이름을 지정
-         String newImageName = UUID.randomUUID().toString() + originalImageName.substring(originalImageName.lastIndexOf("."));
+         String newImageName = UUID.randomUUID().toString() + extensionOf(originalImageName);
          // 지정된 blob와 상호작동하는 BlobClient 객체를 받아옮.
          BlobClient blobClient = blobContainerClient.getBlobClient(newImageName);
 
-         // blobClient를 활용해서 데이터를 업로드
-         blobClient.upload(data, length, true);
+         // 길이를 주지 않으면 stream을 block 단위로 읽으면서 올림(같은 이름이 있으면 덮어씀)
+         BlobParallelUploadOptions options = new BlobParallelUploadOptions(limited)
+                 .setParallelTransferOptions(transferOptions)
+                 .setHeaders(new BlobHttpHeaders().setContentType(contentType));
+         blobClient.uploadWithResponse(options, null, Context.NONE);
 
+         record(start, limited.getCount());
          return blobClient.getBlobUrl();
       } catch (BlobStorageException e){
+         recordFailure(start);
          throw new CustomBlobStorageException("Azure Blob Storage에 이미미 업로드 실패", e);
+      } catch (RuntimeException e) {
+         recordFailure(start);
+         // sdk 안에서 읽다가 던진 예외는 감싸져서 나올 수 있음
+         if (limited.isExceeded()) {
+            throw new ImageTooLargeException(maxSize);
+         }
+         throw e;
+      } finally {
+         uploadPermits.release();
       }
    }
+
+   // 업로드 하나의 시간, 크기, 초당 byte 수
+   private void record(long start, long bytes) {
+      long nanos = System.nanoTime() - start;
+      uploadSuccess.record(nanos, TimeUnit.NANOSECONDS);
+      uploadSize.record(bytes);
+      if (nanos > 0) {
+         uploadThroughput.record(bytes * 1_000_000_000d / nanos);
+      }
+   }
+
+   private void recordFailure(long start) {
+      uploadFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+   }
+
+   private String extensionOf(String imageName) {
+      int dot = imageName == null ? -1 : imageName.lastIndexOf(".");
+      return dot < 0 ? "" : imageName.substring(dot);
+   }
 }
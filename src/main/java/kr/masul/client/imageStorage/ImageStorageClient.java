@@ -5,11 +5,18 @@ import java.io.InputStream;
 
 public interface ImageStorageClient {
 
+   /**
+    * data를 끝까지 읽으면서 올림
+    * @param length 모르면(chunked 요청) -1
+    * @param contentType 저장소에서 내려줄 Content-Type, 없으면 null
+    * @return 올린 이미지 url
+    */
    String uploadImage(
            String containerName,
            String originalImageName,
            InputStream data,
-           long length ) throws IOException;
+           long length,
+           String contentType) throws IOException;
 
 //   void deleteImage(String fileName) throws IOException;
 }
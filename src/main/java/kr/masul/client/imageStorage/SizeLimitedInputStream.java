@@ -0,0 +1,68 @@
+package kr.masul.client.imageStorage;
+
+import kr.masul.system.exception.ImageTooLargeException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 읽은 byte 수를 세고 maxSize를 넘으면 ImageTooLargeException
+ * Content-Length가 없는(chunked) 요청도 끝까지 받지 않고 중간에 멈춤
+ */
+class SizeLimitedInputStream extends FilterInputStream {
+
+   private final long maxSize;
+   private long count;
+
+   SizeLimitedInputStream(InputStream in, long maxSize) {
+      super(in);
+      this.maxSize = maxSize;
+   }
+
+   long getCount() {
+      return count;
+   }
+
+   boolean isExceeded() {
+      return count > maxSize;
+   }
+
+   @Override
+   public int read() throws IOException {
+      int b = super.read();
+      if (b != -1) {
+         add(1);
+      }
+      return b;
+   }
+
+   @Override
+   public int read(byte[] b, int off, int len) throws IOException {
+      int n = super.read(b, off, len);
+      if (n > 0) {
+         add(n);
+      }
+      return n;
+   }
+
+   @Override
+   public long skip(long n) throws IOException {
+      long skipped = super.skip(n);
+      add(skipped);
+      return skipped;
+   }
+
+   // mark/reset을 지원하면 다시 읽은 byte를 두번 세게 되므로 막음
+   @Override
+   public boolean markSupported() {
+      return false;
+   }
+
+   private void add(long n) {
+      count += n;
+      if (count > maxSize) {
+         throw new ImageTooLargeException(maxSize);
+      }
+   }
+}
@@ -1,13 +1,47 @@
 package kr.masul.client.redisCache;
 
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 @Service
 public class RedisCacheClient {
 
+   // 값이 같을 때만(내가 잡은 lease일 때만) 만료 시간 연장, 삭제
+   private static final RedisScript<Long> EXPIRE_IF_EQUALS = new DefaultRedisScript<>(
+           "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end",
+           Long.class);
+   private static final RedisScript<Long> DELETE_IF_EQUALS = new DefaultRedisScript<>(
+           "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+           Long.class);
+   // 저장된 json의 version이 더 크지 않을 때만 저장(없으면 저장, json이 아니면 덮어씀)
+   private static final RedisScript<Long> SET_IF_NOT_OLDER = new DefaultRedisScript<>(
+           "local current = redis.call('get', KEYS[1]) " +
+           "if current then " +
+           "local ok, decoded = pcall(cjson.decode, current) " +
+           "if ok and type(decoded) == 'table' and tonumber(decoded['version']) " +
+           "and tonumber(decoded['version']) > tonumber(ARGV[2]) then return 0 end " +
+           "end " +
+           "redis.call('set', KEYS[1], ARGV[1], 'PX', ARGV[3]) return 1",
+           Long.class);
+   // sorted set에 반영하면서, 다시 만드는 중인 sorted set(KEYS[2])이 있으면 거기에도 반영
+   private static final RedisScript<Long> INCREMENT_SCORE = new DefaultRedisScript<>(
+           "redis.call('zincrby', KEYS[1], ARGV[2], ARGV[1]) " +
+           "if redis.call('exists', KEYS[2]) == 1 then redis.call('zincrby', KEYS[2], ARGV[2], ARGV[1]) end return 1",
+           Long.class);
+   private static final RedisScript<Long> REMOVE_MEMBER = new DefaultRedisScript<>(
+           "redis.call('zrem', KEYS[1], ARGV[1]) " +
+           "if redis.call('exists', KEYS[2]) == 1 then redis.call('zrem', KEYS[2], ARGV[1]) end return 1",
+           Long.class);
+
    private final StringRedisTemplate redisTemplate;
 
    public RedisCacheClient(StringRedisTemplate redisTemplate) {
@@ -22,10 +56,85 @@ public class RedisCacheClient {
       return redisTemplate.opsForValue().get(key);
    }
 
+   // json 값의 최상위 version 필드로 비교, 저장했으면 true
+   public boolean setIfNotOlder(String key, String json, long version, long timeout, TimeUnit timeUnit) {
+      Long result = redisTemplate.execute(SET_IF_NOT_OLDER, List.of(key), json, String.valueOf(version),
+              String.valueOf(timeUnit.toMillis(timeout)));
+      return result != null && result == 1L;
+   }
+
+   // 없을 때만 저장(SET NX), 저장했으면 true
+   public boolean setIfAbsent(String key, String value, long timeout, TimeUnit timeUnit) {
+      return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, value, timeout, timeUnit));
+   }
+
+   public boolean expireIfEquals(String key, String value, long timeout, TimeUnit timeUnit) {
+      Long result = redisTemplate.execute(EXPIRE_IF_EQUALS, List.of(key), value, String.valueOf(timeUnit.toMillis(timeout)));
+      return result != null && result == 1L;
+   }
+
+   public boolean deleteIfEquals(String key, String value) {
+      Long result = redisTemplate.execute(DELETE_IF_EQUALS, List.of(key), value);
+      return result != null && result == 1L;
+   }
+
+   // hash 전체를 저장하고 만료 시간을 다시 설정
+   public void putHash(String key, Map<String, String> fields, long timeout, TimeUnit timeUnit) {
+      redisTemplate.opsForHash().putAll(key, fields);
+      redisTemplate.expire(key, timeout, timeUnit);
+   }
+
+   // 없으면 빈 map
+   public Map<String, String> getHash(String key) {
+      return redisTemplate.<String, String>opsForHash().entries(key);
+   }
+
    public void delete(String key) {
       redisTemplate.delete(key);
    }
 
+   // 여러 key를 한번에 삭제(DEL key1 key2 ...)
+   public void delete(Collection<String> keys) {
+      redisTemplate.delete(keys);
+   }
+
+   // sorted set 점수를 redis 안에서 더함(ZINCRBY), 없는 member는 0에서 시작, rebuildKey가 있으면 같이 더함
+   public void incrementScore(String key, String rebuildKey, String member, double delta) {
+      redisTemplate.execute(INCREMENT_SCORE, List.of(key, rebuildKey), member, String.valueOf(delta));
+   }
+
+   public void removeMember(String key, String rebuildKey, String member) {
+      redisTemplate.execute(REMOVE_MEMBER, List.of(key, rebuildKey), member);
+   }
+
+   // 점수가 높은 순서로 count개(ZREVRANGE WITHSCORES), key가 없으면 빈 목록
+   public List<TypedTuple<String>> reverseRangeWithScores(String key, long count) {
+      Set<TypedTuple<String>> tuples = redisTemplate.opsForZSet().reverseRangeWithScores(key, 0, count - 1);
+      return tuples == null ? List.of() : List.copyOf(tuples);
+   }
+
+   // 점수를 덮어씀(ZADD), 다 만들지 못하고 멈추면 timeout 뒤에 지워지도록 만료 시간을 다시 설정
+   public void addToSortedSet(String key, Set<TypedTuple<String>> tuples, long timeout, TimeUnit timeUnit) {
+      redisTemplate.opsForZSet().add(key, tuples);
+      redisTemplate.expire(key, timeout, timeUnit);
+   }
+
+   // 다 채운 sourceKey를 RENAME으로 key와 바꾸고 만료 시간을 없앰(만드는 동안에도 읽는 쪽은 이전 sorted set을 읽음)
+   // sourceKey가 없으면(비어 있으면) key를 지움
+   public void replaceSortedSet(String key, String sourceKey) {
+      if (!Boolean.TRUE.equals(redisTemplate.hasKey(sourceKey))) {
+         redisTemplate.delete(key);
+         return;
+      }
+      redisTemplate.rename(sourceKey, key);
+      redisTemplate.persist(key);
+   }
+
+   // 다른 서버(node)에 알려야 하는 메세지(캐시 무효화 등)를 pub/sub 채널로 전송
+   public void publish(String channel, String message) {
+      redisTemplate.convertAndSend(channel, message);
+   }
+
    public boolean isUserTokenInWhiteList(String userId, String tokenFromRequest ){
       String tokenFromRedis = get("whiteList:" + userId);
       return tokenFromRedis != null && tokenFromRedis.equals(tokenFromRequest);
@@ -0,0 +1,27 @@
+package kr.masul.client.redisCache;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * redis pub/sub 채널을 구독하기 위한 설정
+ * 각 기능(캐시 무효화 등)은 이 container에 listener를 등록해서 사용
+ */
+@Configuration
+public class RedisListenerConfiguration {
+
+   @Bean
+   public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+      // redis가 없으면 context 시작이 실패하므로 자동 시작하지 않고 RedisListenerStarter에서 시작함
+      RedisMessageListenerContainer container = new RedisMessageListenerContainer() {
+         @Override
+         public boolean isAutoStartup() {
+            return false;
+         }
+      };
+      container.setConnectionFactory(connectionFactory);
+      return container;
+   }
+}
@@ -0,0 +1,36 @@
+package kr.masul.client.redisCache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * redis 구독을 시작하고, 연결이 안되면 주기적으로 다시 시도
+ * redis가 늦게 뜨거나 잠시 죽어도 서버 자체는 정상 동작해야 함
+ */
+@Component
+public class RedisListenerStarter {
+
+   private static final Logger LOGGER = LoggerFactory.getLogger(RedisListenerStarter.class);
+
+   private final RedisMessageListenerContainer listenerContainer;
+
+   public RedisListenerStarter(RedisMessageListenerContainer listenerContainer) {
+      this.listenerContainer = listenerContainer;
+   }
+
+   @Scheduled(fixedDelayString = "${redis.listener.retry-interval:30000}")
+   public void startIfNotListening() {
+      if (listenerContainer.isListening()) {
+         return;
+      }
+      try {
+         listenerContainer.stop();
+         listenerContainer.start();
+      } catch (RuntimeException e) {
+         LOGGER.warn("redis pub/sub subscription failed, will retry : {}", e.getMessage());
+      }
+   }
+}
@@ -66,6 +66,7 @@ public class SecurityConfiguration {
         .authorizeHttpRequests(request -> request
            .requestMatchers(HttpMethod.GET,url + "/artifacts/**").permitAll()
            .requestMatchers(HttpMethod.POST,url + "/artifacts/search").permitAll()
+           .requestMatchers(HttpMethod.POST, url + "/wizards/leaderboard/rebuild").hasAuthority("ROLE_admin")
            .requestMatchers(HttpMethod.GET, url + "/users").hasAuthority("ROLE_admin")
            .requestMatchers(HttpMethod.GET, url + "/users/**").access(this.userRequestAuthorizationManager)
            .requestMatchers(HttpMethod.POST, url + "/users").hasAuthority("ROLE_admin")
@@ -0,0 +1,27 @@
+package kr.masul.system;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * transaction 안에서 호출되면 commit 이후에 실행(rollback 되면 실행 안함)
+ * 캐시 무효화, 검색 색인처럼 DB에 반영된 다음에 해야 하는 작업에 사용
+ */
+public class AfterCommit {
+
+   private AfterCommit() {
+   }
+
+   public static void run(Runnable action) {
+      if (TransactionSynchronizationManager.isSynchronizationActive()) {
+         TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+               action.run();
+            }
+         });
+      } else {
+         action.run();
+      }
+   }
+}
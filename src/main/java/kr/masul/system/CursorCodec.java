@@ -0,0 +1,41 @@
+package kr.masul.system;
+
+import kr.masul.system.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 마지막으로 받은 row의 key를 client가 그대로 돌려주는 불투명(opaque) 문자열로 변환
+ */
+public class CursorCodec {
+
+   private CursorCodec() {
+   }
+
+   public static String encode(String lastKey) {
+      return Base64.getUrlEncoder().withoutPadding()
+              .encodeToString(lastKey.getBytes(StandardCharsets.UTF_8));
+   }
+
+   // 숫자 key(artifact id 등)
+   public static Long decodeLong(String cursor) {
+      try {
+         return Long.parseLong(decode(cursor));
+      } catch (NumberFormatException e) {
+         throw new InvalidCursorException(cursor);
+      }
+   }
+
+   public static String decode(String cursor) {
+      try {
+         String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+         if (key.isBlank()) {
+            throw new InvalidCursorException(cursor);
+         }
+         return key;
+      } catch (IllegalArgumentException e) {
+         throw new InvalidCursorException(cursor);
+      }
+   }
+}
@@ -0,0 +1,17 @@
+package kr.masul.system;
+
+import java.util.List;
+
+/**
+ * keyset(cursor) 방식 페이지 결과
+ * count 쿼리를 하지 않으므로 전체 개수 대신 다음 페이지 여부(hasNext)와 다음 요청에 쓸 cursor(next)만 줌
+ * 요청 ; http://localhost:80/api/v1/artifacts?after=&size=10  (첫 페이지)
+ *       http://localhost:80/api/v1/artifacts?after={next}&size=10
+ */
+public record CursorSlice<T>(
+        List<T> content,
+        int size,
+        boolean hasNext,
+        String next
+) {
+}
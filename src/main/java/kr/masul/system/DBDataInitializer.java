@@ -27,59 +27,57 @@ public class DBDataInitializer implements CommandLineRunner {
     public void run(String... args) throws Exception {
 
         Artifact a1 = new Artifact();
-        a1.setId("12301");
+        a1.setId(12301L);
         a1.setName("First Artifact");
         a1.setDescription("First Artifact hide");
         a1.setCreateAt(LocalDateTime.now());
         a1.setImageUrl("image");
 
         Artifact a2 = new Artifact();
-        a2.setId("12302");
+        a2.setId(12302L);
         a2.setName("Second Artifact");
         a2.setDescription("Second Artifact get small");
         a2.setCreateAt(LocalDateTime.now());
         a2.setImageUrl("image");
 
         Artifact a3 = new Artifact();
-        a3.setId("12303");
+        a3.setId(12303L);
         a3.setName("Third Artifact");
         a3.setDescription("Third Artifact get large");
         a3.setCreateAt(LocalDateTime.now());
         a3.setImageUrl("image");
 
         Artifact a4 = new Artifact();
-        a4.setId("12304");
+        a4.setId(12304L);
         a4.setName("Fourth Artifact");
         a4.setDescription("Fourth Artifact fly");
         a4.setCreateAt(LocalDateTime.now());
         a4.setImageUrl("image");
 
         Artifact a5 = new Artifact();
-        a5.setId("12305");
+        a5.setId(12305L);
         a5.setName("Fifth Artifact");
         a5.setDescription("Fifth Artifact money");
         a5.setCreateAt(LocalDateTime.now());
         a5.setImageUrl("image");
 
         Artifact a6 = new Artifact();
-        a6.setId("12306");
+        a6.setId(12306L);
         a6.setName("Sixth Artifact");
         a6.setDescription("Sixth Artifact brain");
         a6.setCreateAt(LocalDateTime.now());
         a6.setImageUrl("image");
 
         Artifact a7 = new Artifact();
-        a7.setId(idWorker.nextId()+"");
+        a7.assignId(idWorker.nextId());
         a7.setName("7th Artifact");
         a7.setDescription("7th Artifact culture");
-        a7.setCreateAt(LocalDateTime.now());
         a7.setImageUrl("image");
 
         Artifact a8 = new Artifact();
-        a8.setId(idWorker.nextId()+"");
+        a8.assignId(idWorker.nextId());
         a8.setName("8th Artifact");
         a8.setDescription("8th Artifact keyboard");
-        a8.setCreateAt(LocalDateTime.now());
         a8.setImageUrl("image");
 
         Wizard w1 = new Wizard();
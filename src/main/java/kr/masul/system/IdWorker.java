@@ -3,7 +3,19 @@ package kr.masul.system;
 import java.lang.management.ManagementFactory;
 import java.net.InetAddress;
 import java.net.NetworkInterface;
-
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * snowflake 방식 id(41bit 시간 | 5bit datacenter | 5bit worker | 12bit sequence)
+ * 시간과 sequence를 AtomicLong 하나(state = 시간 << 12 | sequence)에 두고 CAS로 증가시킴(lock 없음)
+ * - 같은 ms에 sequence가 다 차거나 시계가 뒤로 가면 기다리지 않고 state를 계속 증가시킴(다음 ms를 미리 빌려 씀)
+ * - 빌려 쓴 시간이 maxBorrowMillis를 넘으면 그만큼 기다리고, 기다릴 시간이 maxWaitMillis를 넘으면(시계가 크게 뒤로 감) 애러
+ * - leaseValid가 false이면(WorkerIdLease를 잃으면) 다른 서버와 id가 겹칠 수 있으므로 발급하지 않음
+ */
 public class IdWorker {
 
   private final static long twepoch = 1288834974657L;
@@ -26,61 +38,141 @@ public class IdWorker {
 
   private final static long sequenceMask = -1L ^ (-1L << sequenceBits);
 
-  private static long lastTimestamp = -1L;
+  private final static long maxTimestamp = -1L ^ (-1L << (63 - timestampLeftShift));
+
+  private final static long DEFAULT_MAX_BORROW_MILLIS = 1000L;
+
+  private final static long DEFAULT_MAX_WAIT_MILLIS = 5000L;
+
+  // (timestamp - twepoch) << sequenceBits | sequence, 마지막으로 발급한 값
+  private final AtomicLong state = new AtomicLong();
 
-  private long sequence = 0L;
+  private final long nodeBits;
 
-  private final long workerId;
+  private final long maxBorrowMillis;
 
-  private final long datacenterId;
+  private final long maxWaitMillis;
+
+  private final LongSupplier clock;
+
+  private final BooleanSupplier leaseValid;
 
 
   public IdWorker() {
-    this.datacenterId = getDatacenterId(maxDatacenterId);
-    this.workerId = getMaxWorkerId(datacenterId, maxWorkerId);
+    this(getDatacenterId(maxDatacenterId));
+  }
+
+  private IdWorker(long datacenterId) {
+    this(getMaxWorkerId(datacenterId, maxWorkerId), datacenterId);
   }
 
   public IdWorker(long workerId, long datacenterId) {
+    this(workerId, datacenterId, () -> true);
+  }
+
+  public IdWorker(long workerId, long datacenterId, BooleanSupplier leaseValid) {
+    this(workerId, datacenterId, DEFAULT_MAX_BORROW_MILLIS, DEFAULT_MAX_WAIT_MILLIS, System::currentTimeMillis, leaseValid);
+  }
+
+  IdWorker(long workerId, long datacenterId, long maxBorrowMillis, long maxWaitMillis, LongSupplier clock) {
+    this(workerId, datacenterId, maxBorrowMillis, maxWaitMillis, clock, () -> true);
+  }
+
+  IdWorker(long workerId, long datacenterId, long maxBorrowMillis, long maxWaitMillis, LongSupplier clock,
+           BooleanSupplier leaseValid) {
     if (workerId > maxWorkerId || workerId < 0) {
       throw new IllegalArgumentException(String.format("worker Id can't be greater than %d or less than 0", maxWorkerId));
     }
     if (datacenterId > maxDatacenterId || datacenterId < 0) {
       throw new IllegalArgumentException(String.format("datacenter Id can't be greater than %d or less than 0", maxDatacenterId));
     }
-    this.workerId = workerId;
-    this.datacenterId = datacenterId;
+    this.nodeBits = (datacenterId << datacenterIdShift) | (workerId << workerIdShift);
+    this.maxBorrowMillis = maxBorrowMillis;
+    this.maxWaitMillis = maxWaitMillis;
+    this.clock = clock;
+    this.leaseValid = leaseValid;
+  }
+
+  public long nextId() {
+    return toId(reserve(1));
+  }
+
+  /**
+   * count개의 id를 순서대로 증가하게 예약(bulk insert용)
+   * 한번에 빌려 쓸 수 있는 (maxBorrowMillis + 1) * 4096개씩 나누어 CAS로 예약, 그보다 크면 나머지는 시간이 지나기를 기다림
+   */
+  public long[] nextIds(int count) {
+    if (count < 1) {
+      throw new IllegalArgumentException("count must be positive");
+    }
+    long[] ids = new long[count];
+    int maxBlock = maxBlockSize();
+    for (int from = 0; from < count; from += maxBlock) {
+      int size = Math.min(maxBlock, count - from);
+      long first = reserve(size);
+      for (int i = 0; i < size; i++) {
+        ids[from + i] = toId(first + i);
+      }
+    }
+    return ids;
+  }
+
+  // 예약 하나가 차지할 수 있는 최대 ms는 maxBorrowMillis + 1, 더 크면 아무리 기다려도 ahead가 줄지 않음
+  private int maxBlockSize() {
+    return (int) Math.min(Integer.MAX_VALUE, (maxBorrowMillis + 1) << sequenceBits);
   }
 
-  public synchronized long nextId() {
-    long timestamp = timeGen();
-    if (timestamp < lastTimestamp) {
-      throw new RuntimeException(String.format("Clock moved backwards.  Refusing to generate id for %d milliseconds", lastTimestamp - timestamp));
+  // 연속된 count개의 state를 예약하고 첫 state를 돌려줌
+  private long reserve(int count) {
+    if (count < 1 || count > maxBlockSize()) {
+      throw new IllegalArgumentException(String.format("count must be between 1 and %d", maxBlockSize()));
     }
-    if (lastTimestamp == timestamp) {
-      sequence = (sequence + 1) & sequenceMask;
-      if (sequence == 0) {
-        timestamp = tilNextMillis(lastTimestamp);
+    if (!leaseValid.getAsBoolean()) {
+      throw new IllegalStateException("Worker id lease is lost.  Refusing to generate id");
+    }
+    while (true) {
+      long now = clock.getAsLong() - twepoch;
+      long last = state.get();
+      long first = (last >>> sequenceBits) < now ? now << sequenceBits : last + 1;
+      long end = first + count - 1;
+      long ahead = (end >>> sequenceBits) - now;
+      if (ahead > maxBorrowMillis) {
+        waitFor(ahead - maxBorrowMillis);
+        continue;
+      }
+      if (state.compareAndSet(last, end)) {
+        return first;
       }
-    } else {
-      sequence = 0L;
     }
-    lastTimestamp = timestamp;
-    long nextId = ((timestamp - twepoch) << timestampLeftShift)
-            | (datacenterId << datacenterIdShift)
-            | (workerId << workerIdShift) | sequence;
-    return nextId;
   }
 
-  private long tilNextMillis(final long lastTimestamp) {
-    long timestamp = this.timeGen();
-    while (timestamp <= lastTimestamp) {
-      timestamp = this.timeGen();
+  private void waitFor(long millis) {
+    if (millis > maxWaitMillis) {
+      throw new IllegalStateException(String.format("Clock moved backwards.  Refusing to generate id for %d milliseconds", millis));
     }
-    return timestamp;
+    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(millis));
+  }
+
+  private long toId(long state) {
+    return ((state >>> sequenceBits) << timestampLeftShift) | nodeBits | (state & sequenceMask);
   }
 
-  private long timeGen() {
-    return System.currentTimeMillis();
+  /**
+   * id를 발급한 시간(epoch ms), 다음 ms를 빌려 쓴 경우 실제 시간보다 최대 maxBorrowMillis만큼 늦음
+   */
+  public static long timestampOf(long id) {
+    return (id >>> timestampLeftShift) + twepoch;
+  }
+
+  /**
+   * epochMillis 이후에 발급된 id는 모두 이 값 이상, 그 전에 발급된 id는 모두 이 값 미만(시간 범위 -> id 범위)
+   */
+  public static long minIdAt(long epochMillis) {
+    long timestamp = epochMillis - twepoch;
+    if (timestamp <= 0) {
+      return 0L;
+    }
+    return timestamp > maxTimestamp ? Long.MAX_VALUE : timestamp << timestampLeftShift;
   }
 
   protected static long getMaxWorkerId(long datacenterId, long maxWorkerId) {
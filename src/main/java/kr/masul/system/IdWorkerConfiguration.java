@@ -0,0 +1,15 @@
+package kr.masul.system;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// MasulApplication에 두면 test slice(@RestClientTest 등)에서도 만들어지므로 분리
+@Configuration
+public class IdWorkerConfiguration {
+
+   // worker/datacenter id는 서버마다 달라야 함(WorkerIdLease)
+   @Bean
+   public IdWorker idWorker(WorkerIdLease workerIdLease) {
+      return new IdWorker(workerIdLease.getWorkerId(), workerIdLease.getDatacenterId(), workerIdLease::isValid);
+   }
+}
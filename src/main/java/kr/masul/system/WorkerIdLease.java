@@ -0,0 +1,203 @@
+package kr.masul.system;
+
+import jakarta.annotation.PreDestroy;
+import kr.masul.client.redisCache.RedisCacheClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * IdWorker의 worker/datacenter id를 redis lease로 받아서 서버마다 겹치지 않게 함
+ * - 시작할 때 idworker:lease:{slot}(slot = datacenterId * 32 + workerId)을 SET NX + TTL로 잡음
+ * - heartbeat마다 TTL을 연장, 다른 서버가 가져갔거나 연장하지 못한 채 TTL이 지나면 lease를 잃은 것으로 보고 IdWorker가 발급을 거부
+ * - idworker.lease.enabled가 false이면 idworker.static 값을 사용
+ * - enabled인데 시작할 때 redis에 연결하지 못하면 backoff로 다시 시도하고, acquire-timeout이 지나면 시작 실패
+ *   (static 값으로 넘어가면 여러 서버가 같은 id를 발급할 수 있음)
+ */
+@Component
+public class WorkerIdLease {
+
+   static final String KEY_PREFIX = "idworker:lease:";
+   // datacenter 5bit * worker 5bit
+   static final int SLOTS = 1024;
+   private static final int WORKERS_PER_DATACENTER = 32;
+   private static final long INITIAL_BACKOFF_MILLIS = 200;
+   private static final long MAX_BACKOFF_MILLIS = 5000;
+   private static final Logger LOGGER = LoggerFactory.getLogger(WorkerIdLease.class);
+
+   public enum Mode { REDIS, STATIC }
+
+   private final RedisCacheClient redisCacheClient;
+   private final Duration ttl;
+   private final LongSupplier ticker;
+   private final LongConsumer sleeper;
+   private final String holder;
+   private final Mode mode;
+   private final long workerId;
+   private final long datacenterId;
+   private volatile long validUntil;
+   private volatile boolean lost;
+
+   @Autowired
+   public WorkerIdLease(RedisCacheClient redisCacheClient,
+                        @Value("${idworker.lease.enabled:false}") boolean enabled,
+                        @Value("${idworker.lease.ttl:30s}") Duration ttl,
+                        @Value("${idworker.lease.acquire-timeout:60s}") Duration acquireTimeout,
+                        @Value("${idworker.static.worker-id:1}") long staticWorkerId,
+                        @Value("${idworker.static.datacenter-id:1}") long staticDatacenterId) {
+      this(redisCacheClient, enabled, ttl, acquireTimeout, staticWorkerId, staticDatacenterId,
+              System::nanoTime, WorkerIdLease::sleep);
+   }
+
+   WorkerIdLease(RedisCacheClient redisCacheClient, boolean enabled, Duration ttl, Duration acquireTimeout,
+                 long staticWorkerId, long staticDatacenterId, LongSupplier ticker, LongConsumer sleeper) {
+      this.redisCacheClient = redisCacheClient;
+      this.ttl = ttl;
+      this.ticker = ticker;
+      this.sleeper = sleeper;
+      this.holder = hostName() + ":" + UUID.randomUUID();
+      int slot = enabled ? acquireWithRetry(acquireTimeout) : -1;
+      if (slot < 0) {
+         this.mode = Mode.STATIC;
+         this.workerId = staticWorkerId;
+         this.datacenterId = staticDatacenterId;
+      } else {
+         this.mode = Mode.REDIS;
+         this.workerId = slot % WORKERS_PER_DATACENTER;
+         this.datacenterId = slot / WORKERS_PER_DATACENTER;
+      }
+      LOGGER.info("id worker lease: mode={}, datacenterId={}, workerId={}", mode, datacenterId, workerId);
+   }
+
+   // redis에 연결될 때까지 backoff(200ms부터 2배씩, 최대 5s), acquireTimeout이 지나면 시작 실패
+   private int acquireWithRetry(Duration acquireTimeout) {
+      long deadline = ticker.getAsLong() + acquireTimeout.toNanos();
+      long backoff = INITIAL_BACKOFF_MILLIS;
+      while (true) {
+         try {
+            return acquire();
+         } catch (DataAccessException e) {
+            long left = deadline - ticker.getAsLong();
+            if (left <= 0) {
+               throw new IllegalStateException("Could not acquire an id worker lease within " + acquireTimeout, e);
+            }
+            LOGGER.warn("id worker lease unavailable, retrying in {}ms : {}", backoff, e.getMessage());
+            sleeper.accept(Math.min(backoff, TimeUnit.NANOSECONDS.toMillis(left) + 1));
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+         }
+      }
+   }
+
+   // 임의의 slot부터 차례로 SET NX
+   private int acquire() {
+      int start = ThreadLocalRandom.current().nextInt(SLOTS);
+      for (int i = 0; i < SLOTS; i++) {
+         int slot = (start + i) % SLOTS;
+         long now = ticker.getAsLong();
+         if (redisCacheClient.setIfAbsent(KEY_PREFIX + slot, holder, ttl.toMillis(), TimeUnit.MILLISECONDS)) {
+            validUntil = now + ttl.toNanos();
+            return slot;
+         }
+      }
+      throw new IllegalStateException("All " + SLOTS + " id worker leases are taken");
+   }
+
+   private static void sleep(long millis) {
+      try {
+         Thread.sleep(millis);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new IllegalStateException("Interrupted while acquiring an id worker lease", e);
+      }
+   }
+
+   // 연장 요청 전 시각부터 TTL을 계산(redis 쪽보다 먼저 만료되도록)
+   @Scheduled(fixedDelayString = "${idworker.lease.heartbeat:10000}")
+   public void renew() {
+      if (mode == Mode.STATIC || lost) {
+         return;
+      }
+      long now = ticker.getAsLong();
+      String key = key();
+      try {
+         if (redisCacheClient.expireIfEquals(key, holder, ttl.toMillis(), TimeUnit.MILLISECONDS)) {
+            validUntil = now + ttl.toNanos();
+         } else if (redisCacheClient.setIfAbsent(key, holder, ttl.toMillis(), TimeUnit.MILLISECONDS)) {
+            // 만료되었지만 아무도 가져가지 않았으면 다시 잡음
+            validUntil = now + ttl.toNanos();
+            LOGGER.warn("id worker lease {} expired and was re-acquired", key);
+         } else {
+            lost = true;
+            LOGGER.error("id worker lease {} was taken by another node, id generation is disabled", key);
+         }
+      } catch (DataAccessException e) {
+         // validUntil까지는 계속 발급
+         LOGGER.warn("id worker lease renewal failed for {} : {}", key, e.getMessage());
+      }
+   }
+
+   public boolean isValid() {
+      return mode == Mode.STATIC || (!lost && ticker.getAsLong() - validUntil < 0);
+   }
+
+   // 남은 lease 시간(static이면 null)
+   public Duration remaining() {
+      if (mode == Mode.STATIC) {
+         return null;
+      }
+      return Duration.ofNanos(Math.max(0, validUntil - ticker.getAsLong()));
+   }
+
+   @PreDestroy
+   public void release() {
+      if (mode == Mode.STATIC || lost) {
+         return;
+      }
+      try {
+         redisCacheClient.deleteIfEquals(key(), holder);
+      } catch (DataAccessException e) {
+         LOGGER.warn("id worker lease release failed for {} : {}", key(), e.getMessage());
+      }
+   }
+
+   public Mode getMode() {
+      return mode;
+   }
+
+   public long getWorkerId() {
+      return workerId;
+   }
+
+   public long getDatacenterId() {
+      return datacenterId;
+   }
+
+   public String getHolder() {
+      return holder;
+   }
+
+   public String key() {
+      return KEY_PREFIX + (datacenterId * WORKERS_PER_DATACENTER + workerId);
+   }
+
+   private static String hostName() {
+      try {
+         return InetAddress.getLocalHost().getHostName();
+      } catch (UnknownHostException e) {
+         return "unknown";
+      }
+   }
+}
@@ -0,0 +1,31 @@
+package kr.masul.system.actuator;
+
+import kr.masul.artifact.view.ArtifactViewCounter;
+import kr.masul.artifact.view.TopArtifact;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 가장 많이 조회된 artifact 목록
+ * 요청 ; http://localhost:80/actuator/top-artifacts?limit=10
+ */
+@Component
+@Endpoint(id = "top-artifacts")
+public class TopArtifactsEndpoint {
+
+   private final ArtifactViewCounter artifactViewCounter;
+
+   public TopArtifactsEndpoint(ArtifactViewCounter artifactViewCounter) {
+      this.artifactViewCounter = artifactViewCounter;
+   }
+
+   // limit은 0 ~ artifact.view.top-k-capacity로 맞춤(음수면 빈 목록)
+   @ReadOperation
+   public List<TopArtifact> topArtifacts(@Nullable Integer limit) {
+      return artifactViewCounter.top(limit == null ? 10 : limit);
+   }
+}
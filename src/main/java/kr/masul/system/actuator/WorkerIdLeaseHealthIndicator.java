@@ -0,0 +1,37 @@
+package kr.masul.system.actuator;
+
+import kr.masul.system.WorkerIdLease;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// 이 서버의 IdWorker lease, lease를 잃으면 id를 발급하지 않으므로 DOWN
+@Component
+public class WorkerIdLeaseHealthIndicator implements HealthIndicator {
+
+   private final WorkerIdLease workerIdLease;
+
+   public WorkerIdLeaseHealthIndicator(WorkerIdLease workerIdLease) {
+      this.workerIdLease = workerIdLease;
+   }
+
+   @Override
+   public Health health() {
+      Status status = workerIdLease.isValid() ? Status.UP : Status.DOWN;
+      Health.Builder builder = Health
+              .status(status)
+              .withDetail("mode", workerIdLease.getMode())
+              .withDetail("datacenterId", workerIdLease.getDatacenterId())
+              .withDetail("workerId", workerIdLease.getWorkerId());
+      Duration remaining = workerIdLease.remaining();
+      if (remaining != null) {
+         builder.withDetail("key", workerIdLease.key())
+                 .withDetail("holder", workerIdLease.getHolder())
+                 .withDetail("expiresInMillis", remaining.toMillis());
+      }
+      return builder.build();
+   }
+}
@@ -0,0 +1,27 @@
+package kr.masul.system.converter;
+
+import kr.masul.artifact.ArtifactDto;
+import kr.masul.artifact.ArtifactProjection;
+import kr.masul.wizard.WizardDto;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ArtifactProjectionToDto implements Converter<ArtifactProjection, ArtifactDto> {
+
+   @Override
+   public ArtifactDto convert(ArtifactProjection source) {
+      WizardDto owner = source.ownerId() != null
+              ? new WizardDto(source.ownerId(), source.ownerName(), source.ownerBirthday(),
+                      source.ownerNumberOfArtifacts())
+              : null;
+      return new ArtifactDto(
+              source.id(),
+              source.name(),
+              source.description(),
+              source.imageUrl(),
+              source.createAt(),
+              owner
+      );
+   }
+}
@@ -0,0 +1,7 @@
+package kr.masul.system.exception;
+
+public class ChatRateLimitException extends RuntimeException {
+   public ChatRateLimitException(String message) {
+      super(message);
+   }
+}
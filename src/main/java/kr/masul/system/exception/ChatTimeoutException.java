@@ -0,0 +1,7 @@
+package kr.masul.system.exception;
+
+public class ChatTimeoutException extends RuntimeException {
+   public ChatTimeoutException(String message) {
+      super(message);
+   }
+}
@@ -23,6 +23,8 @@ import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestClientException;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import org.springframework.web.servlet.NoHandlerFoundException;
 
 import java.util.HashMap;
@@ -129,6 +131,61 @@ public class ExceptionHandlerAdvice extends RuntimeException{
       return new Result(false, StatusCode.BAD_REQUEST, ex.getMessage());
    }
 
+   @ExceptionHandler(InvalidCursorException.class)
+   @ResponseStatus(HttpStatus.BAD_REQUEST)
+   public Result invalidCursorExceptionHandler(InvalidCursorException ex){
+      return new Result(false, StatusCode.BAD_REQUEST, ex.getMessage());
+   }
+
+   // path의 id 형식이 맞지 않는 경우(숫자가 아닌 artifact id 등)
+   @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+   @ResponseStatus(HttpStatus.BAD_REQUEST)
+   public Result methodArgumentTypeMismatchExceptionHandler(MethodArgumentTypeMismatchException ex){
+      return new Result(false, StatusCode.BAD_REQUEST, "Invalid value for " + ex.getName() + ": " + ex.getValue());
+   }
+
+   @ExceptionHandler(InvalidSearchCriteriaException.class)
+   @ResponseStatus(HttpStatus.BAD_REQUEST)
+   public Result invalidSearchCriteriaExceptionHandler(InvalidSearchCriteriaException ex){
+      return new Result(false, StatusCode.BAD_REQUEST, ex.getMessage());
+   }
+
+   @ExceptionHandler(InvalidExportFormatException.class)
+   @ResponseStatus(HttpStatus.BAD_REQUEST)
+   public Result invalidExportFormatExceptionHandler(InvalidExportFormatException ex){
+      return new Result(false, StatusCode.BAD_REQUEST, ex.getMessage());
+   }
+
+   @ExceptionHandler(SummaryJobRejectedException.class)
+   @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+   public Result summaryJobRejectedExceptionHandler(SummaryJobRejectedException ex){
+      return new Result(false, StatusCode.SERVICE_UNAVAILABLE, ex.getMessage());
+   }
+
+   @ExceptionHandler(ChatRateLimitException.class)
+   @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+   public Result chatRateLimitExceptionHandler(ChatRateLimitException ex){
+      return new Result(false, StatusCode.SERVICE_UNAVAILABLE, ex.getMessage());
+   }
+
+   @ExceptionHandler(ChatTimeoutException.class)
+   @ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+   public Result chatTimeoutExceptionHandler(ChatTimeoutException ex){
+      return new Result(false, StatusCode.GATEWAY_TIMEOUT, ex.getMessage());
+   }
+
+   // multipart 업로드는 spring.servlet.multipart.max-file-size, body 업로드는 image-storage.upload.max-size
+   @ExceptionHandler({ImageTooLargeException.class, MaxUploadSizeExceededException.class})
+   @ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+   public Result imageTooLargeExceptionHandler(Exception ex){
+      return new Result(false, StatusCode.PAYLOAD_TOO_LARGE, ex.getMessage());
+   }
+
+   @ExceptionHandler(ImageUploadRejectedException.class)
+   @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+   public Result imageUploadRejectedExceptionHandler(ImageUploadRejectedException ex){
+      return new Result(false, StatusCode.SERVICE_UNAVAILABLE, ex.getMessage());
+   }
 
    @ExceptionHandler(Exception.class)
    @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
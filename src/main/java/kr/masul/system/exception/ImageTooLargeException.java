@@ -0,0 +1,7 @@
+package kr.masul.system.exception;
+
+public class ImageTooLargeException extends RuntimeException {
+   public ImageTooLargeException(long maxSize) {
+      super("Image is larger than " + maxSize + " bytes");
+   }
+}
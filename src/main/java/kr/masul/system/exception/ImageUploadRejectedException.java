@@ -0,0 +1,7 @@
+package kr.masul.system.exception;
+
+public class ImageUploadRejectedException extends RuntimeException {
+   public ImageUploadRejectedException() {
+      super("Too many images are being uploaded, try again later");
+   }
+}
@@ -0,0 +1,7 @@
+package kr.masul.system.exception;
+
+public class InvalidCursorException extends RuntimeException {
+   public InvalidCursorException(String cursor) {
+      super("Invalid cursor " + cursor);
+   }
+}
@@ -0,0 +1,7 @@
+package kr.masul.system.exception;
+
+public class InvalidExportFormatException extends RuntimeException {
+   public InvalidExportFormatException(String format) {
+      super("Unsupported export format " + format);
+   }
+}
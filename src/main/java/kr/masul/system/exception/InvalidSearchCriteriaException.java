@@ -0,0 +1,7 @@
+package kr.masul.system.exception;
+
+public class InvalidSearchCriteriaException extends RuntimeException {
+   public InvalidSearchCriteriaException(String name, String value) {
+      super("Invalid search criteria " + name + ": " + value);
+   }
+}
@@ -7,6 +7,9 @@ public class ObjectNotFoundException extends RuntimeException{
    public ObjectNotFoundException(String name, String id) {
       super("Could not find " + name + " with id " + id);
    }
+   public ObjectNotFoundException(String name, Long id) {
+      super("Could not find " + name + " with id " + id);
+   }
    public ObjectNotFoundException(String name, Integer id) {
       super("Could not find " + name + " with id " + id);
    }
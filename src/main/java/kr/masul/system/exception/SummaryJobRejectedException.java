@@ -0,0 +1,7 @@
+package kr.masul.system.exception;
+
+public class SummaryJobRejectedException extends RuntimeException {
+   public SummaryJobRejectedException() {
+      super("Too many summary jobs are waiting, try again later");
+   }
+}
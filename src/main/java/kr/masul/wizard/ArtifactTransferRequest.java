@@ -0,0 +1,19 @@
+package kr.masul.wizard;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * POST /wizards/{wizardId}/artifacts/transfer
+ * artifactIds가 없으면 전부 옮김(id는 문자열, 숫자 모두 가능)
+ */
+public record ArtifactTransferRequest(
+        @NotNull(message = "TO WIZARD ID is required.")
+        Integer toWizardId,
+
+        @Size(max = 1000, message = "At most 1000 ARTIFACT IDS can be transferred at once.")
+        List<Long> artifactIds
+) {
+}
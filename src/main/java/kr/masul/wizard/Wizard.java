@@ -4,12 +4,16 @@ import jakarta.persistence.*;
 import kr.masul.artifact.Artifact;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(indexes = @Index(name = "idx_wizard_artifact_count", columnList = "artifact_count"))
 @Getter
 @Setter
 public class Wizard {
@@ -25,22 +29,42 @@ public class Wizard {
     @OneToMany(mappedBy = "owner", cascade = {CascadeType.PERSIST, CascadeType.MERGE})
     private List<Artifact> artifacts = new ArrayList<>();
 
+    // artifacts.size()는 collection 전체를 읽으므로 수를 따로 저장(WizardRepository.addArtifactCount)
+    // 저장된 wizard는 sql로 직접 더함(entity 수정시 덮어쓰지 않도록 update 제외), 어긋나면 WizardArtifactCountReconciler가 맞춤
+    @Column(nullable = false, updatable = false)
+    private int artifactCount;
+
+    // 조회 api의 ETag, Last-Modified(WizardVersion)
+    @Version
+    private Long version;
+
+    @UpdateTimestamp
+    private Instant lastModified;
+
+    // 아직 읽지 않은 collection은 읽지 않고 owner와 수만 바꿈
     public void addArtifact(Artifact artifact) {
         artifact.setOwner(this);
-        artifacts.add(artifact);
+        if (Hibernate.isInitialized(artifacts)) {
+            artifacts.add(artifact);
+        }
+        artifactCount++;
     }
 
     public Integer getNumberOfArtifacts() {
-        return artifacts.size();
+        return artifactCount;
     }
 
     public void removeArtifact(Artifact artifact) {
         artifact.setOwner(null);
-        artifacts.remove(artifact);
+        if (Hibernate.isInitialized(artifacts)) {
+            artifacts.remove(artifact);
+        }
+        artifactCount--;
     }
 
     public void removeAllArtifacts() {
         artifacts.stream().forEach(a -> a.setOwner(null));
         artifacts = new ArrayList<>();
+        artifactCount = 0;
     }
 }
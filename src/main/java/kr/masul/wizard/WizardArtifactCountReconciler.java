@@ -0,0 +1,42 @@
+package kr.masul.wizard;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Wizard.artifactCount를 실제 artifact 수로 주기적으로 맞춤
+ * sql 없이 owner를 바꾼 경우(직접 수정한 DB 등)나 배포 전 데이터에서 생긴 차이를 고침
+ * update 한번으로 다른 wizard만 고치므로 여러 서버에서 같이 돌아도 됨
+ */
+@Component
+public class WizardArtifactCountReconciler {
+
+   private static final Logger LOGGER = LoggerFactory.getLogger(WizardArtifactCountReconciler.class);
+
+   private final WizardRepository wizardRepository;
+   private final Counter repaired;
+
+   public WizardArtifactCountReconciler(WizardRepository wizardRepository, MeterRegistry meterRegistry) {
+      this.wizardRepository = wizardRepository;
+      this.repaired = meterRegistry.counter("wizard.artifact-count.repaired");
+   }
+
+   @Scheduled(initialDelayString = "${wizard.artifact-count.reconcile-interval:3600000}",
+           fixedDelayString = "${wizard.artifact-count.reconcile-interval:3600000}")
+   @Transactional
+   public int reconcile() {
+      int count = wizardRepository.reconcileArtifactCounts(Instant.now());
+      if (count > 0) {
+         repaired.increment(count);
+         LOGGER.warn("wizard artifact count repaired for {} wizards", count);
+      }
+      return count;
+   }
+}
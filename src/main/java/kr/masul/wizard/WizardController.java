@@ -1,13 +1,27 @@
 package kr.masul.wizard;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import kr.masul.artifact.ArtifactDto;
+import kr.masul.artifact.ArtifactProjection;
+import kr.masul.artifact.ArtifactService;
+import kr.masul.artifact.export.ArtifactExportFormat;
+import kr.masul.system.CursorCodec;
+import kr.masul.system.CursorSlice;
 import kr.masul.system.Result;
 import kr.masul.system.StatusCode;
+import kr.masul.system.converter.ArtifactProjectionToDto;
 import kr.masul.system.converter.WizardToDto;
 import kr.masul.system.converter.WizardToEntity;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -18,9 +32,16 @@ public class WizardController {
    private final WizardService wizardService;
    private final WizardToDto wizardToDto;
    private final WizardToEntity wizardToEntity;
+   private final ArtifactService artifactService;
+   private final ArtifactProjectionToDto artifactProjectionToDto;
 
+   // 변경이 없으면 body 없이 304(Result를 만들지 않음)
    @GetMapping("/{wizardId}")
-   public Result findById(@PathVariable Integer wizardId) {
+   public Result findById(@PathVariable Integer wizardId, WebRequest webRequest) {
+      WizardVersion version = wizardService.findVersion(wizardId);
+      if (webRequest.checkNotModified(version.eTag(), version.lastModifiedMillis())) {
+         return null;
+      }
       Wizard wizard = wizardService.findById(wizardId);
       WizardDto dto = wizardToDto.convert(wizard);
 
@@ -29,14 +50,33 @@ public class WizardController {
 
    @GetMapping
    public Result findAll() {
-      List<Wizard> wizards = wizardService.findAll();
-      List<WizardDto> dtos = wizards
-              .stream()
-              .map(wizardToDto::convert).toList();
+      List<WizardDto> dtos = wizardService.findAllDto();
 
       return new Result(true, StatusCode.SUCCESS, "Find all Success", dtos);
    }
 
+   /**
+    * artifact가 많은 wizard 순위(redis sorted set)
+    * 요청 ; /wizards/leaderboard?limit=10
+    */
+   @GetMapping("/leaderboard")
+   public Result findLeaderboard(@RequestParam(defaultValue = "10") int limit) {
+      List<WizardDto> dtos = wizardService.findLeaderboard(limit);
+
+      return new Result(true, StatusCode.SUCCESS, "Find leaderboard Success", dtos);
+   }
+
+   // 순위를 DB의 artifact 수로 다시 만듦(admin), 응답은 순위에 넣은 wizard 수
+   @PostMapping("/leaderboard/rebuild")
+   public Result rebuildLeaderboard() {
+      int count = wizardService.rebuildLeaderboard();
+      if (count < 0) {
+         return new Result(true, StatusCode.SUCCESS, "Leaderboard is already being rebuilt");
+      }
+
+      return new Result(true, StatusCode.SUCCESS, "Rebuild leaderboard Success", count);
+   }
+
    @PostMapping
    public Result add(@RequestBody WizardDto wizardDto){
       Wizard foundWizard = wizardToEntity.convert(wizardDto);
@@ -63,9 +103,54 @@ public class WizardController {
       return new Result(true, StatusCode.SUCCESS, "Delete Success");
    }
 
+   /**
+    * wizard의 artifact 목록(최신순), Wizard.artifacts를 읽지 않고 owner_id index로 페이지만 읽음
+    * 요청 ; /wizards/1/artifacts?size=20, 다음 페이지는 응답의 next를 after로 전달
+    */
+   @GetMapping("/{wizardId}/artifacts")
+   public Result findArtifacts(@PathVariable Integer wizardId,
+                               @PageableDefault(size = 10) Pageable pageable,
+                               @RequestParam(defaultValue = "") String after) {
+      wizardService.checkExists(wizardId);
+      Long afterId = after.isEmpty() ? null : CursorCodec.decodeLong(after);
+      Slice<ArtifactProjection> artifactSlice = artifactService.findAllByOwnerAfter(wizardId, afterId, pageable.getPageSize());
+      List<ArtifactDto> content = artifactSlice.map(artifactProjectionToDto::convert).getContent();
+      String next = artifactSlice.hasNext() ? CursorCodec.encode(String.valueOf(content.get(content.size() - 1).id())) : null;
+
+      return new Result(true, StatusCode.SUCCESS, "Find artifacts Success",
+              new CursorSlice<>(content, pageable.getPageSize(), artifactSlice.hasNext(), next));
+   }
+
+   /**
+    * 전체 목록을 한 줄에 한건씩 바로 내려보냄(id 순서)
+    * 요청 ; /wizards/1/artifacts?format=ndjson (또는 csv)
+    */
+   @GetMapping(value = "/{wizardId}/artifacts", params = "format")
+   public void exportArtifacts(@PathVariable Integer wizardId,
+                               @RequestParam String format,
+                               HttpServletResponse response) throws IOException {
+      ArtifactExportFormat exportFormat = ArtifactExportFormat.from(format);
+      // 출력을 시작한 뒤에는 애러 응답(json)을 보낼 수 없으므로 먼저 확인
+      wizardService.checkExists(wizardId);
+      response.setContentType(exportFormat.getContentType());
+      response.setCharacterEncoding("UTF-8");
+      response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+              "attachment; filename=\"wizard-" + wizardId + "-artifacts." + exportFormat.getExtension() + "\"");
+      artifactService.exportByOwner(wizardId, exportFormat, response.getOutputStream());
+   }
+
+   // wizard의 artifact(전부 또는 artifactIds)를 다른 wizard로 한번에 옮김
+   @PostMapping("/{wizardId}/artifacts/transfer")
+   public Result transferArtifacts(@PathVariable Integer wizardId,
+                                   @Valid @RequestBody ArtifactTransferRequest transferRequest) {
+      int transferred = wizardService.transferArtifacts(wizardId, transferRequest.toWizardId(), transferRequest.artifactIds());
+
+      return new Result(true, StatusCode.SUCCESS, "Transfer artifacts Success", transferred);
+   }
+
    @PutMapping("/{wizardId}/artifacts/{artifactId}")
    public Result assignArtifact(@PathVariable Integer wizardId,
-                                @PathVariable String artifactId) {
+                                @PathVariable Long artifactId) {
       wizardService.assignArtifact(wizardId, artifactId);
 
       return new Result(true, StatusCode.SUCCESS, "Assign artifact Success");
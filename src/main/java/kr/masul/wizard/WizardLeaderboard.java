@@ -0,0 +1,171 @@
+package kr.masul.wizard;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import kr.masul.client.redisCache.RedisCacheClient;
+import kr.masul.system.AfterCommit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * artifact 수 기준 wizard 순위(redis sorted set, member: wizard id, score: artifact 수)
+ * 요청마다 wizard 전체를 정렬하지 않고 ZREVRANGE로 상위 n개만 읽음(O(log n + limit))
+ * WizardService, ArtifactService에서 artifact_count를 바꿀 때 commit 이후에 같이 더함
+ * redis 반영이 실패하면 어긋나므로 서버 시작시와 주기적으로 DB에서 다시 만듦(rebuild)
+ * - rebuild는 lock(SET NX)을 잡은 한 서버만, 주기 rebuild는 주기마다 한번만(먼저 시작한 서버)
+ * - wizard를 rebuild-page-size개씩 읽어 REBUILD_KEY에 채운 뒤 RENAME, 그 동안 들어온 increment는 REBUILD_KEY에도 더함
+ */
+@Component
+public class WizardLeaderboard {
+
+   static final String KEY = "wizard:leaderboard";
+   static final String REBUILD_KEY = KEY + ":rebuild";
+   static final String LOCK_KEY = KEY + ":lock";
+   // 주기 rebuild를 이번 주기에 이미 한 서버가 있으면 있음
+   static final String SCHEDULED_KEY = KEY + ":scheduled";
+   private static final Logger LOGGER = LoggerFactory.getLogger(WizardLeaderboard.class);
+
+   private final RedisCacheClient redisCacheClient;
+   private final WizardRepository wizardRepository;
+   private final int maxLimit;
+   private final int pageSize;
+   private final Duration lockTtl;
+   private final long rebuildIntervalMillis;
+   private final String holder = UUID.randomUUID().toString();
+   private final Counter fallback;
+
+   public WizardLeaderboard(RedisCacheClient redisCacheClient,
+                            WizardRepository wizardRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${wizard.leaderboard.max-limit:100}") int maxLimit,
+                            @Value("${wizard.leaderboard.rebuild-page-size:1000}") int pageSize,
+                            @Value("${wizard.leaderboard.rebuild-lock-ttl:10m}") Duration lockTtl,
+                            @Value("${wizard.leaderboard.rebuild-interval:3600000}") long rebuildIntervalMillis) {
+      this.redisCacheClient = redisCacheClient;
+      this.wizardRepository = wizardRepository;
+      this.maxLimit = maxLimit;
+      this.pageSize = pageSize;
+      this.lockTtl = lockTtl;
+      this.rebuildIntervalMillis = rebuildIntervalMillis;
+      this.fallback = meterRegistry.counter("wizard.leaderboard.fallback");
+   }
+
+   // 새 wizard는 0으로 추가(delta 0), rollback 되면 반영 안함
+   public void increment(Integer wizardId, int delta) {
+      AfterCommit.run(() -> {
+         try {
+            redisCacheClient.incrementScore(KEY, REBUILD_KEY, String.valueOf(wizardId), delta);
+         } catch (DataAccessException e) {
+            LOGGER.warn("wizard leaderboard update failed for {} : {}", wizardId, e.getMessage());
+         }
+      });
+   }
+
+   public void remove(Integer wizardId) {
+      AfterCommit.run(() -> {
+         try {
+            redisCacheClient.removeMember(KEY, REBUILD_KEY, String.valueOf(wizardId));
+         } catch (DataAccessException e) {
+            LOGGER.warn("wizard leaderboard remove failed for {} : {}", wizardId, e.getMessage());
+         }
+      });
+   }
+
+   /**
+    * artifact가 많은 순서로 limit개(1 ~ max-limit), 같은 수끼리의 순서는 정하지 않음
+    * redis가 비어 있거나 장애면 DB(artifact_count index)에서 읽음
+    */
+   public List<WizardDto> top(int limit) {
+      int size = Math.max(1, Math.min(limit, maxLimit));
+      List<TypedTuple<String>> ranked;
+      try {
+         ranked = redisCacheClient.reverseRangeWithScores(KEY, size);
+      } catch (DataAccessException e) {
+         LOGGER.warn("wizard leaderboard read failed : {}", e.getMessage());
+         ranked = List.of();
+      }
+      if (ranked.isEmpty()) {
+         fallback.increment();
+         return wizardRepository.findTopByArtifactCount(PageRequest.of(0, size));
+      }
+
+      // 순위는 redis 순서 그대로, 이름 등은 id로 한번에 읽음(그 사이 삭제된 wizard는 뺌)
+      List<Integer> wizardIds = ranked.stream().map(t -> Integer.valueOf(t.getValue())).toList();
+      Map<Integer, WizardDto> dtos = wizardRepository.findAllDtoByIdIn(wizardIds).stream()
+              .collect(Collectors.toMap(WizardDto::id, Function.identity()));
+      return wizardIds.stream().map(dtos::get).filter(Objects::nonNull).toList();
+   }
+
+   /**
+    * DB의 artifact_count로 sorted set 전체를 다시 만듦
+    * page를 읽은 뒤 들어온 increment는 REBUILD_KEY에도 더해지므로, 어긋나는 것은 page 하나를 읽고 쓰는 사이에 commit된 것뿐
+    * @return 순위에 넣은 wizard 수, 다른 서버가 만드는 중이면 -1
+    */
+   public int rebuild() {
+      if (!redisCacheClient.setIfAbsent(LOCK_KEY, holder, lockTtl.toMillis(), TimeUnit.MILLISECONDS)) {
+         LOGGER.info("wizard leaderboard is being rebuilt by another node");
+         return -1;
+      }
+      try {
+         // 이전에 멈춘 rebuild가 남긴 값은 버림
+         redisCacheClient.delete(REBUILD_KEY);
+         int count = 0;
+         Integer afterId = Integer.MIN_VALUE;
+         while (true) {
+            List<WizardDto> page = wizardRepository.findDtoPageAfter(afterId, PageRequest.of(0, pageSize));
+            if (page.isEmpty()) {
+               break;
+            }
+            Set<TypedTuple<String>> tuples = page.stream()
+                    .map(dto -> TypedTuple.of(String.valueOf(dto.id()), dto.numberOfArtifacts().doubleValue()))
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+            redisCacheClient.addToSortedSet(REBUILD_KEY, tuples, lockTtl.toMillis(), TimeUnit.MILLISECONDS);
+            count += page.size();
+            afterId = page.get(page.size() - 1).id();
+            if (page.size() < pageSize) {
+               break;
+            }
+         }
+         redisCacheClient.replaceSortedSet(KEY, REBUILD_KEY);
+         LOGGER.info("wizard leaderboard rebuilt with {} wizards", count);
+         return count;
+      } finally {
+         redisCacheClient.deleteIfEquals(LOCK_KEY, holder);
+      }
+   }
+
+   // 서버마다 시작 시각이 달라도 주기마다 한 서버만 만듦, redis 장애는 DB에서 읽으면 되므로 서버 시작을 막지 않음
+   @EventListener(ApplicationReadyEvent.class)
+   @Scheduled(initialDelayString = "${wizard.leaderboard.rebuild-interval:3600000}",
+           fixedDelayString = "${wizard.leaderboard.rebuild-interval:3600000}")
+   public void scheduledRebuild() {
+      try {
+         // 다음 주기에는 다시 잡을 수 있도록 주기보다 조금 짧게
+         if (!redisCacheClient.setIfAbsent(SCHEDULED_KEY, holder, rebuildIntervalMillis * 9 / 10, TimeUnit.MILLISECONDS)) {
+            return;
+         }
+         rebuild();
+      } catch (DataAccessException e) {
+         LOGGER.warn("wizard leaderboard rebuild failed : {}", e.getMessage());
+      }
+   }
+}
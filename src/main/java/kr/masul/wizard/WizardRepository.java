@@ -1,6 +1,49 @@
 package kr.masul.wizard;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface WizardRepository extends JpaRepository<Wizard, Integer> {
+
+   // 목록 조회시 wizard 마다 artifacts collection을 읽지 않도록 저장된 artifact 수를 같이 읽음
+   @Query("select new kr.masul.wizard.WizardDto(w.id, w.name, w.birthday, w.artifactCount) from Wizard w")
+   List<WizardDto> findAllDto();
+
+   // leaderboard rebuild용, 전체를 한번에 읽지 않고 id 순서로 afterId 다음부터 읽음(keyset paging)
+   @Query("select new kr.masul.wizard.WizardDto(w.id, w.name, w.birthday, w.artifactCount) from Wizard w " +
+           "where w.id > :afterId order by w.id")
+   List<WizardDto> findDtoPageAfter(Integer afterId, Pageable pageable);
+
+   // leaderboard(redis)의 id 순위에 이름 등을 붙임
+   @Query("select new kr.masul.wizard.WizardDto(w.id, w.name, w.birthday, w.artifactCount) from Wizard w where w.id in :wizardIds")
+   List<WizardDto> findAllDtoByIdIn(Collection<Integer> wizardIds);
+
+   // redis 장애시 leaderboard 대신 사용(idx_wizard_artifact_count)
+   @Query("select new kr.masul.wizard.WizardDto(w.id, w.name, w.birthday, w.artifactCount) from Wizard w " +
+           "order by w.artifactCount desc, w.id")
+   List<WizardDto> findTopByArtifactCount(Pageable pageable);
+
+   @Query("select new kr.masul.wizard.WizardVersion(w.version, w.lastModified, w.artifactCount) " +
+           "from Wizard w where w.id = :wizardId")
+   Optional<WizardVersion> findVersionById(Integer wizardId);
+
+   // 읽고 더해서 쓰지 않고 sql 안에서 더함(동시에 assign 되어도 잃어버리지 않음), version은 올리지 않음
+   // 응답의 artifact 수가 바뀌므로 lastModified는 올림(If-Modified-Since만 보내는 client가 304를 받지 않도록)
+   @Modifying
+   @Query("update Wizard w set w.artifactCount = w.artifactCount + :delta, w.lastModified = :now where w.id = :wizardId")
+   int addArtifactCount(Integer wizardId, int delta, Instant now);
+
+   // 저장된 수가 실제 artifact 수와 다른 wizard만 고침
+   @Modifying
+   @Query("update Wizard w set w.artifactCount = (select cast(count(a) as Integer) from Artifact a where a.owner = w), " +
+           "w.lastModified = :now " +
+           "where w.artifactCount <> (select cast(count(a) as Integer) from Artifact a where a.owner = w)")
+   int reconcileArtifactCounts(Instant now);
 }
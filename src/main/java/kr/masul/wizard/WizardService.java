@@ -2,11 +2,13 @@ package kr.masul.wizard;
 
 import jakarta.transaction.Transactional;
 import kr.masul.artifact.Artifact;
+import kr.masul.artifact.ArtifactCache;
 import kr.masul.artifact.ArtifactRepository;
 import kr.masul.system.exception.ObjectNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.List;
 
 @Service
@@ -16,24 +18,55 @@ public class WizardService {
 
    private final WizardRepository wizardRepository;
    private final ArtifactRepository artifactRepository;
+   private final ArtifactCache artifactCache;
+   private final WizardLeaderboard wizardLeaderboard;
 
    public Wizard findById(Integer wizardId) {
       return wizardRepository.findById(wizardId)
               .orElseThrow(() -> new ObjectNotFoundException("wizard",wizardId));
    }
 
+   // 조건부 조회(If-None-Match, If-Modified-Since)용, entity 대신 version 관련 column만 읽음
+   public WizardVersion findVersion(Integer wizardId) {
+      return wizardRepository.findVersionById(wizardId)
+              .orElseThrow(() -> new ObjectNotFoundException("wizard", wizardId));
+   }
+
+   // artifact 목록 조회 전에 확인(없는 wizard는 빈 목록 대신 404)
+   public void checkExists(Integer wizardId) {
+      if (!wizardRepository.existsById(wizardId)) {
+         throw new ObjectNotFoundException("wizard", wizardId);
+      }
+   }
+
    public List<Wizard> findAll() {
       return wizardRepository.findAll();
    }
 
+   public List<WizardDto> findAllDto() {
+      return wizardRepository.findAllDto();
+   }
+
    public Wizard add(Wizard wizard) {
-      return wizardRepository.save(wizard);
+      Wizard savedWizard = wizardRepository.save(wizard);
+      wizardLeaderboard.increment(savedWizard.getId(), 0);
+      return savedWizard;
+   }
+
+   public List<WizardDto> findLeaderboard(int limit) {
+      return wizardLeaderboard.top(limit);
+   }
+
+   public int rebuildLeaderboard() {
+      return wizardLeaderboard.rebuild();
    }
 
    public Wizard update(Integer wizardId, Wizard wizard) {
       Wizard oldWizard = wizardRepository.findById(wizardId)
               .orElseThrow(() -> new ObjectNotFoundException("wizard", wizardId));
 
+      // artifact 캐시에는 owner 정보가 같이 들어있음(artifacts를 읽지 않고 id만 읽음)
+      artifactCache.evictAll(artifactRepository.findIdsByOwnerId(wizardId));
       oldWizard.setId(wizard.getId());
       oldWizard.setName(wizard.getName());
       oldWizard.setBirthday(wizard.getBirthday());
@@ -42,25 +75,60 @@ public class WizardService {
       return oldWizard;
    }
 
+   // artifact를 하나씩 읽어서 owner를 비우지 않고 update 한 문장으로 비움
    public void delete(Integer wizardId) {
-      Wizard wizard = wizardRepository.findById(wizardId)
-              .orElseThrow(() -> new ObjectNotFoundException("wizard", wizardId));
+      checkExists(wizardId);
 
-      wizard.removeAllArtifacts();
+      List<Long> artifactIds = artifactRepository.findIdsByOwnerId(wizardId);
+      artifactRepository.clearOwner(wizardId, Instant.now());
       wizardRepository.deleteById(wizardId);
+      artifactCache.evictAll(artifactIds);
+      wizardLeaderboard.remove(wizardId);
+   }
+
+   /**
+    * fromId wizard의 artifact를 toId wizard로 update 한 문장으로 옮김
+    * artifactIds가 null이면 전부, 있으면 그 중 fromId 소유인 것만
+    * @return 옮긴 artifact 수
+    */
+   public int transferArtifacts(Integer fromId, Integer toId, List<Long> artifactIds) {
+      checkExists(fromId);
+      Wizard to = wizardRepository.findById(toId)
+              .orElseThrow(() -> new ObjectNotFoundException("wizard", toId));
+      if (fromId.equals(toId) || (artifactIds != null && artifactIds.isEmpty())) {
+         return 0;
+      }
+
+      List<Long> evictIds = artifactIds == null ? artifactRepository.findIdsByOwnerId(fromId) : artifactIds;
+      int moved = artifactIds == null
+              ? artifactRepository.transferAll(fromId, to, Instant.now())
+              : artifactRepository.transfer(fromId, to, artifactIds, Instant.now());
+      wizardRepository.addArtifactCount(fromId, -moved, Instant.now());
+      wizardRepository.addArtifactCount(toId, moved, Instant.now());
+      wizardLeaderboard.increment(fromId, -moved);
+      wizardLeaderboard.increment(toId, moved);
+      artifactCache.evictAll(evictIds);
+      return moved;
    }
 
-   public void assignArtifact(Integer wizardId, String artifactId) {
+   public void assignArtifact(Integer wizardId, Long artifactId) {
       Artifact artifact = artifactRepository.findById(artifactId)
               .orElseThrow(() -> new ObjectNotFoundException("artifact", artifactId));
 
       Wizard wizard = wizardRepository.findById(wizardId)
               .orElseThrow(() -> new ObjectNotFoundException("wizard", wizardId));
 
-      if (artifact.getOwner() != null) {
-         artifact.getOwner().removeArtifact(artifact);
+      // entity의 수는 응답용, DB의 수는 sql로 더함(entity 수정으로는 저장되지 않음)
+      Wizard oldOwner = artifact.getOwner();
+      if (oldOwner != null) {
+         oldOwner.removeArtifact(artifact);
+         wizardRepository.addArtifactCount(oldOwner.getId(), -1, Instant.now());
+         wizardLeaderboard.increment(oldOwner.getId(), -1);
       }
 
       wizard.addArtifact(artifact);
+      wizardRepository.addArtifactCount(wizardId, 1, Instant.now());
+      wizardLeaderboard.increment(wizardId, 1);
+      artifactCache.evict(artifactId);
    }
 }
@@ -0,0 +1,22 @@
+package kr.masul.wizard;
+
+import java.time.Instant;
+
+/**
+ * 단건 조회의 ETag, Last-Modified 계산용(entity와 artifacts를 읽지 않고 version 관련 column만 읽음)
+ * artifact 수는 wizard version과 별개로 바뀌므로 같이 사용
+ */
+public record WizardVersion(
+        Long version,
+        Instant lastModified,
+        Integer numberOfArtifacts
+) {
+
+   public String eTag() {
+      return "\"" + version + "-" + numberOfArtifacts + "\"";
+   }
+
+   public long lastModifiedMillis() {
+      return lastModified.toEpochMilli();
+   }
+}
@@ -0,0 +1,3 @@
+-- ArtifactViewCounter가 모아서 더하는 조회수 column
+-- prod는 ddl-auto: none 이므로 배포 전에 직접 실행
+alter table artifact add column view_count bigint not null default 0;
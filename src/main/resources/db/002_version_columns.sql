@@ -0,0 +1,6 @@
+-- Artifact, Wizard의 @Version, @UpdateTimestamp column(조회 api ETag, Last-Modified)
+-- prod는 ddl-auto: none 이므로 배포 전에 직접 실행
+alter table artifact add column version bigint not null default 0;
+alter table artifact add column last_modified timestamp(6) not null default current_timestamp(6);
+alter table wizard add column version bigint not null default 0;
+alter table wizard add column last_modified timestamp(6) not null default current_timestamp(6);
@@ -0,0 +1,5 @@
+-- artifact id를 문자열(varchar)에서 IdWorker 값 그대로의 bigint로 변경(index 크기 감소, 시간순 정렬)
+-- prod는 ddl-auto: none 이므로 배포 전에 직접 실행
+-- 숫자가 아닌 id가 있으면 변환이 실패하므로 먼저 확인(결과가 0건이어야 함)
+select id from artifact where id not regexp '^[0-9]+$';
+alter table artifact modify id bigint not null;
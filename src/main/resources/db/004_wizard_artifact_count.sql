@@ -0,0 +1,4 @@
+-- Wizard의 artifact 수(목록/단건 조회시 artifacts를 읽지 않음)
+-- prod는 ddl-auto: none 이므로 배포 전에 직접 실행
+alter table wizard add column artifact_count integer not null default 0;
+update wizard w set artifact_count = (select count(*) from artifact a where a.owner_id = w.id);
@@ -0,0 +1,3 @@
+-- GET /wizards/{id}/artifacts(owner_id = ? and id < ? order by id desc)용 index
+-- prod는 ddl-auto: none 이므로 배포 전에 직접 실행
+create index idx_artifact_owner_id_id on artifact (owner_id, id);
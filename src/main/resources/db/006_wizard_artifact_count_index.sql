@@ -0,0 +1,3 @@
+-- redis 장애시 leaderboard(order by artifact_count desc limit n)용 index
+-- prod는 ddl-auto: none 이므로 배포 전에 직접 실행
+create index idx_wizard_artifact_count on wizard (artifact_count);
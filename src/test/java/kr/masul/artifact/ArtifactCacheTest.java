@@ -0,0 +1,199 @@
+package kr.masul.artifact;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kr.masul.client.redisCache.RedisCacheClient;
+import kr.masul.wizard.WizardDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ArtifactCacheTest {
+
+   @Mock
+   RedisCacheClient redisCacheClient;
+   @Mock
+   RedisMessageListenerContainer listenerContainer;
+
+   ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+   SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+   ArtifactCache artifactCache;
+
+   @BeforeEach
+   void setUp() {
+      artifactCache = new ArtifactCache(redisCacheClient, objectMapper, meterRegistry, listenerContainer,
+              100, Duration.ofMinutes(5), Duration.ofMinutes(30));
+   }
+
+   private ArtifactDto dto(Long id) {
+      return new ArtifactDto(id, "Artifact " + id, "description", "image", null,
+              new WizardDto(1, "Albus Dumbledore", null, null));
+   }
+
+   private ArtifactCache.Entry entry(Long id) {
+      return new ArtifactCache.Entry(1L, dto(id));
+   }
+
+   @Test
+   void testConcurrentMissLoadsOnce() throws Exception {
+      // Given: loader가 끝나기 전에 같은 id로 여러 요청이 들어옴
+      CountDownLatch loading = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      AtomicInteger loads = new AtomicInteger();
+      ExecutorService executor = Executors.newFixedThreadPool(8);
+      try {
+         List<Future<ArtifactDto>> results = new ArrayList<>();
+         for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> artifactCache.get(12301L, 1L, id -> {
+               loads.incrementAndGet();
+               loading.countDown();
+               try {
+                  release.await(5, TimeUnit.SECONDS);
+               } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+               }
+               return entry(id);
+            })));
+         }
+         assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+         // When
+         release.countDown();
+         // Then
+         for (Future<ArtifactDto> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS).id()).isEqualTo(12301L);
+         }
+      } finally {
+         executor.shutdownNow();
+      }
+      assertThat(loads.get()).isEqualTo(1);
+      verify(redisCacheClient, times(1)).get("artifact:12301");
+   }
+
+   @Test
+   void testRedisHitSkipsLoader() throws Exception {
+      // Given
+      given(redisCacheClient.get("artifact:12301")).willReturn(objectMapper.writeValueAsString(entry(12301L)));
+      // When
+      ArtifactDto found = artifactCache.get(12301L, 1L, id -> {
+         throw new AssertionError("loader should not be called");
+      });
+      // Then
+      assertThat(found).isEqualTo(dto(12301L));
+      verify(redisCacheClient, never()).setIfNotOlder(any(), any(), anyLong(), anyLong(), any());
+   }
+
+   @Test
+   void testRedisFailureFallsBackToLoader() {
+      // Given: redis 장애
+      given(redisCacheClient.get("artifact:12301")).willThrow(new RedisConnectionFailureException("down"));
+      doThrow(new RedisConnectionFailureException("down"))
+              .when(redisCacheClient).setIfNotOlder(eq("artifact:12301"), any(), eq(1L), anyLong(), any());
+      // When
+      ArtifactDto found = artifactCache.get(12301L, 1L, this::entry);
+      // Then: DB 값으로 응답하고 L1에는 올라감
+      assertThat(found).isEqualTo(dto(12301L));
+      assertThat(artifactCache.get(12301L, 1L, id -> {
+         throw new AssertionError("loader should not be called");
+      })).isEqualTo(dto(12301L));
+   }
+
+   @Test
+   void testInvalidationMessageEvictsLocalCache() {
+      // Given: 다른 서버가 12301, 12302를 수정했다고 알림
+      ArgumentCaptor<MessageListener> listener = ArgumentCaptor.forClass(MessageListener.class);
+      verify(listenerContainer).addMessageListener(listener.capture(), any(ChannelTopic.class));
+      AtomicInteger loads = new AtomicInteger();
+      artifactCache.get(12301L, 1L, id -> {
+         loads.incrementAndGet();
+         return entry(id);
+      });
+      artifactCache.get(12302L, 1L, id -> {
+         loads.incrementAndGet();
+         return entry(id);
+      });
+      // When
+      listener.getValue().onMessage(new DefaultMessage(
+              ArtifactCache.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+              "12301,12302".getBytes(StandardCharsets.UTF_8)), null);
+      artifactCache.get(12301L, 1L, id -> {
+         loads.incrementAndGet();
+         return entry(id);
+      });
+      artifactCache.get(12302L, 1L, id -> {
+         loads.incrementAndGet();
+         return entry(id);
+      });
+      // Then
+      assertThat(loads.get()).isEqualTo(4);
+   }
+
+   @Test
+   void testEvictPublishesInvalidation() {
+      // Given
+      artifactCache.get(12301L, 1L, this::entry);
+      // When
+      artifactCache.evict(12301L);
+      // Then
+      verify(redisCacheClient).delete("artifact:12301");
+      verify(redisCacheClient).publish(ArtifactCache.INVALIDATION_CHANNEL, "12301");
+      AtomicInteger loads = new AtomicInteger();
+      artifactCache.get(12301L, 1L, id -> {
+         loads.incrementAndGet();
+         return entry(id);
+      });
+      assertThat(loads.get()).isEqualTo(1);
+   }
+
+   @Test
+   void testStaleRedisEntryIsReloaded() throws Exception {
+      // Given: 다른 서버가 commit 전에 읽은 version 1을 무효화 뒤에 redis에 씀, DB는 version 2
+      given(redisCacheClient.get("artifact:12301")).willReturn(objectMapper.writeValueAsString(entry(12301L)));
+      ArtifactCache.Entry fresh = new ArtifactCache.Entry(2L, dto(12301L));
+      // When
+      ArtifactDto found = artifactCache.get(12301L, 2L, id -> fresh);
+      // Then: DB에서 다시 읽고 redis의 옛날 값을 덮어씀
+      assertThat(found).isEqualTo(fresh.artifact());
+      verify(redisCacheClient).setIfNotOlder(eq("artifact:12301"), eq(objectMapper.writeValueAsString(fresh)), eq(2L),
+              eq(TimeUnit.MINUTES.toMillis(30)), eq(TimeUnit.MILLISECONDS));
+      assertThat(meterRegistry.get("artifact.cache.redis").tag("result", "miss").counter().count()).isEqualTo(1);
+   }
+
+   @Test
+   void testStaleLocalEntryIsReloaded() {
+      // Given: L1에 version 1
+      artifactCache.get(12301L, 1L, this::entry);
+      ArtifactCache.Entry fresh = new ArtifactCache.Entry(2L, new ArtifactDto(12301L, "renamed", "description", "image",
+              null, null));
+      // When: 무효화 메세지를 받기 전에 DB는 version 2
+      ArtifactDto found = artifactCache.get(12301L, 2L, id -> fresh);
+      // Then
+      assertThat(found.name()).isEqualTo("renamed");
+      assertThat(meterRegistry.get("artifact.cache.stale").counter().count()).isEqualTo(1);
+   }
+}
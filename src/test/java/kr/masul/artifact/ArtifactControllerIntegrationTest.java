@@ -114,7 +114,7 @@ class ArtifactControllerIntegrationTest {
    void testAddSuccess() throws Exception {
       // Given
       ArtifactDto newArtifactDto = new ArtifactDto(
-              "12309", "new Art", "added Art desc.", "image",
+              12309L, "new Art", "added Art desc.", "image",
               LocalDateTime.of(1234,2,2,2,2,2), null);
 
       String json = objectMapper.writeValueAsString(newArtifactDto);
@@ -134,7 +134,7 @@ class ArtifactControllerIntegrationTest {
    void testUpdateSuccess() throws Exception {
       // Given
       ArtifactDto updateArtifactDto = new ArtifactDto(
-              "12302", "update Art", "update Art desc.", "image",
+              12302L, "update Art", "update Art desc.", "image",
               LocalDateTime.of(1234,2,2,2,2,2), null);
       String json = objectMapper.writeValueAsString(updateArtifactDto);
 
@@ -154,7 +154,7 @@ class ArtifactControllerIntegrationTest {
    void testUpdateNotFound() throws Exception {
       // Given
       ArtifactDto updateArtifactDto = new ArtifactDto(
-              "12309", "update Art", "update Art desc.", "image",
+              12309L, "update Art", "update Art desc.", "image",
               LocalDateTime.of(1234,2,2,2,2,2),null);
 
       String json = objectMapper.writeValueAsString(updateArtifactDto);
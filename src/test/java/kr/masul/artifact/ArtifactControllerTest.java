@@ -2,6 +2,15 @@ package kr.masul.artifact;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import kr.masul.artifact.bulk.ArtifactBulkImporter;
+import kr.masul.artifact.bulk.BulkImportResult;
+import kr.masul.artifact.export.ArtifactExportFormat;
+import kr.masul.artifact.summary.SummaryJob;
+import kr.masul.artifact.summary.SummaryJobService;
+import kr.masul.client.imageStorage.ImageStorageClient;
+import kr.masul.system.exception.ImageTooLargeException;
+import kr.masul.system.exception.SummaryJobRejectedException;
+import kr.masul.system.CursorCodec;
 import kr.masul.system.StatusCode;
 import kr.masul.system.exception.ObjectNotFoundException;
 import org.hamcrest.Matchers;
@@ -21,6 +30,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -30,7 +40,10 @@ import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 
 import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
 @AutoConfigureMockMvc(addFilters = false)
@@ -40,6 +53,15 @@ class ArtifactControllerTest {
    @MockitoBean
    private ArtifactService artifactService;
 
+   @MockitoBean
+   private ArtifactBulkImporter artifactBulkImporter;
+
+   @MockitoBean
+   private SummaryJobService summaryJobService;
+
+   @MockitoBean
+   private ImageStorageClient imageStorageClient;
+
    @Autowired
    MockMvc mockMvc;
 
@@ -51,43 +73,46 @@ class ArtifactControllerTest {
 
    List<Artifact> artifactList;
 
+   ArtifactVersion version = new ArtifactVersion(3L, Instant.parse("2026-09-01T10:00:00Z"),
+           2, 1L, Instant.parse("2026-10-01T10:00:00Z"), 4);
+
    @BeforeEach
    void setUp() {
       artifactList = new ArrayList<>();
       Artifact a1 = new Artifact();
-      a1.setId("12301");
+      a1.setId(12301L);
       a1.setName("First Artifact");
       a1.setDescription("First Artifact hide");
       a1.setImageUrl("image");
       artifactList.add(a1);
 
       Artifact a2 = new Artifact();
-      a2.setId("12302");
+      a2.setId(12302L);
       a2.setName("Second Artifact");
       a2.setDescription("Second Artifact get small");
       a2.setImageUrl("image");
       artifactList.add(a2);
 
       Artifact a3 = new Artifact();
-      a3.setId("12303");
+      a3.setId(12303L);
       a3.setName("Third Artifact");
       a3.setDescription("Third Artifact get large");
       a3.setImageUrl("image");
 
       Artifact a4 = new Artifact();
-      a4.setId("12304");
+      a4.setId(12304L);
       a4.setName("Fourth Artifact");
       a4.setDescription("Fourth Artifact fly");
       a4.setImageUrl("image");
 
       Artifact a5 = new Artifact();
-      a5.setId("12305");
+      a5.setId(12305L);
       a5.setName("Fifth Artifact");
       a5.setDescription("Fifth Artifact money");
       a5.setImageUrl("image");
 
       Artifact a6 = new Artifact();
-      a6.setId("12306");
+      a6.setId(12306L);
       a6.setName("Sixth Artifact");
       a6.setDescription("Sixth Artifact brain");
       a6.setImageUrl("image");
@@ -99,24 +124,63 @@ class ArtifactControllerTest {
       artifactList.add(a6);
    }
 
+   List<ArtifactProjection> toProjections(List<Artifact> artifacts) {
+      return artifacts.stream()
+              .map(a -> new ArtifactProjection(a.getId(), a.getName(), a.getDescription(), a.getImageUrl(),
+                      a.getCreateAt(), null, null, null, null))
+              .toList();
+   }
+
    @Test
    void testFindByIdSuccess() throws Exception {
       // Given
-       given(artifactService.findById("12303")).willReturn(artifactList.get(2));
+      given(artifactService.findVersion(12303L)).willReturn(version);
+       given(artifactService.findDtoById(12303L, version)).willReturn(new ArtifactDto(
+               12303L, "Third Artifact", "Third Artifact get large", "image", null, null));
       // When and then
       mockMvc.perform(get(url+"/artifacts/12303")
                       .accept(MediaType.APPLICATION_JSON))
+              .andExpect(status().isOk())
+              .andExpect(header().string("ETag", "\"3-2.1.4\""))
+              .andExpect(header().string("Last-Modified", "Thu, 01 Oct 2026 10:00:00 GMT"))
               .andExpect(jsonPath("$.flag").value(true))
               .andExpect(jsonPath("$.code").value(StatusCode.SUCCESS))
               .andExpect(jsonPath("$.message").value("Find Success"))
               .andExpect(jsonPath("$.data.id").value("12303"));
-      verify(artifactService, times(1)).findById("12303");
+      verify(artifactService, times(1)).findDtoById(12303L, version);
+   }
+
+   @Test
+   void testFindByIdNotModified() throws Exception {
+      // Given
+      given(artifactService.findVersion(12303L)).willReturn(version);
+      // When and then
+      mockMvc.perform(get(url+"/artifacts/12303")
+                      .header("If-None-Match", "\"3-2.1.4\"")
+                      .accept(MediaType.APPLICATION_JSON))
+              .andExpect(status().isNotModified())
+              .andExpect(content().string(""));
+      verify(artifactService, never()).findDtoById(12303L, version);
+   }
+
+   @Test
+   void testFindByIdModifiedSince() throws Exception {
+      // Given: owner가 더 나중에 수정됨
+      given(artifactService.findVersion(12303L)).willReturn(version);
+      given(artifactService.findDtoById(12303L, version)).willReturn(new ArtifactDto(
+              12303L, "Third Artifact", "Third Artifact get large", "image", null, null));
+      // When and then
+      mockMvc.perform(get(url+"/artifacts/12303")
+                      .header("If-Modified-Since", "Thu, 01 Oct 2026 09:00:00 GMT")
+                      .accept(MediaType.APPLICATION_JSON))
+              .andExpect(status().isOk())
+              .andExpect(jsonPath("$.data.id").value("12303"));
    }
 
    @Test
    void testFindByIdNotFound() throws Exception {
       // Given
-      given(artifactService.findById("12303")).willThrow(new ObjectNotFoundException("artifact", "12303"));
+      given(artifactService.findVersion(12303L)).willThrow(new ObjectNotFoundException("artifact", 12303L));
       // When and then
       mockMvc.perform(get(url+"/artifacts/12303")
                       .accept(MediaType.APPLICATION_JSON))
@@ -124,14 +188,27 @@ class ArtifactControllerTest {
               .andExpect(jsonPath("$.code").value(StatusCode.NOT_FOUND))
               .andExpect(jsonPath("$.message").value("Could not find artifact with id 12303"))
               .andExpect(jsonPath("$.data").isEmpty());
-      verify(artifactService, times(1)).findById("12303");
+      verify(artifactService, times(1)).findVersion(12303L);
+      verify(artifactService, never()).findDtoById(12303L, version);
+   }
+
+   @Test
+   void testFindByIdNonNumericId() throws Exception {
+      // When and then
+      mockMvc.perform(get(url+"/artifacts/abc")
+                      .accept(MediaType.APPLICATION_JSON))
+              .andExpect(status().isBadRequest())
+              .andExpect(jsonPath("$.flag").value(false))
+              .andExpect(jsonPath("$.code").value(StatusCode.BAD_REQUEST))
+              .andExpect(jsonPath("$.message").value("Invalid value for artifactId: abc"));
+      verifyNoInteractions(artifactService);
    }
 
    @Test
    void testFindAllSuccess() throws Exception {
       // Given
       Pageable pageable = PageRequest.of(0, 2);
-      PageImpl<Artifact> artifactPage = new PageImpl<>(this.artifactList, pageable, artifactList.size());
+      PageImpl<ArtifactProjection> artifactPage = new PageImpl<>(toProjections(this.artifactList), pageable, artifactList.size());
       given(artifactService.findAll(Mockito.any(Pageable.class))).willReturn(artifactPage);
 
       MultiValueMap<String, String> requestParams = new LinkedMultiValueMap<>();
@@ -146,11 +223,52 @@ class ArtifactControllerTest {
               .andExpect(jsonPath("$.data.content", Matchers.hasSize(artifactList.size())));
    }
 
+   @Test
+   void testFindAllByCursorSuccess() throws Exception {
+      // Given
+      SliceImpl<ArtifactProjection> artifactSlice = new SliceImpl<>(toProjections(this.artifactList.subList(0, 2)), PageRequest.of(0, 2), true);
+      given(artifactService.findAllAfter(null, 2)).willReturn(artifactSlice);
+      // When and Then
+      mockMvc.perform(get(url + "/artifacts").accept(MediaType.APPLICATION_JSON)
+                      .param("after", "")
+                      .param("size", "2"))
+              .andExpect(jsonPath("$.flag").value(true))
+              .andExpect(jsonPath("$.code").value(StatusCode.SUCCESS))
+              .andExpect(jsonPath("$.message").value("Find all Success"))
+              .andExpect(jsonPath("$.data.content", Matchers.hasSize(2)))
+              .andExpect(jsonPath("$.data.hasNext").value(true))
+              .andExpect(jsonPath("$.data.next").value(CursorCodec.encode("12302")));
+   }
+
+   @Test
+   void testFindAllByCursorNextPage() throws Exception {
+      // Given
+      SliceImpl<ArtifactProjection> artifactSlice = new SliceImpl<>(toProjections(this.artifactList.subList(2, 3)), PageRequest.of(0, 2), false);
+      given(artifactService.findAllAfter(12302L, 2)).willReturn(artifactSlice);
+      // When and Then
+      mockMvc.perform(get(url + "/artifacts").accept(MediaType.APPLICATION_JSON)
+                      .param("after", CursorCodec.encode("12302"))
+                      .param("size", "2"))
+              .andExpect(jsonPath("$.flag").value(true))
+              .andExpect(jsonPath("$.data.content", Matchers.hasSize(1)))
+              .andExpect(jsonPath("$.data.hasNext").value(false))
+              .andExpect(jsonPath("$.data.next").isEmpty());
+   }
+
+   @Test
+   void testFindAllByCursorInvalid() throws Exception {
+      mockMvc.perform(get(url + "/artifacts").accept(MediaType.APPLICATION_JSON)
+                      .param("after", "!!!"))
+              .andExpect(jsonPath("$.flag").value(false))
+              .andExpect(jsonPath("$.code").value(StatusCode.BAD_REQUEST))
+              .andExpect(jsonPath("$.message").value("Invalid cursor !!!"));
+   }
+
    @Test
    void testAddSuccess() throws Exception {
       // Given
       Artifact newArtifact = new Artifact();
-      newArtifact.setId("12309");
+      newArtifact.setId(12309L);
       newArtifact.setName("new Art");
       newArtifact.setDescription("added Art desc.");
       newArtifact.setImageUrl("image");
@@ -158,7 +276,7 @@ class ArtifactControllerTest {
       newArtifact.setOwner(null);
 
       ArtifactDto newArtifactDto = new ArtifactDto(
-              "12309", "new Art", "added Art desc.", "image",
+              12309L, "new Art", "added Art desc.", "image",
               LocalDateTime.of(1234,2,2,2,2,2), null);
 
       String json = objectMapper.writeValueAsString(newArtifactDto);
@@ -179,11 +297,11 @@ class ArtifactControllerTest {
    void testUpdateSuccess() throws Exception {
       // Given
       ArtifactDto updateArtifactDto = new ArtifactDto(
-              "12302", "update Art", "update Art desc.", "image",
+              12302L, "update Art", "update Art desc.", "image",
               LocalDateTime.of(1234,2,2,2,2,2), null);
 
       Artifact update = new Artifact();
-      update.setId("12302");
+      update.setId(12302L);
       update.setName("update Art");
       update.setDescription("update Art desc.");
       update.setImageUrl("image");
@@ -193,7 +311,7 @@ class ArtifactControllerTest {
 
       String json = objectMapper.writeValueAsString(updateArtifactDto);
 
-      given(artifactService.update(eq("12302"), Mockito.any(Artifact.class))).willReturn(update);
+      given(artifactService.update(eq(12302L), Mockito.any(Artifact.class))).willReturn(update);
       // When and Then
       mockMvc.perform(put(url + "/artifacts/12302").accept(MediaType.APPLICATION_JSON)
                       .contentType(MediaType.APPLICATION_JSON).content(json))
@@ -209,11 +327,11 @@ class ArtifactControllerTest {
    void testUpdateNotFound() throws Exception {
       // Given
       ArtifactDto updateArtifactDto = new ArtifactDto(
-              "12302", "update Art", "update Art desc.", "image",
+              12302L, "update Art", "update Art desc.", "image",
               LocalDateTime.of(1234,2,2,2,2,2),null);
 
       Artifact update = new Artifact();
-      update.setId("12302");
+      update.setId(12302L);
       update.setName("update Art");
       update.setDescription("update Art desc.");
       update.setImageUrl("image");
@@ -221,8 +339,8 @@ class ArtifactControllerTest {
 
       String json = objectMapper.writeValueAsString(updateArtifactDto);
 
-      given(artifactService.update(eq("12302"), Mockito.any(Artifact.class)))
-              .willThrow(new ObjectNotFoundException("artifact", "12302"));
+      given(artifactService.update(eq(12302L), Mockito.any(Artifact.class)))
+              .willThrow(new ObjectNotFoundException("artifact", 12302L));
       // When and Then
       mockMvc.perform(put(url + "/artifacts/12302").accept(MediaType.APPLICATION_JSON)
                       .contentType(MediaType.APPLICATION_JSON).content(json))
@@ -235,7 +353,7 @@ class ArtifactControllerTest {
    @Test
    void testDeleteSuccess() throws Exception {
       // Given
-      doNothing().when(artifactService).delete("12302");
+      doNothing().when(artifactService).delete(12302L);
       // When and Then
       mockMvc.perform(delete(url+"/artifacts/12302").accept(MediaType.APPLICATION_JSON))
               .andExpect(jsonPath("$.flag").value(true))
@@ -247,7 +365,7 @@ class ArtifactControllerTest {
    @Test
    void testDeleteNotFound() throws Exception {
       // Given
-      doThrow(new ObjectNotFoundException("artifact","12302")).when(artifactService).delete("12302");
+      doThrow(new ObjectNotFoundException("artifact",12302L)).when(artifactService).delete(12302L);
       // When and Then
       mockMvc.perform(delete(url+"/artifacts/12302").accept(MediaType.APPLICATION_JSON))
               .andExpect(jsonPath("$.flag").value(false))
@@ -259,7 +377,7 @@ class ArtifactControllerTest {
    @Test
    void testSummarySuccess() throws Exception {
       // Given
-      given(artifactService.summarize(Mockito.anyList())).willReturn("ai 결과");
+      given(artifactService.summarizeAll()).willReturn("ai 결과");
       // When and Then
       mockMvc.perform(get(url+"/artifacts/summary").accept(MediaType.APPLICATION_JSON))
               .andExpect(jsonPath("$.flag").value(true))
@@ -267,4 +385,105 @@ class ArtifactControllerTest {
               .andExpect(jsonPath("$.message").value("Summarize Success"))
               .andExpect(jsonPath("$.data").value("ai 결과"));
    }
-}
\ No newline at end of file
+
+   @Test
+   void testSubmitSummaryJobSuccess() throws Exception {
+      // Given
+      given(summaryJobService.submit()).willReturn(SummaryJob.queued("job-1"));
+      // When and Then
+      mockMvc.perform(post(url+"/artifacts/summary/jobs").accept(MediaType.APPLICATION_JSON))
+              .andExpect(jsonPath("$.flag").value(true))
+              .andExpect(jsonPath("$.code").value(StatusCode.SUCCESS))
+              .andExpect(jsonPath("$.message").value("Submit Success"))
+              .andExpect(jsonPath("$.data.id").value("job-1"))
+              .andExpect(jsonPath("$.data.status").value("QUEUED"));
+   }
+
+   @Test
+   void testSubmitSummaryJobRejected() throws Exception {
+      // Given
+      given(summaryJobService.submit()).willThrow(new SummaryJobRejectedException());
+      // When and Then
+      mockMvc.perform(post(url+"/artifacts/summary/jobs").accept(MediaType.APPLICATION_JSON))
+              .andExpect(status().isServiceUnavailable())
+              .andExpect(jsonPath("$.flag").value(false))
+              .andExpect(jsonPath("$.code").value(StatusCode.SERVICE_UNAVAILABLE));
+   }
+
+   @Test
+   void testFindSummaryJobSuccess() throws Exception {
+      // Given
+      given(summaryJobService.find("job-1")).willReturn(SummaryJob.queued("job-1").done("ai 결과"));
+      // When and Then
+      mockMvc.perform(get(url+"/artifacts/summary/jobs/job-1").accept(MediaType.APPLICATION_JSON))
+              .andExpect(jsonPath("$.flag").value(true))
+              .andExpect(jsonPath("$.data.status").value("DONE"))
+              .andExpect(jsonPath("$.data.result").value("ai 결과"));
+   }
+
+   @Test
+   void testExportCsv() throws Exception {
+      // Given
+      given(artifactService.export(eq(ArtifactExportFormat.CSV), any())).willReturn(6L);
+      // When and Then
+      mockMvc.perform(get(url+"/artifacts/export").param("format", "csv"))
+              .andExpect(status().isOk())
+              .andExpect(header().string("Content-Type", Matchers.startsWith("text/csv")))
+              .andExpect(header().string("Content-Disposition", "attachment; filename=\"artifacts.csv\""));
+      verify(artifactService, times(1)).export(eq(ArtifactExportFormat.CSV), any());
+   }
+
+   @Test
+   void testExportInvalidFormat() throws Exception {
+      // When and Then
+      mockMvc.perform(get(url+"/artifacts/export").param("format", "xml").accept(MediaType.APPLICATION_JSON))
+              .andExpect(jsonPath("$.flag").value(false))
+              .andExpect(jsonPath("$.code").value(StatusCode.BAD_REQUEST))
+              .andExpect(jsonPath("$.message").value("Unsupported export format xml"));
+      verify(artifactService, never()).export(any(), any());
+   }
+
+   @Test
+   void testBulkImportSuccess() throws Exception {
+      // Given
+      given(artifactBulkImporter.importNdjson(any()))
+              .willReturn(new BulkImportResult(2, 1, List.of(new BulkImportResult.LineError(3, "NAME is required."))));
+      String ndjson = "{\"name\":\"a1\",\"description\":\"d1\"}\n{\"name\":\"a2\",\"description\":\"d2\"}\n{\"description\":\"d3\"}\n";
+      // When and Then
+      mockMvc.perform(post(url+"/artifacts/bulk").contentType("application/x-ndjson").content(ndjson).accept(MediaType.APPLICATION_JSON))
+              .andExpect(jsonPath("$.flag").value(true))
+              .andExpect(jsonPath("$.code").value(StatusCode.SUCCESS))
+              .andExpect(jsonPath("$.message").value("Bulk Import Success"))
+              .andExpect(jsonPath("$.data.accepted").value(2))
+              .andExpect(jsonPath("$.data.rejected").value(1))
+              .andExpect(jsonPath("$.data.errors[0].line").value(3));
+   }
+
+   @Test
+   void testUploadImageStream() throws Exception {
+      // Given
+      byte[] image = new byte[]{1, 2, 3};
+      given(imageStorageClient.uploadImage(eq("images"), eq("a.png"), any(), eq(3L), eq("image/png")))
+              .willReturn("https://blob/images/a.png");
+      // When and Then
+      mockMvc.perform(post(url+"/artifacts/images").param("containerName", "images").param("fileName", "a.png")
+                      .contentType(MediaType.IMAGE_PNG).content(image).accept(MediaType.APPLICATION_JSON))
+              .andExpect(jsonPath("$.flag").value(true))
+              .andExpect(jsonPath("$.message").value("Upload Image Success"))
+              .andExpect(jsonPath("$.data").value("https://blob/images/a.png"));
+   }
+
+   @Test
+   void testUploadImageStreamTooLarge() throws Exception {
+      // Given
+      given(imageStorageClient.uploadImage(any(), any(), any(), anyLong(), any()))
+              .willThrow(new ImageTooLargeException(2));
+      // When and Then
+      mockMvc.perform(post(url+"/artifacts/images").param("containerName", "images").param("fileName", "a.png")
+                      .contentType(MediaType.IMAGE_PNG).content(new byte[]{1, 2, 3}).accept(MediaType.APPLICATION_JSON))
+              .andExpect(status().isPayloadTooLarge())
+              .andExpect(jsonPath("$.flag").value(false))
+              .andExpect(jsonPath("$.code").value(StatusCode.PAYLOAD_TOO_LARGE))
+              .andExpect(jsonPath("$.message").value("Image is larger than 2 bytes"));
+   }
+}
@@ -3,15 +3,21 @@ package kr.masul.artifact;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import kr.masul.client.ai.chat.ChatClient;
-import kr.masul.client.ai.chat.dto.ChatRequest;
-import kr.masul.client.ai.chat.dto.ChatResponse;
-import kr.masul.client.ai.chat.dto.Choice;
-import kr.masul.client.ai.chat.dto.Message;
+import kr.masul.artifact.search.ArtifactSearchIndex;
+import kr.masul.artifact.summary.ArtifactSummarizer;
+import kr.masul.artifact.summary.ArtifactSummaryCache;
+import kr.masul.artifact.summary.CatalogFingerprint;
 import kr.masul.system.IdWorker;
+import kr.masul.artifact.export.ArtifactExportFormat;
+import kr.masul.system.converter.ArtifactProjectionToDto;
+import kr.masul.system.converter.ArtifactToDto;
 //import kr.masul.system.ModuleConfig;
+import kr.masul.system.exception.InvalidSearchCriteriaException;
 import kr.masul.system.exception.ObjectNotFoundException;
+import kr.masul.wizard.Wizard;
 import kr.masul.wizard.WizardDto;
+import kr.masul.wizard.WizardLeaderboard;
+import kr.masul.wizard.WizardRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -19,14 +25,30 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.catchThrowable;
@@ -40,9 +62,23 @@ class ArtifactServiceTest {
    @Mock
    ArtifactRepository artifactRepository;
    @Mock
+   WizardRepository wizardRepository;
+   @Mock
+   WizardLeaderboard wizardLeaderboard;
+   @Mock
    IdWorker idWorker;
    @Mock
-   ChatClient chatClient;
+   ArtifactSummarizer artifactSummarizer;
+   @Mock
+   ArtifactSummaryCache artifactSummaryCache;
+   @Mock
+   ArtifactCache artifactCache;
+   @Mock
+   ArtifactToDto artifactToDto;
+   @Mock
+   ArtifactSearchIndex artifactSearchIndex;
+   @Spy
+   ArtifactProjectionToDto artifactProjectionToDto = new ArtifactProjectionToDto();
 
    @InjectMocks
    ArtifactService artifactService;
@@ -56,41 +92,105 @@ class ArtifactServiceTest {
    void testFindByIdSuccess() {
       // Given
       Artifact a = new Artifact();
-      a.setId("12303");
+      a.setId(12303L);
       a.setName("Third Artifact");
       a.setDescription("Third Artifact get large");
       a.setImageUrl("image");
       a.setOwner(null);
 
-      given(artifactRepository.findById("12303")).willReturn(Optional.of(a));
+      given(artifactRepository.findById(12303L)).willReturn(Optional.of(a));
       // When
-      Artifact foundArtifact = artifactService.findById("12303");
+      Artifact foundArtifact = artifactService.findById(12303L);
       // then
-      assertThat(foundArtifact.getId()).isEqualTo("12303");
+      assertThat(foundArtifact.getId()).isEqualTo(12303L);
       assertThat(foundArtifact.getName()).isEqualTo("Third Artifact");
       assertThat(foundArtifact.getDescription()).isEqualTo("Third Artifact get large");
-      verify(artifactRepository, times(1)).findById("12303");
+      verify(artifactRepository, times(1)).findById(12303L);
    }
    @Test
    @DisplayName("find artifact by id fail")
    void testFindByIdNotFound() {
       // Given
       Artifact a = new Artifact();
-      a.setId("12303");
+      a.setId(12303L);
       a.setName("Third Artifact");
       a.setDescription("Third Artifact get large");
       a.setImageUrl("image");
       a.setOwner(null);
 
-      given(artifactRepository.findById(Mockito.anyString())).willReturn(Optional.empty());
+      given(artifactRepository.findById(Mockito.anyLong())).willReturn(Optional.empty());
       // When
       Throwable thrown = catchThrowable(() -> {
-         Artifact foundArtifact = artifactService.findById("12303");
+         Artifact foundArtifact = artifactService.findById(12303L);
       });
       // then
       assertThat(thrown).isInstanceOf(ObjectNotFoundException.class)
               .hasMessage("Could not find artifact with id 12303");
-      verify(artifactRepository, times(1)).findById("12303");
+      verify(artifactRepository, times(1)).findById(12303L);
+   }
+
+   @Test
+   @DisplayName("find artifact dto by id loads through cache")
+   void testFindDtoByIdSuccess() {
+      // Given
+      Artifact a = new Artifact();
+      a.setId(12303L);
+      a.setName("Third Artifact");
+      a.setDescription("Third Artifact get large");
+      a.setImageUrl("image");
+      ArtifactDto dto = new ArtifactDto(12303L, "Third Artifact", "Third Artifact get large",
+              "image", null, null);
+
+      // cache miss 상황: loader를 그대로 실행
+      given(artifactCache.get(eq(12303L), eq(0L), Mockito.any()))
+              .willAnswer(invocation -> invocation.<Function<Long, ArtifactCache.Entry>>getArgument(2).apply(12303L).artifact());
+      given(artifactRepository.findById(12303L)).willReturn(Optional.of(a));
+      given(artifactToDto.convert(a)).willReturn(dto);
+      // When
+      ArtifactDto found = artifactService.findDtoById(12303L,
+              new ArtifactVersion(0L, Instant.parse("2026-10-01T10:00:00Z"), null, null, null, null));
+      // Then
+      assertThat(found).isEqualTo(dto);
+      verify(artifactRepository, times(1)).findById(12303L);
+   }
+
+   @Test
+   void testFindDtoByIdUsesOwnerCountFromVersion() {
+      // Given: 캐시에는 owner의 artifact 수가 없고, 그 사이 다른 artifact가 assign 되어 수가 3이 됨
+      WizardDto owner = new WizardDto(2, "Harry Potter", null, null);
+      given(artifactCache.get(eq(12303L), eq(1L), Mockito.any()))
+              .willReturn(new ArtifactDto(12303L, "Third Artifact", "description", "image", null, owner));
+      ArtifactVersion version = new ArtifactVersion(1L, Instant.parse("2026-10-01T10:00:00Z"),
+              2, 1L, Instant.parse("2026-10-01T10:00:00Z"), 3);
+      // When
+      ArtifactDto found = artifactService.findDtoById(12303L, version);
+      // Then: 본문의 수와 ETag의 수가 같음
+      assertThat(found.owner().numberOfArtifacts()).isEqualTo(3);
+      verify(artifactRepository, never()).findById(any());
+   }
+
+   @Test
+   void testFindDtoByIdCachesEntityVersionWithoutOwnerCount() {
+      // Given: cache miss, DB의 artifact는 version 2, owner의 수 5
+      Artifact a = new Artifact();
+      a.setId(12303L);
+      a.setVersion(2L);
+      given(artifactRepository.findById(12303L)).willReturn(Optional.of(a));
+      given(artifactToDto.convert(a)).willReturn(new ArtifactDto(12303L, "Third Artifact", "description", "image", null,
+              new WizardDto(2, "Harry Potter", null, 5)));
+      AtomicReference<ArtifactCache.Entry> cachedEntry = new AtomicReference<>();
+      given(artifactCache.get(eq(12303L), eq(2L), Mockito.any())).willAnswer(invocation -> {
+         cachedEntry.set(invocation.<Function<Long, ArtifactCache.Entry>>getArgument(2).apply(12303L));
+         return cachedEntry.get().artifact();
+      });
+      ArtifactVersion version = new ArtifactVersion(2L, Instant.parse("2026-10-01T10:00:00Z"),
+              2, 1L, Instant.parse("2026-10-01T10:00:00Z"), 3);
+      // When
+      ArtifactDto found = artifactService.findDtoById(12303L, version);
+      // Then: 캐시에는 version과 owner 수 없이, 응답에는 version의 수
+      assertThat(cachedEntry.get().version()).isEqualTo(2L);
+      assertThat(cachedEntry.get().artifact().owner().numberOfArtifacts()).isNull();
+      assertThat(found.owner().numberOfArtifacts()).isEqualTo(3);
    }
 
    @Test
@@ -98,14 +198,14 @@ class ArtifactServiceTest {
       // Given
       List<Artifact> artifactList = new ArrayList<>();
       Artifact a1 = new Artifact();
-      a1.setId("12301");
+      a1.setId(12301L);
       a1.setName("First Artifact");
       a1.setDescription("First Artifact hide");
       a1.setImageUrl("image");
       artifactList.add(a1);
 
       Artifact a2 = new Artifact();
-      a2.setId("12302");
+      a2.setId(12302L);
       a2.setName("Second Artifact");
       a2.setDescription("Second Artifact get small");
       a2.setImageUrl("image");
@@ -119,11 +219,169 @@ class ArtifactServiceTest {
       verify(artifactRepository, times(1)).findAll();
    }
 
+   @Test
+   void testFindVersionSuccess() {
+      // Given
+      ArtifactVersion version = new ArtifactVersion(3L, Instant.parse("2026-09-01T10:00:00Z"), null, null, null, null);
+      given(artifactRepository.findVersionById(12303L)).willReturn(Optional.of(version));
+      // When
+      ArtifactVersion found = artifactService.findVersion(12303L);
+      // Then
+      assertThat(found.eTag()).isEqualTo("\"3-0\"");
+      assertThat(found.lastModifiedMillis()).isEqualTo(Instant.parse("2026-09-01T10:00:00Z").toEpochMilli());
+   }
+
+   @Test
+   void testFindAllAfterFirstPage() {
+      // Given
+      given(artifactRepository.findProjectionSlice(null, Sort.by(Sort.Direction.DESC, "id"), 2))
+              .willReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 2), true));
+      // When
+      Slice<ArtifactProjection> slice = artifactService.findAllAfter(null, 2);
+      // Then
+      assertThat(slice.hasNext()).isTrue();
+      verify(artifactRepository, times(1)).findProjectionSlice(null, Sort.by(Sort.Direction.DESC, "id"), 2);
+   }
+
+   @Test
+   void testFindAllAfterSeek() {
+      // Given
+      given(artifactRepository.findProjectionSlice(Mockito.any(), eq(Sort.by(Sort.Direction.DESC, "id")), eq(2)))
+              .willReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 2), false));
+      // When
+      Slice<ArtifactProjection> slice = artifactService.findAllAfter(12303L, 2);
+      // Then
+      assertThat(slice.hasNext()).isFalse();
+      verify(artifactRepository, times(1))
+              .findProjectionSlice(Mockito.notNull(), eq(Sort.by(Sort.Direction.DESC, "id")), eq(2));
+   }
+
+   @Test
+   void testFindByCriteriaNameUsesSearchIndex() {
+      // Given
+      given(artifactSearchIndex.search("invisibility", null))
+              .willReturn(new ArtifactSearchIndex.Hits(List.of(12302L), 1));
+      given(artifactRepository.findProjections(Mockito.notNull(), eq(PageRequest.of(0, 10))))
+              .willReturn(new PageImpl<>(List.of(projection(12302L)), PageRequest.of(0, 10), 1));
+      // When
+      Page<ArtifactProjection> page = artifactService.findByCriteria(Map.of("name", "invisibility"), PageRequest.of(0, 10));
+      // Then
+      assertThat(page.getTotalElements()).isEqualTo(1);
+      verify(artifactSearchIndex, times(1)).search("invisibility", null);
+   }
+
+   @Test
+   void testFindByCriteriaNoSearchHit() {
+      // Given
+      given(artifactSearchIndex.search("nothing", null)).willReturn(new ArtifactSearchIndex.Hits(List.of(), 0));
+      // When
+      Page<ArtifactProjection> page = artifactService.findByCriteria(Map.of("name", "nothing"), PageRequest.of(0, 10));
+      // Then
+      assertThat(page.getTotalElements()).isEqualTo(0);
+      verify(artifactRepository, never()).findProjections(any(), any());
+   }
+
+   @Test
+   void testFindByCriteriaInvalidDate() {
+      // When
+      Throwable thrown = catchThrowable(() ->
+              artifactService.findByCriteria(Map.of("start_date", "yesterday"), PageRequest.of(0, 10)));
+      // Then
+      assertThat(thrown).isInstanceOf(InvalidSearchCriteriaException.class)
+              .hasMessage("Invalid search criteria start_date: yesterday");
+      verify(artifactRepository, never()).findProjections(any(), any());
+   }
+
+   @Test
+   void testFindByCriteriaRelevanceOrder() {
+      // Given: index 순위는 12305, 12302 순서, DB는 id 순서로 돌려줌
+      given(artifactSearchIndex.search(null, "cloak"))
+              .willReturn(new ArtifactSearchIndex.Hits(List.of(12305L, 12302L), 2));
+      given(artifactRepository.findProjections(Mockito.notNull(), eq(Pageable.unpaged())))
+              .willReturn(new PageImpl<>(List.of(projection(12302L), projection(12305L))));
+      // When
+      Page<ArtifactProjection> page = artifactService.findByCriteria(Map.of("description", "cloak"),
+              PageRequest.of(0, 10, Sort.by(ArtifactService.RELEVANCE)));
+      // Then
+      assertThat(page.getContent().get(0).id()).isEqualTo(12305L);
+      assertThat(page.getContent().get(1).id()).isEqualTo(12302L);
+      assertThat(page.getTotalElements()).isEqualTo(2);
+   }
+
+   @Test
+   void testFindByCriteriaRelevanceReportsTotalHits() {
+      // Given: 5000건이 일치했지만 index는 max-hits개만 돌려줌
+      given(artifactSearchIndex.search(null, "cloak"))
+              .willReturn(new ArtifactSearchIndex.Hits(List.of(12305L, 12302L), 5000));
+      given(artifactRepository.findProjections(Mockito.notNull(), eq(Pageable.unpaged())))
+              .willReturn(new PageImpl<>(List.of(projection(12302L), projection(12305L))));
+      // When
+      Page<ArtifactProjection> page = artifactService.findByCriteria(Map.of("description", "cloak"),
+              PageRequest.of(0, 2, Sort.by(ArtifactService.RELEVANCE)));
+      // Then
+      assertThat(page.getTotalElements()).isEqualTo(5000);
+   }
+
+   @Test
+   void testFindByCriteriaTruncatedHitsUseLikeForDatabaseSort() {
+      // Given: max-hits(2)보다 많이 일치, 기본 정렬에 owner 조건까지 있음
+      given(artifactSearchIndex.search("cloak", null))
+              .willReturn(new ArtifactSearchIndex.Hits(List.of(12305L, 12302L), 5000));
+      given(artifactRepository.findProjections(Mockito.notNull(), eq(PageRequest.of(3, 10))))
+              .willReturn(new PageImpl<>(List.of(projection(12340L)), PageRequest.of(3, 10), 1200));
+      // When
+      Page<ArtifactProjection> page = artifactService.findByCriteria(Map.of("name", "cloak", "ownerName", "Harry"),
+              PageRequest.of(3, 10));
+      // Then: 400 없이 DB의 페이지와 개수
+      assertThat(page.map(ArtifactProjection::id).getContent()).isEqualTo(List.of(12340L));
+      assertThat(page.getTotalElements()).isEqualTo(1200);
+      verify(artifactSearchIndex, never()).searchAll(any(), any());
+   }
+
+   @Test
+   void testFindByCriteriaTruncatedHitsRelevanceWithOtherCriteria() {
+      // Given: index는 앞의 2개만 돌려주고, owner 조건에 맞는 것은 그 뒤(3, 4, 5번째)에 있음
+      given(artifactSearchIndex.search("cloak", null))
+              .willReturn(new ArtifactSearchIndex.Hits(List.of(12301L, 12302L), 5));
+      given(artifactSearchIndex.searchAll("cloak", null))
+              .willReturn(List.of(12301L, 12302L, 12305L, 12303L, 12304L));
+      given(artifactRepository.findProjections(Mockito.notNull(), eq(Pageable.unpaged())))
+              .willReturn(new PageImpl<>(List.of(projection(12303L), projection(12304L), projection(12305L))));
+      // When: 두번째 페이지(크기 2)
+      Page<ArtifactProjection> page = artifactService.findByCriteria(Map.of("name", "cloak", "ownerName", "Harry"),
+              PageRequest.of(1, 2, Sort.by(ArtifactService.RELEVANCE)));
+      // Then: 관련도 순서 12305, 12303, 12304 중 세번째
+      assertThat(page.map(ArtifactProjection::id).getContent()).isEqualTo(List.of(12304L));
+      assertThat(page.getTotalElements()).isEqualTo(3);
+   }
+
+   @Test
+   void testExportCsv() throws IOException {
+      // Given
+      ArtifactProjection p1 = new ArtifactProjection(12301L, "First Artifact", "hide, \"quietly\"", "image",
+              null, 1, "SuperMan", null, 2);
+      given(artifactRepository.streamProjections(null, Sort.by(Sort.Direction.ASC, "id"), 1000))
+              .willReturn(Stream.of(p1, projection(12302L)));
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      // When
+      long count = artifactService.export(ArtifactExportFormat.CSV, out);
+      // Then
+      assertThat(count).isEqualTo(2);
+      assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+              "id,name,description,imageUrl,createAt,ownerId,ownerName\n" +
+              "12301,First Artifact,\"hide, \"\"quietly\"\"\",image,,1,SuperMan\n" +
+              "12302,name,description,imageUrl,,,\n");
+   }
+
+   private ArtifactProjection projection(Long id) {
+      return new ArtifactProjection(id, "name", "description", "imageUrl", null, null, null, null, null);
+   }
+
    @Test
    void testAddSuccess() {
       // Given
       Artifact a = new Artifact();
-      a.setId("12311");
+      a.setId(12311L);
       a.setName("Second Artifact");
       a.setDescription("Second Artifact get small");
       a.setImageUrl("image");
@@ -134,7 +392,9 @@ class ArtifactServiceTest {
       // When
       Artifact addedArtifact = artifactService.add(a);
       // Then
-      assertThat(addedArtifact.getId()).isEqualTo("12311");
+      assertThat(addedArtifact.getId()).isEqualTo(12311L);
+      assertThat(addedArtifact.getCreateAt()).isEqualTo(
+              LocalDateTime.ofInstant(Instant.ofEpochMilli(IdWorker.timestampOf(12311L)), ZoneId.systemDefault()));
       assertThat(addedArtifact.getDescription()).isEqualTo("Second Artifact get small");
       verify(artifactRepository, times(1)).save(a);
    }
@@ -143,125 +403,164 @@ class ArtifactServiceTest {
    void testUpdateSuccess() {
       // Given
       Artifact old = new Artifact();
-      old.setId("12302");
+      old.setId(12302L);
       old.setName("Second Artifact");
       old.setDescription("Second Artifact get small");
       old.setImageUrl("image");
 
       Artifact update = new Artifact();
-      update.setId("12302");
+      update.setId(12302L);
       update.setName("update Artifact");
       update.setDescription("update Second Artifact get small");
       update.setImageUrl("update image");
       update.setOwner(null);
-      given(artifactRepository.findById("12302")).willReturn(Optional.of(old));
+      given(artifactRepository.findById(12302L)).willReturn(Optional.of(old));
       given(artifactRepository.save(Mockito.any(Artifact.class))).willReturn(old);
       // When
-      Artifact add = artifactService.update("12302", update);
+      Artifact add = artifactService.update(12302L, update);
       // Then
-      assertThat(add.getId()).isEqualTo("12302");
+      assertThat(add.getId()).isEqualTo(12302L);
       assertThat(add.getName()).isEqualTo("update Artifact");
       assertThat(add.getDescription()).isEqualTo("update Second Artifact get small");
       verify(artifactRepository, times(1)).save(add);
+      verify(artifactCache, times(1)).evict(12302L);
    }
 
    @Test
    void testUpdateNotFound() {
       // Given
       Artifact old = new Artifact();
-      old.setId("12302");
+      old.setId(12302L);
       old.setName("Second Artifact");
       old.setDescription("Second Artifact get small");
       old.setImageUrl("image");
 
-      given(artifactRepository.findById(Mockito.any(String.class))).willReturn(Optional.empty());
+      given(artifactRepository.findById(Mockito.any(Long.class))).willReturn(Optional.empty());
       // When
       Throwable thrown = catchThrowable(() -> {
-         Artifact add = artifactService.update("12302", old);
+         Artifact add = artifactService.update(12302L, old);
       });
       // Then
       assertThat(thrown).isInstanceOf(ObjectNotFoundException.class).hasMessage("Could not find artifact with id 12302");
-      verify(artifactRepository, times(1)).findById("12302");
+      verify(artifactRepository, times(1)).findById(12302L);
    }
 
    @Test
    void testDeleteSuccess() {
       // Given
       Artifact art = new Artifact();
-      art.setId("12302");
+      art.setId(12302L);
       art.setName("Second Artifact");
       art.setDescription("Second Artifact get small");
       art.setImageUrl("image");
 
-      given(artifactRepository.findById("12302")).willReturn(Optional.of(art));
-      doNothing().when(artifactRepository).deleteById("12302");
+      given(artifactRepository.findById(12302L)).willReturn(Optional.of(art));
+      doNothing().when(artifactRepository).deleteById(12302L);
+      // When
+      artifactService.delete(12302L);
+      // Then
+      verify(artifactRepository, times(1)).deleteById(12302L);
+      verify(artifactCache, times(1)).evict(12302L);
+   }
+
+   @Test
+   void testDeleteOwnedArtifactDecrementsOwnerCount() {
+      // Given
+      Artifact art = new Artifact();
+      art.setId(12302L);
+      Wizard owner = new Wizard();
+      owner.setId(1);
+      owner.addArtifact(art);
+
+      given(artifactRepository.findById(12302L)).willReturn(Optional.of(art));
       // When
-      artifactService.delete("12302");
+      artifactService.delete(12302L);
       // Then
-      verify(artifactRepository, times(1)).deleteById("12302");
+      assertThat(owner.getNumberOfArtifacts()).isEqualTo(0);
+      verify(wizardRepository, times(1)).addArtifactCount(eq(1), eq(-1), any(Instant.class));
+      verify(wizardLeaderboard, times(1)).increment(1, -1);
+      verify(artifactRepository, times(1)).deleteById(12302L);
    }
 
    @Test
    void testDeleteNotFound() {
       // Given
       Artifact art = new Artifact();
-      art.setId("12302");
+      art.setId(12302L);
       art.setName("Second Artifact");
       art.setDescription("Second Artifact get small");
       art.setImageUrl("image");
 
-      given(artifactRepository.findById("12302")).willReturn(Optional.empty());
+      given(artifactRepository.findById(12302L)).willReturn(Optional.empty());
       // When
       Throwable thrown = catchThrowable(() -> {
-         Artifact artifact = artifactService.findById("12302");
+         Artifact artifact = artifactService.findById(12302L);
       });
       // Then
       assertThat(thrown).isInstanceOf(ObjectNotFoundException.class)
               .hasMessage("Could not find artifact with id 12302");
-      verify(artifactRepository, times(1)).findById("12302");
+      verify(artifactRepository, times(1)).findById(12302L);
    }
 
    @Test
-   void testGenerateSuccess() throws JsonProcessingException {
+   void testSummarizeSuccess() throws JsonProcessingException {
       // Given
-      WizardDto wizard = new WizardDto(6,"마술사",
-              LocalDateTime.of(1991, 2,4,2,2,1,333), 2);
       List<ArtifactDto> artifactDtos = List.of(
-              new ArtifactDto("45601", "숨기", "기술", "imageUrl",
-                      LocalDateTime.of(1991, 2,4,2,2,1,333), wizard),
-              new ArtifactDto("45602", "size up", "bit size", "imageUrl",
-                      LocalDateTime.of(1991, 2,4,2,2,1,333), wizard)
-      );
-      // LocalDateTime이 있으면 pom.xml에 dependency 추가하고 regitsterModule() 추가해야함
-      ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
-      String json = mapper.writeValueAsString(artifactDtos);
-
-      ChatRequest chatRequest = new ChatRequest("gpt-4", List.of(
-              new Message("system", "질문할 내용"),
-              new Message("user", json)
-              ));
-
-      ChatResponse chatResponse = new ChatResponse(List.of(
-              new Choice(0, new Message("assistant", "질문에 대한 답변"))));
-      given(chatClient.generate(chatRequest)).willReturn(chatResponse);
+              new ArtifactDto(45601L, "숨기", "기술", "imageUrl", null, null));
+      given(artifactSummarizer.summarize(artifactDtos)).willReturn("질문에 대한 답변");
       // When
       String summary = artifactService.summarize(artifactDtos);
-
       // Then
       assertThat(summary).isEqualTo("질문에 대한 답변");
-      verify(chatClient, times(1)).generate(chatRequest);
+      verify(artifactSummarizer, times(1)).summarize(artifactDtos);
    }
-}
-
-
-
-
-
-
-
-
-
-
 
+   @Test
+   void testSummarizeAllUnchangedCatalog() throws JsonProcessingException {
+      // Given
+      CatalogFingerprint fingerprint = new CatalogFingerprint(6L, 12306L, Instant.parse("2026-10-01T10:00:00Z"), null);
+      given(artifactSummaryCache.isEnabled()).willReturn(true);
+      given(artifactRepository.findCatalogFingerprint()).willReturn(fingerprint);
+      given(artifactSummaryCache.findByFingerprint(fingerprint)).willReturn("캐시된 요약");
+      // When
+      String summary = artifactService.summarizeAll();
+      // Then
+      assertThat(summary).isEqualTo("캐시된 요약");
+      verify(artifactRepository, never()).findProjections(any(), any());
+      verify(artifactSummarizer, never()).summarize(any());
+   }
 
+   @Test
+   void testSummarizeAllChangedCatalog() throws JsonProcessingException {
+      // Given
+      CatalogFingerprint fingerprint = new CatalogFingerprint(1L, 12302L, Instant.parse("2026-10-01T10:00:00Z"), null);
+      given(artifactSummaryCache.isEnabled()).willReturn(true);
+      given(artifactRepository.findCatalogFingerprint()).willReturn(fingerprint);
+      given(artifactRepository.findProjections(null, Pageable.unpaged(Sort.by("id"))))
+              .willReturn(new PageImpl<>(List.of(projection(12302L))));
+      given(artifactSummaryCache.hash(anyList())).willReturn("hash");
+      given(artifactSummarizer.summarize(anyList())).willReturn("새 요약");
+      // When
+      String summary = artifactService.summarizeAll();
+      // Then
+      assertThat(summary).isEqualTo("새 요약");
+      verify(artifactSummaryCache, times(1)).put("hash", "새 요약");
+      verify(artifactSummaryCache, times(1)).putFingerprint(fingerprint, "hash");
+   }
 
+   @Test
+   void testStreamSummaryAllCached() throws JsonProcessingException {
+      // Given: 캐시된 요약은 한번에 전달
+      CatalogFingerprint fingerprint = new CatalogFingerprint(6L, 12306L, Instant.parse("2026-10-01T10:00:00Z"), null);
+      given(artifactSummaryCache.isEnabled()).willReturn(true);
+      given(artifactRepository.findCatalogFingerprint()).willReturn(fingerprint);
+      given(artifactSummaryCache.findByFingerprint(fingerprint)).willReturn("캐시된 요약");
+      List<String> tokens = new ArrayList<>();
+      // When
+      String summary = artifactService.streamSummaryAll(tokens::add);
+      // Then
+      assertThat(summary).isEqualTo("캐시된 요약");
+      assertThat(tokens).isEqualTo(List.of("캐시된 요약"));
+      verify(artifactSummarizer, never()).stream(any(), any());
+   }
+}
@@ -0,0 +1,145 @@
+package kr.masul.artifact;
+
+import kr.masul.client.ai.chat.FakeOpenAiServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * GET /artifacts/summary 부하 시험(외부 연결 없이 FakeOpenAiServer 사용)
+ * 기본 빌드에서는 제외되고 ./mvnw test -Pbenchmark 로 실행
+ * -Dbenchmark.artifacts=300 -Dbenchmark.requests=40 -Dbenchmark.concurrency=1,2,4,8,16
+ * -Dbenchmark.latency-median=200 -Dbenchmark.latency-p99=800 (ms) -Dbenchmark.error-rate=0
+ * 동시 요청은 같은 목록이라 OpenAiChatClient에서 합쳐지므로(single-flight) upstream 호출 수도 같이 출력
+ */
+@Tag("benchmark")
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles(value = "dev")
+class SummaryLoadBenchmarkTest {
+
+   static final FakeOpenAiServer fakeServer = FakeOpenAiServer.start()
+           .latency(Duration.ofMillis(Long.getLong("benchmark.latency-median", 200)),
+                   Duration.ofMillis(Long.getLong("benchmark.latency-p99", 800)))
+           .errorRate(Double.parseDouble(System.getProperty("benchmark.error-rate", "0")), 500);
+
+   @DynamicPropertySource
+   static void properties(DynamicPropertyRegistry registry) {
+      registry.add("ai.openai.endpoint", fakeServer::endpoint);
+      registry.add("ai.openai.rate-limit.requests-per-minute", () -> 0);
+      registry.add("ai.openai.rate-limit.tokens-per-minute", () -> 0);
+      registry.add("artifact.summary.cache.enabled", () -> false);
+   }
+
+   @AfterAll
+   static void stopServer() {
+      fakeServer.close();
+   }
+
+   @Autowired
+   MockMvc mockMvc;
+
+   @Autowired
+   ArtifactService artifactService;
+
+   @Value("${api.base-url}")
+   String url;
+
+   @Test
+   void summarizeUnderIncreasingConcurrency() throws Exception {
+      int artifacts = Integer.getInteger("benchmark.artifacts", 300);
+      int requests = Integer.getInteger("benchmark.requests", 40);
+      int[] levels = Arrays.stream(System.getProperty("benchmark.concurrency", "1,2,4,8,16").split(","))
+              .mapToInt(level -> Integer.parseInt(level.trim()))
+              .toArray();
+      for (int i = 0; i < artifacts; i++) {
+         Artifact artifact = new Artifact();
+         artifact.setName("Benchmark artifact " + i);
+         artifact.setDescription("Description of benchmark artifact " + i + " used to size the summary prompt.");
+         artifact.setImageUrl("ImageUrl");
+         artifactService.add(artifact);
+      }
+      run(1, 2); // warm up
+
+      System.out.printf("%n%12s %9s %8s %12s %10s %10s %10s%n",
+              "concurrency", "requests", "failed", "req/s", "p50(ms)", "p99(ms)", "upstream");
+      int totalFailed = 0;
+      for (int concurrency : levels) {
+         long upstreamBefore = fakeServer.requestCount();
+         Stats stats = run(concurrency, Math.max(requests, concurrency));
+         totalFailed += stats.failed();
+         System.out.printf("%12d %9d %8d %12.2f %10.1f %10.1f %10d%n",
+                 concurrency, stats.latencies().length, stats.failed(), stats.throughput(),
+                 stats.percentile(0.50) / 1e6, stats.percentile(0.99) / 1e6,
+                 fakeServer.requestCount() - upstreamBefore);
+      }
+      if (fakeServer.requestCount() > 0 && Double.parseDouble(System.getProperty("benchmark.error-rate", "0")) == 0) {
+         assertThat(totalFailed).isZero();
+      }
+   }
+
+   private Stats run(int concurrency, int requests) throws Exception {
+      ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+      AtomicInteger failed = new AtomicInteger();
+      try {
+         long start = System.nanoTime();
+         List<Future<Long>> futures = new ArrayList<>(requests);
+         for (int i = 0; i < requests; i++) {
+            futures.add(executor.submit(() -> {
+               long begin = System.nanoTime();
+               int status = mockMvc.perform(get(url + "/artifacts/summary")).andReturn().getResponse().getStatus();
+               if (status != 200) {
+                  failed.incrementAndGet();
+               }
+               return System.nanoTime() - begin;
+            }));
+         }
+         long[] latencies = new long[requests];
+         for (int i = 0; i < requests; i++) {
+            latencies[i] = futures.get(i).get(5, TimeUnit.MINUTES);
+         }
+         return new Stats(latencies, failed.get(), System.nanoTime() - start);
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   private record Stats(long[] latencies, int failed, long elapsedNanos) {
+
+      Stats {
+         latencies = latencies.clone();
+         Arrays.sort(latencies);
+      }
+
+      double throughput() {
+         return latencies.length / (elapsedNanos / 1e9);
+      }
+
+      // nearest-rank
+      long percentile(double p) {
+         int rank = (int) Math.ceil(p * latencies.length);
+         return latencies[Math.max(0, rank - 1)];
+      }
+   }
+}
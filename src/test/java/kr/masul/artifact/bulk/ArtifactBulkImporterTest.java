@@ -0,0 +1,120 @@
+package kr.masul.artifact.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.Validation;
+import kr.masul.artifact.Artifact;
+import kr.masul.artifact.search.ArtifactSearchIndex;
+import kr.masul.system.IdWorker;
+import kr.masul.system.converter.ArtifactToEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ArtifactBulkImporterTest {
+
+   @Mock
+   EntityManager entityManager;
+   @Mock
+   TransactionTemplate transactionTemplate;
+   @Mock
+   ArtifactSearchIndex artifactSearchIndex;
+
+   IdWorker idWorker = new IdWorker(1, 1);
+
+   ArtifactBulkImporter importer;
+
+   @BeforeEach
+   void setUp() {
+      importer = new ArtifactBulkImporter(entityManager, transactionTemplate,
+              new ObjectMapper().registerModule(new JavaTimeModule()),
+              Validation.buildDefaultValidatorFactory().getValidator(),
+              idWorker, new ArtifactToEntity(), artifactSearchIndex, 2, 10);
+      // transaction 없이 callback만 실행
+      lenient().doAnswer(invocation -> {
+         Consumer<TransactionStatus> callback = invocation.getArgument(0);
+         callback.accept(null);
+         return null;
+      }).when(transactionTemplate).executeWithoutResult(any());
+   }
+
+   private ByteArrayInputStream body(String ndjson) {
+      return new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8));
+   }
+
+   @Test
+   void testImportInChunks() throws IOException {
+      // Given: 3건, chunk-size 2
+      String ndjson = """
+              {"name":"a1","description":"d1","imageUrl":"image"}
+              {"name":"a2","description":"d2","imageUrl":"image"}
+
+              {"name":"a3","description":"d3","imageUrl":"image"}
+              """;
+      // When
+      BulkImportResult result = importer.importNdjson(body(ndjson));
+      // Then
+      assertThat(result.accepted()).isEqualTo(3);
+      assertThat(result.rejected()).isEqualTo(0);
+      verify(transactionTemplate, times(2)).executeWithoutResult(any());
+      ArgumentCaptor<Artifact> persisted = ArgumentCaptor.forClass(Artifact.class);
+      verify(entityManager, times(3)).persist(persisted.capture());
+      verify(entityManager, times(2)).clear();
+      assertThat(persisted.getAllValues()).allSatisfy(a -> assertThat(a.getId()).isNotNull());
+      assertThat(persisted.getAllValues().stream().map(Artifact::getId).distinct().count()).isEqualTo(3);
+   }
+
+   @Test
+   void testImportRejectsInvalidLines() throws IOException {
+      // Given
+      String ndjson = """
+              {"name":"a1","description":"d1"}
+              {"name":"","description":"d2"}
+              not json
+              """;
+      // When
+      BulkImportResult result = importer.importNdjson(body(ndjson));
+      // Then
+      assertThat(result.accepted()).isEqualTo(1);
+      assertThat(result.rejected()).isEqualTo(2);
+      assertThat(result.errors().get(0).line()).isEqualTo(2);
+      assertThat(result.errors().get(0).message()).isEqualTo("NAME is required.");
+      assertThat(result.errors().get(1).line()).isEqualTo(3);
+      assertThat(result.errors().get(1).message()).startsWith("Invalid json");
+   }
+
+   @Test
+   void testImportChunkFailure() throws IOException {
+      // Given: 첫 chunk 저장 실패, 다음 chunk는 계속 진행
+      doThrow(new PersistenceException("duplicate")).doNothing().when(entityManager).flush();
+      String ndjson = """
+              {"name":"a1","description":"d1"}
+              {"name":"a2","description":"d2"}
+              {"name":"a3","description":"d3"}
+              """;
+      // When
+      BulkImportResult result = importer.importNdjson(body(ndjson));
+      // Then
+      assertThat(result.accepted()).isEqualTo(1);
+      assertThat(result.rejected()).isEqualTo(2);
+      assertThat(result.errors()).extracting(BulkImportResult.LineError::line).containsExactly(1L, 2L);
+   }
+}
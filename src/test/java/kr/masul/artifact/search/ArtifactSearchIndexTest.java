@@ -0,0 +1,127 @@
+package kr.masul.artifact.search;
+
+import kr.masul.artifact.ArtifactProjection;
+import kr.masul.artifact.ArtifactRepository;
+import kr.masul.artifact.summary.CatalogFingerprint;
+import kr.masul.client.redisCache.RedisCacheClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ArtifactSearchIndexTest {
+
+   @Mock
+   ArtifactRepository artifactRepository;
+   @Mock
+   RedisCacheClient redisCacheClient;
+   @Mock
+   RedisMessageListenerContainer listenerContainer;
+
+   @TempDir
+   Path indexDir;
+
+   ArtifactSearchIndex searchIndex;
+
+   CatalogFingerprint fingerprint = new CatalogFingerprint(1L, 12301L, Instant.parse("2026-10-01T10:00:00Z"), null);
+
+   @BeforeEach
+   void setUp() throws IOException {
+      searchIndex = new ArtifactSearchIndex(artifactRepository, redisCacheClient, listenerContainer, indexDir.toString(), 1000);
+   }
+
+   @AfterEach
+   void tearDown() throws IOException {
+      searchIndex.close();
+   }
+
+   private ArtifactProjection projection(Long id, String name) {
+      return new ArtifactProjection(id, name, "description", "image", null, null, null, null, null);
+   }
+
+   @Test
+   void testRemoteChangeIsReadFromDatabase() {
+      // Given: 다른 서버에서 12301은 추가, 12302는 삭제
+      given(artifactRepository.findProjectionSlice(notNull(), any(), eq(2)))
+              .willReturn(new SliceImpl<>(List.of(projection(12301L, "invisibility cloak"))));
+      // When
+      searchIndex.onRemoteChange("other-node|12301,12302");
+      // Then
+      assertThat(searchIndex.search("cloak", null).ids()).containsExactly(12301L);
+   }
+
+   @Test
+   void testOwnChangeIsIgnored() {
+      // Given: 삭제하면 내 서버 id를 붙여서 알림
+      searchIndex.delete(12301L);
+      ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+      verify(redisCacheClient).publish(eq(ArtifactSearchIndex.CHANGE_CHANNEL), message.capture());
+      assertThat(message.getValue()).endsWith("|12301");
+      // When: 같은 메세지를 내가 받음
+      searchIndex.onRemoteChange(message.getValue());
+      // Then: DB를 다시 읽지 않음
+      verifyNoInteractions(artifactRepository);
+   }
+
+   @Test
+   void testRebuildWhenDatabaseChangedWhileStopped() throws IOException {
+      // Given: 지난번 commit 때와 DB 상태가 같으면 다시 만들지 않음
+      given(artifactRepository.findCatalogFingerprint()).willReturn(fingerprint);
+      given(artifactRepository.findProjectionSlice(isNull(), any(), anyInt()))
+              .willReturn(new SliceImpl<>(List.of(projection(12301L, "invisibility cloak"))));
+      searchIndex.rebuildIfStale();
+      searchIndex.rebuildIfStale();
+      verify(artifactRepository, times(1)).findProjectionSlice(isNull(), any(), anyInt());
+
+      // When: 다시 시작했는데 그 사이 다른 서버에서 artifact가 추가됨
+      searchIndex.close();
+      searchIndex = new ArtifactSearchIndex(artifactRepository, redisCacheClient, listenerContainer, indexDir.toString(), 1000);
+      given(artifactRepository.findCatalogFingerprint())
+              .willReturn(new CatalogFingerprint(2L, 12302L, Instant.parse("2026-10-02T10:00:00Z"), null));
+      given(artifactRepository.findProjectionSlice(isNull(), any(), anyInt()))
+              .willReturn(new SliceImpl<>(List.of(projection(12302L, "elder wand"), projection(12301L, "invisibility cloak"))));
+      searchIndex.rebuildIfStale();
+      // Then
+      assertThat(searchIndex.search("wand", null).ids()).containsExactly(12302L);
+   }
+
+   @Test
+   void testSearchAllReadsPastMaxHits() throws IOException {
+      // Given: max-hits 2, 5개가 일치
+      ArtifactSearchIndex smallIndex = new ArtifactSearchIndex(artifactRepository, redisCacheClient, listenerContainer,
+              indexDir.resolve("small").toString(), 2);
+      try {
+         given(artifactRepository.findProjectionSlice(notNull(), any(), anyInt())).willReturn(new SliceImpl<>(List.of(
+                 projection(12301L, "cloak"), projection(12302L, "cloak"), projection(12303L, "cloak"),
+                 projection(12304L, "cloak"), projection(12305L, "cloak"), projection(12306L, "wand"))));
+         smallIndex.onRemoteChange("other-node|12301,12302,12303,12304,12305,12306");
+         // When
+         ArtifactSearchIndex.Hits hits = smallIndex.search("cloak", null);
+         List<Long> all = smallIndex.searchAll("cloak", null);
+         // Then
+         assertThat(hits.truncated()).isTrue();
+         assertThat(hits.totalHits()).isEqualTo(5);
+         assertThat(all).startsWith(hits.ids().toArray(Long[]::new))
+                 .containsExactlyInAnyOrder(12301L, 12302L, 12303L, 12304L, 12305L);
+      } finally {
+         smallIndex.close();
+      }
+   }
+}
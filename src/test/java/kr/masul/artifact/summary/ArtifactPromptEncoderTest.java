@@ -0,0 +1,67 @@
+package kr.masul.artifact.summary;
+
+import kr.masul.artifact.ArtifactDto;
+import kr.masul.client.ai.chat.TokenEstimator;
+import kr.masul.wizard.WizardDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArtifactPromptEncoderTest {
+
+   ArtifactPromptEncoder promptEncoder = new ArtifactPromptEncoder(20);
+
+   @Test
+   void testEncodeDeduplicatesOwners() {
+      // Given
+      WizardDto albus = new WizardDto(1, "Albus Dumbledore", LocalDateTime.of(1881, 8, 1, 0, 0), 2);
+      WizardDto harry = new WizardDto(2, "Harry Potter", null, 1);
+      List<ArtifactDto> artifactDtos = List.of(
+              new ArtifactDto(1250808601744904191L, "Deluminator", "A lighter", "ImageUrl", LocalDateTime.now(), albus),
+              new ArtifactDto(1250808601744904192L, "Invisibility Cloak", "A cloak", null, null, harry),
+              new ArtifactDto(1250808601744904193L, "Elder Wand", "A wand", "ImageUrl", null, albus),
+              new ArtifactDto(1250808601744904194L, "Resurrection Stone", null, null, null, null));
+      // When
+      String prompt = promptEncoder.encode(artifactDtos);
+      // Then
+      assertThat(prompt).isEqualTo("""
+              owners(ref|name)
+              w1|Albus Dumbledore
+              w2|Harry Potter
+              artifacts(name|description|owner)
+              Deluminator|A lighter|w1
+              Invisibility Cloak|A cloak|w2
+              Elder Wand|A wand|w1
+              Resurrection Stone||
+              """);
+   }
+
+   @Test
+   void testEncodeTruncatesAndEscapes() {
+      // Given
+      List<ArtifactDto> artifactDtos = List.of(new ArtifactDto(1L, "a|b", "line one\nline two that is too long",
+              null, null, null));
+      // When
+      String prompt = promptEncoder.encode(artifactDtos);
+      // Then
+      assertThat(prompt).isEqualTo("""
+              artifacts(name|description|owner)
+              a/b|line one line two th…|
+              """);
+   }
+
+   @Test
+   void testEstimateTokensCoversEncodedRow() {
+      // Given
+      WizardDto albus = new WizardDto(1, "Albus Dumbledore", null, 1);
+      ArtifactDto artifactDto = new ArtifactDto(1L, "Deluminator", "A Deluminator is a device invented by Albus Dumbledore",
+              "ImageUrl", null, albus);
+      // When
+      int estimated = promptEncoder.headerTokens() + promptEncoder.estimateTokens(artifactDto);
+      // Then
+      assertThat(estimated).isGreaterThanOrEqualTo(TokenEstimator.estimate(promptEncoder.encode(List.of(artifactDto))));
+   }
+}
@@ -0,0 +1,187 @@
+package kr.masul.artifact.summary;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kr.masul.artifact.ArtifactDto;
+import kr.masul.client.ai.chat.ChatClient;
+import kr.masul.client.ai.chat.TokenEstimator;
+import kr.masul.client.ai.chat.dto.ChatRequest;
+import kr.masul.client.ai.chat.dto.ChatResponse;
+import kr.masul.client.ai.chat.dto.Choice;
+import kr.masul.client.ai.chat.dto.Message;
+import kr.masul.wizard.WizardDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ArtifactSummarizerTest {
+
+   // 표 제목(약 15 token) + artifact 2줄(줄당 약 11 token)
+   static final int CHUNK_TOKENS = 40;
+
+   @Mock
+   ChatClient chatClient;
+
+   SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+   ArtifactPromptEncoder promptEncoder = new ArtifactPromptEncoder(200);
+
+   ArtifactSummarizer artifactSummarizer;
+
+   @AfterEach
+   void tearDown() {
+      if (artifactSummarizer != null) {
+         artifactSummarizer.close();
+      }
+   }
+
+   private ChatResponse answer(String content) {
+      return new ChatResponse(List.of(new Choice(0, new Message("assistant", content))));
+   }
+
+   private List<ArtifactDto> artifacts(int count) {
+      List<ArtifactDto> artifactDtos = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+         artifactDtos.add(new ArtifactDto(4560L + i, "artifact " + i, "description of artifact " + i,
+                 "imageUrl", null, null));
+      }
+      return artifactDtos;
+   }
+
+   @Test
+   void testGenerateSuccess() {
+      // Given
+      artifactSummarizer = new ArtifactSummarizer(chatClient, promptEncoder, meterRegistry, "gpt-4", 6000, 2, 5);
+      WizardDto wizard = new WizardDto(6,"마술사",
+              LocalDateTime.of(1991, 2,4,2,2,1,333), 2);
+      List<ArtifactDto> artifactDtos = List.of(
+              new ArtifactDto(45601L, "숨기", "기술", "imageUrl",
+                      LocalDateTime.of(1991, 2,4,2,2,1,333), wizard),
+              new ArtifactDto(45602L, "size up", "bit size", "imageUrl",
+                      LocalDateTime.of(1991, 2,4,2,2,1,333), wizard)
+      );
+      String table = """
+              owners(ref|name)
+              w1|마술사
+              artifacts(name|description|owner)
+              숨기|기술|w1
+              size up|bit size|w1
+              """;
+
+      ChatRequest chatRequest = new ChatRequest("gpt-4", List.of(
+              new Message("system", "질문할 내용"),
+              new Message("user", table)
+              ));
+      given(chatClient.generate(chatRequest)).willReturn(answer("질문에 대한 답변"));
+      // When
+      String summary = artifactSummarizer.summarize(artifactDtos);
+      // Then
+      assertThat(summary).isEqualTo("질문에 대한 답변");
+      verify(chatClient, times(1)).generate(chatRequest);
+      assertThat(meterRegistry.get("artifact.summary.prompt.bytes").tag("stage", "map").summary().totalAmount())
+              .isEqualTo("질문할 내용".getBytes(StandardCharsets.UTF_8).length + table.getBytes(StandardCharsets.UTF_8).length);
+   }
+
+   @Test
+   void testSummarizeInChunks() {
+      // Given: 표 제목을 빼면 chunk당 2개씩 5 chunk
+      artifactSummarizer = new ArtifactSummarizer(chatClient, promptEncoder, meterRegistry, "gpt-4", CHUNK_TOKENS, 3, 5);
+      given(chatClient.generate(any())).willAnswer(invocation -> {
+         ChatRequest request = invocation.getArgument(0);
+         String system = request.messages().get(0).content();
+         return answer(system.equals(ArtifactSummarizer.REDUCE_PROMPT) ? "전체 요약" : "부분");
+      });
+      // When
+      String summary = artifactSummarizer.summarize(artifacts(10));
+      // Then
+      assertThat(summary).isEqualTo("전체 요약");
+      ArgumentCaptor<ChatRequest> requests = ArgumentCaptor.forClass(ChatRequest.class);
+      verify(chatClient, times(6)).generate(requests.capture());
+      List<ChatRequest> reduces = requests.getAllValues().stream()
+              .filter(r -> r.messages().get(0).content().equals(ArtifactSummarizer.REDUCE_PROMPT))
+              .toList();
+      assertThat(reduces).hasSize(1);
+      assertThat(reduces.get(0).messages().get(1).content()).isEqualTo("부분\n\n부분\n\n부분\n\n부분\n\n부분");
+      assertThat(meterRegistry.get("artifact.summary").tag("stage", "map").timer().count()).isEqualTo(1);
+      assertThat(meterRegistry.get("artifact.summary").tag("stage", "reduce").timer().count()).isEqualTo(1);
+   }
+
+   @Test
+   void testStreamReduceStep() {
+      // Given: map은 한번에 받고, 마지막 reduce만 stream
+      artifactSummarizer = new ArtifactSummarizer(chatClient, promptEncoder, meterRegistry, "gpt-4", CHUNK_TOKENS, 3, 5);
+      given(chatClient.generate(any())).willReturn(answer("부분"));
+      doAnswer(invocation -> {
+         Consumer<String> onToken = invocation.getArgument(1);
+         onToken.accept("전체 ");
+         onToken.accept("요약");
+         return null;
+      }).when(chatClient).stream(any(), any());
+      List<String> tokens = new ArrayList<>();
+      // When
+      String summary = artifactSummarizer.stream(artifacts(10), tokens::add);
+      // Then
+      assertThat(summary).isEqualTo("전체 요약");
+      assertThat(tokens).containsExactly("전체 ", "요약");
+      verify(chatClient, times(5)).generate(any());
+      ArgumentCaptor<ChatRequest> streamed = ArgumentCaptor.forClass(ChatRequest.class);
+      verify(chatClient, times(1)).stream(streamed.capture(), any());
+      assertThat(streamed.getValue().messages().get(0).content()).isEqualTo(ArtifactSummarizer.REDUCE_PROMPT);
+   }
+
+   @Test
+   void testSummarizeChunkFailure() {
+      // Given
+      artifactSummarizer = new ArtifactSummarizer(chatClient, promptEncoder, meterRegistry, "gpt-4", CHUNK_TOKENS, 3, 5);
+      given(chatClient.generate(any())).willThrow(new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS));
+      // When
+      Throwable thrown = catchThrowable(() -> artifactSummarizer.summarize(artifacts(10)));
+      // Then
+      assertThat(thrown).isInstanceOf(HttpClientErrorException.class);
+   }
+
+   @Test
+   void testReduceLongPartials() {
+      // Given: 모든 요약이 chunk-tokens의 절반(20 token)보다 긴 경우
+      artifactSummarizer = new ArtifactSummarizer(chatClient, promptEncoder, meterRegistry, "gpt-4", CHUNK_TOKENS, 3, 5);
+      given(chatClient.generate(any())).willReturn(answer("x".repeat(200)));
+      // When
+      String summary = artifactSummarizer.summarize(artifacts(10));
+      // Then: 부분 요약을 잘라서 reduce마다 수가 줄어듦(5 -> 3 -> 2 -> 1), map 5 + reduce 3 + 2 + 마지막 1
+      assertThat(summary).isEqualTo("x".repeat(200));
+      ArgumentCaptor<ChatRequest> requests = ArgumentCaptor.forClass(ChatRequest.class);
+      verify(chatClient, times(11)).generate(requests.capture());
+      requests.getAllValues().stream()
+              .filter(r -> r.messages().get(0).content().equals(ArtifactSummarizer.REDUCE_PROMPT))
+              .forEach(r -> assertThat(TokenEstimator.estimate(r.messages().get(1).content())).isLessThanOrEqualTo(CHUNK_TOKENS));
+   }
+
+   @Test
+   void testReduceRoundsExceeded() {
+      // Given
+      artifactSummarizer = new ArtifactSummarizer(chatClient, promptEncoder, meterRegistry, "gpt-4", CHUNK_TOKENS, 3, 1);
+      given(chatClient.generate(any())).willReturn(answer("x".repeat(200)));
+      // When
+      artifactSummarizer.summarize(artifacts(10));
+      // Then: map 5 + reduce 1회(3) 이후 남은 3개를 그대로 합쳐서 마지막 1
+      verify(chatClient, times(9)).generate(any());
+      assertThat(meterRegistry.get("artifact.summary.reduce.rounds-exceeded").counter().count()).isEqualTo(1);
+   }
+}
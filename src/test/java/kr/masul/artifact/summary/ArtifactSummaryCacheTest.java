@@ -0,0 +1,83 @@
+package kr.masul.artifact.summary;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kr.masul.artifact.ArtifactDto;
+import kr.masul.client.redisCache.RedisCacheClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ArtifactSummaryCacheTest {
+
+   @Mock
+   RedisCacheClient redisCacheClient;
+
+   SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+   ArtifactSummaryCache artifactSummaryCache;
+
+   CatalogFingerprint fingerprint = new CatalogFingerprint(2L, 12302L, Instant.parse("2026-10-01T10:00:00Z"), null);
+
+   @BeforeEach
+   void setUp() {
+      artifactSummaryCache = new ArtifactSummaryCache(redisCacheClient, meterRegistry, true, "gpt-4", Duration.ofHours(1));
+   }
+
+   @Test
+   void testHashIsStable() throws JsonProcessingException {
+      List<ArtifactDto> artifactDtos = List.of(new ArtifactDto(12301L, "name", "description", "image", null, null));
+      String hash = artifactSummaryCache.hash(artifactDtos);
+
+      assertThat(hash).hasSize(64).isEqualTo(artifactSummaryCache.hash(List.copyOf(artifactDtos)));
+      assertThat(hash).isNotEqualTo(artifactSummaryCache.hash(
+              List.of(new ArtifactDto(12301L, "name", "changed", "image", null, null))));
+   }
+
+   @Test
+   void testFingerprintHitFromLocalCopy() {
+      // Given
+      artifactSummaryCache.put("hash", "요약");
+      artifactSummaryCache.putFingerprint(fingerprint, "hash");
+      // When
+      String summary = artifactSummaryCache.findByFingerprint(fingerprint);
+      // Then: redis를 읽지 않음
+      assertThat(summary).isEqualTo("요약");
+      verify(redisCacheClient, never()).get(anyString());
+      assertThat(meterRegistry.get("artifact.summary.cache").tag("result", "fingerprint-hit").counter().count())
+              .isEqualTo(1);
+   }
+
+   @Test
+   void testContentHitFromRedis() {
+      // Given: 다른 서버에서 저장한 요약
+      given(redisCacheClient.get("artifact:summary:hash")).willReturn("요약");
+      // When and Then
+      assertThat(artifactSummaryCache.findByContent("hash")).isEqualTo("요약");
+      assertThat(artifactSummaryCache.findByContent("hash")).isEqualTo("요약");
+      verify(redisCacheClient, times(1)).get("artifact:summary:hash");
+   }
+
+   @Test
+   void testRedisFailureIsMiss() {
+      // Given
+      given(redisCacheClient.get(anyString())).willThrow(new RedisConnectionFailureException("down"));
+      // When and Then
+      assertThat(artifactSummaryCache.findByFingerprint(fingerprint)).isNull();
+      assertThat(artifactSummaryCache.findByContent("hash")).isNull();
+      assertThat(meterRegistry.get("artifact.summary.cache").tag("result", "miss").counter().count()).isEqualTo(1);
+   }
+}
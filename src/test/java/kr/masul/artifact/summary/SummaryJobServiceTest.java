@@ -0,0 +1,125 @@
+package kr.masul.artifact.summary;
+
+import kr.masul.artifact.ArtifactService;
+import kr.masul.client.redisCache.RedisCacheClient;
+import kr.masul.system.exception.ObjectNotFoundException;
+import kr.masul.system.exception.SummaryJobRejectedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SummaryJobServiceTest {
+
+   @Mock
+   ArtifactService artifactService;
+   @Mock
+   RedisCacheClient redisCacheClient;
+
+   SummaryJobService summaryJobService;
+
+   @BeforeEach
+   void setUp() {
+      summaryJobService = new SummaryJobService(artifactService, redisCacheClient, 1, 1,
+              Duration.ofMinutes(10), Duration.ofMinutes(1));
+   }
+
+   @AfterEach
+   void tearDown() {
+      summaryJobService.close();
+   }
+
+   private SummaryJob awaitFinished(String jobId) throws InterruptedException {
+      for (int i = 0; i < 200; i++) {
+         SummaryJob job = summaryJobService.find(jobId);
+         if (job.status().isFinished()) {
+            return job;
+         }
+         Thread.sleep(10);
+      }
+      throw new AssertionError("job not finished");
+   }
+
+   @Test
+   void testSubmitRunsInBackground() throws Exception {
+      // Given
+      given(artifactService.summarizeAll()).willReturn("요약");
+      // When
+      SummaryJob job = summaryJobService.submit();
+      // Then
+      assertThat(job.status()).isEqualTo(SummaryJob.Status.QUEUED);
+      SummaryJob finished = awaitFinished(job.id());
+      assertThat(finished.status()).isEqualTo(SummaryJob.Status.DONE);
+      assertThat(finished.result()).isEqualTo("요약");
+      verify(redisCacheClient, atLeast(3)).putHash(eq("artifact:summary:job:" + job.id()), anyMap(), anyLong(), any());
+   }
+
+   @Test
+   void testSubmitFailure() throws Exception {
+      // Given: redis 장애여도 이 서버에서는 조회 가능
+      doThrow(new RedisConnectionFailureException("down")).when(redisCacheClient).putHash(anyString(), anyMap(), anyLong(), any());
+      given(artifactService.summarizeAll()).willThrow(new IllegalStateException("openai down"));
+      // When
+      SummaryJob job = summaryJobService.submit();
+      // Then
+      SummaryJob finished = awaitFinished(job.id());
+      assertThat(finished.status()).isEqualTo(SummaryJob.Status.FAILED);
+      assertThat(finished.error()).isEqualTo("openai down");
+   }
+
+   @Test
+   void testSubmitRejectedWhenQueueFull() throws Exception {
+      // Given: worker 1개, 대기열 1개
+      CountDownLatch release = new CountDownLatch(1);
+      given(artifactService.summarizeAll()).willAnswer(invocation -> {
+         release.await(5, TimeUnit.SECONDS);
+         return "요약";
+      });
+      summaryJobService.submit();
+      Thread.sleep(50);
+      summaryJobService.submit();
+      // When
+      Throwable thrown = catchThrowable(() -> summaryJobService.submit());
+      release.countDown();
+      // Then
+      assertThat(thrown).isInstanceOf(SummaryJobRejectedException.class);
+   }
+
+   @Test
+   void testFindFromOtherNode() {
+      // Given: 다른 서버에서 저장한 작업
+      given(redisCacheClient.getHash("artifact:summary:job:other")).willReturn(Map.of(
+              "id", "other", "status", "RUNNING",
+              "createAt", "2026-10-01T10:00:00", "updateAt", "2026-10-01T10:00:01"));
+      // When
+      SummaryJob job = summaryJobService.find("other");
+      // Then
+      assertThat(job.status()).isEqualTo(SummaryJob.Status.RUNNING);
+   }
+
+   @Test
+   void testFindNotFound() {
+      // Given
+      given(redisCacheClient.getHash("artifact:summary:job:none")).willReturn(Map.of());
+      // When
+      Throwable thrown = catchThrowable(() -> summaryJobService.find("none"));
+      // Then
+      assertThat(thrown).isInstanceOf(ObjectNotFoundException.class)
+              .hasMessage("Could not find summary job with id none");
+   }
+}
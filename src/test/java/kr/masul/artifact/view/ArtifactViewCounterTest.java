@@ -0,0 +1,136 @@
+package kr.masul.artifact.view;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ArtifactViewCounterTest {
+
+   @Mock
+   JdbcTemplate jdbcTemplate;
+
+   SimpleMeterRegistry meterRegistry;
+   ArtifactViewCounter artifactViewCounter;
+
+   @BeforeEach
+   void setUp() {
+      meterRegistry = new SimpleMeterRegistry();
+      artifactViewCounter = new ArtifactViewCounter(jdbcTemplate, meterRegistry, 2, 100);
+   }
+
+   @Test
+   @SuppressWarnings("unchecked")
+   void testFlushSumsViewsPerArtifact() throws InterruptedException {
+      // Given: 여러 thread에서 같은 artifact를 조회
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      for (int i = 0; i < 1000; i++) {
+         executor.execute(() -> artifactViewCounter.increment(12301L));
+      }
+      for (int i = 0; i < 10; i++) {
+         executor.execute(() -> artifactViewCounter.increment(12302L));
+      }
+      executor.shutdown();
+      executor.awaitTermination(5, TimeUnit.SECONDS);
+      // When
+      artifactViewCounter.flush();
+      // Then
+      ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+      verify(jdbcTemplate, times(1)).batchUpdate(anyString(), rows.capture(), eq(100),
+              any(ParameterizedPreparedStatementSetter.class));
+      long views12301 = rows.getValue().stream().filter(r -> r[1].equals(12301L)).mapToLong(r -> (Long) r[0]).sum();
+      long views12302 = rows.getValue().stream().filter(r -> r[1].equals(12302L)).mapToLong(r -> (Long) r[0]).sum();
+      assertThat(views12301).isEqualTo(1000);
+      assertThat(views12302).isEqualTo(10);
+      assertThat(meterRegistry.counter("artifact.views").count()).isEqualTo(1010);
+   }
+
+   @Test
+   void testTopKeepsMostViewed() {
+      // Given: capacity 2 인데 3개 artifact 조회
+      for (int i = 0; i < 5; i++) artifactViewCounter.increment(12301L);
+      for (int i = 0; i < 3; i++) artifactViewCounter.increment(12302L);
+      artifactViewCounter.flush();
+      artifactViewCounter.increment(12303L);
+      artifactViewCounter.flush();
+      for (int i = 0; i < 10; i++) artifactViewCounter.increment(12304L);
+      // When
+      artifactViewCounter.flush();
+      List<TopArtifact> top = artifactViewCounter.top(10);
+      // Then
+      assertThat(top).hasSize(2);
+      assertThat(top.get(0).id()).isEqualTo(12304L);
+      assertThat(top.get(1).id()).isEqualTo(12301L);
+   }
+
+   @Test
+   void testTopLimitIsClamped() {
+      // Given
+      artifactViewCounter.increment(12301L);
+      artifactViewCounter.increment(12302L);
+      artifactViewCounter.flush();
+      // When and Then: 음수는 빈 목록, capacity보다 크면 capacity개
+      assertThat(artifactViewCounter.top(-1)).isEmpty();
+      assertThat(artifactViewCounter.top(0)).isEmpty();
+      assertThat(artifactViewCounter.top(Integer.MAX_VALUE)).hasSize(2);
+   }
+
+   @Test
+   @SuppressWarnings("unchecked")
+   void testFlushRetriesAfterFailure() {
+      // Given
+      given(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+              .willThrow(new DataAccessResourceFailureException("db down"))
+              .willReturn(new int[][]{});
+      artifactViewCounter.increment(12301L);
+      // When
+      artifactViewCounter.flush();
+      artifactViewCounter.flush();
+      // Then
+      ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+      verify(jdbcTemplate, times(2)).batchUpdate(anyString(), rows.capture(), anyInt(),
+              any(ParameterizedPreparedStatementSetter.class));
+      assertThat(rows.getAllValues().get(1)).hasSize(1);
+      assertThat(artifactViewCounter.top(10).get(0).views()).isEqualTo(1);
+   }
+
+   @Test
+   @SuppressWarnings("unchecked")
+   void testFlushMergesPendingViewsWhileDatabaseIsDown() {
+      // Given: 두번 실패하는 동안 같은 artifact가 계속 조회됨
+      given(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+              .willThrow(new DataAccessResourceFailureException("db down"))
+              .willThrow(new DataAccessResourceFailureException("db down"))
+              .willReturn(new int[][]{});
+      // When
+      for (int i = 0; i < 3; i++) {
+         artifactViewCounter.increment(12301L);
+         artifactViewCounter.flush();
+      }
+      artifactViewCounter.flush();
+      // Then: 실패한 조회수는 id별 한 row로 합쳐서 보내고, 반영된 뒤에는 다시 보내지 않음
+      ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+      verify(jdbcTemplate, times(3)).batchUpdate(anyString(), rows.capture(), anyInt(),
+              any(ParameterizedPreparedStatementSetter.class));
+      List<Object[]> last = rows.getAllValues().get(2);
+      assertThat(last).hasSize(1);
+      assertThat(last.get(0)).containsExactly(3L, 12301L);
+   }
+}
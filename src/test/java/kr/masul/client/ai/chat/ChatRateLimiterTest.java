@@ -0,0 +1,79 @@
+package kr.masul.client.ai.chat;
+
+import kr.masul.system.exception.ChatRateLimitException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class ChatRateLimiterTest {
+
+   private long now;
+
+   @BeforeEach
+   void setUp() {
+      now = 0;
+   }
+
+   @Test
+   void testReserveWithinLimit() {
+      // Given
+      ChatRateLimiter limiter = new ChatRateLimiter(60, 6000, Duration.ofSeconds(30), () -> now);
+      // When, Then
+      for (int i = 0; i < 60; i++) {
+         assertThat(limiter.reserve(100)).isZero();
+      }
+   }
+
+   @Test
+   void testReserveQueuesWhenRequestsExhausted() {
+      // Given: 분당 60건이면 1초에 1건씩 채워짐
+      ChatRateLimiter limiter = new ChatRateLimiter(60, 0, Duration.ofSeconds(30), () -> now);
+      for (int i = 0; i < 60; i++) {
+         limiter.reserve(1);
+      }
+      // When, Then: 먼저 예약한 순서대로 1초씩 뒤에 나감
+      assertThat(limiter.reserve(1)).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+      assertThat(limiter.reserve(1)).isEqualTo(TimeUnit.SECONDS.toNanos(2));
+      now = TimeUnit.SECONDS.toNanos(2);
+      assertThat(limiter.reserve(1)).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+   }
+
+   @Test
+   void testReserveWaitsForTokens() {
+      // Given: 분당 6000 token이면 1초에 100 token씩 채워짐
+      ChatRateLimiter limiter = new ChatRateLimiter(0, 6000, Duration.ofSeconds(30), () -> now);
+      assertThat(limiter.reserve(6000)).isZero();
+      // When
+      long wait = limiter.reserve(500);
+      // Then
+      assertThat(wait).isEqualTo(TimeUnit.SECONDS.toNanos(5));
+   }
+
+   @Test
+   void testReserveRejectsOverMaxWait() {
+      // Given
+      ChatRateLimiter limiter = new ChatRateLimiter(0, 6000, Duration.ofSeconds(3), () -> now);
+      limiter.reserve(6000);
+      // When
+      Throwable thrown = catchThrowable(() -> limiter.reserve(500));
+      // Then: 예약하지 않았으므로 조금 뒤 작은 요청은 통과
+      assertThat(thrown).isInstanceOf(ChatRateLimitException.class);
+      now = TimeUnit.SECONDS.toNanos(1);
+      assertThat(limiter.reserve(100)).isZero();
+   }
+
+   @Test
+   void testPauseDelaysAllRequests() {
+      // Given
+      ChatRateLimiter limiter = new ChatRateLimiter(0, 0, Duration.ofSeconds(30), () -> now);
+      // When
+      limiter.pause(Duration.ofSeconds(2));
+      // Then
+      assertThat(limiter.reserve(1)).isEqualTo(TimeUnit.SECONDS.toNanos(2));
+   }
+}
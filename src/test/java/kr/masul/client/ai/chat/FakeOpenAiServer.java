@@ -0,0 +1,193 @@
+package kr.masul.client.ai.chat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import kr.masul.client.ai.chat.dto.ChatResponse;
+import kr.masul.client.ai.chat.dto.ChatStreamResponse;
+import kr.masul.client.ai.chat.dto.Choice;
+import kr.masul.client.ai.chat.dto.Message;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 테스트용 OpenAI 호환 서버(POST /v1/chat/completions), 외부 연결 없이 요약 경로를 부하 시험할 때 사용
+ * - 응답 지연: median, p99로 정한 log-normal 분포
+ * - errorRate 비율로 errorStatus 응답(429면 retry-after-ms도 보냄)
+ * - 요청의 stream이 true이면 answer를 단어 단위 SSE로 tokenInterval마다 나누어 보냄
+ */
+public class FakeOpenAiServer implements AutoCloseable {
+
+   public static final String PATH = "/v1/chat/completions";
+   // 표준정규분포의 99 percentile
+   private static final double Z_99 = 2.326;
+
+   private final HttpServer server;
+   private final ExecutorService executor;
+   private final ObjectMapper objectMapper = new ObjectMapper();
+   private final AtomicLong requestCount = new AtomicLong();
+
+   private volatile Duration medianLatency = Duration.ZERO;
+   private volatile Duration p99Latency = Duration.ZERO;
+   private volatile double errorRate;
+   private volatile int errorStatus = 500;
+   private volatile Duration tokenInterval = Duration.ZERO;
+   private volatile String answer = "artifact 목록 요약 결과";
+
+   private FakeOpenAiServer() throws IOException {
+      this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+      this.executor = Executors.newCachedThreadPool();
+      this.server.setExecutor(executor);
+      this.server.createContext(PATH, this::handle);
+   }
+
+   public static FakeOpenAiServer start() {
+      try {
+         FakeOpenAiServer fakeServer = new FakeOpenAiServer();
+         fakeServer.server.start();
+         return fakeServer;
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+
+   public FakeOpenAiServer latency(Duration median, Duration p99) {
+      this.medianLatency = median;
+      this.p99Latency = p99.compareTo(median) < 0 ? median : p99;
+      return this;
+   }
+
+   public FakeOpenAiServer errorRate(double rate, int status) {
+      this.errorRate = rate;
+      this.errorStatus = status;
+      return this;
+   }
+
+   public FakeOpenAiServer tokenInterval(Duration interval) {
+      this.tokenInterval = interval;
+      return this;
+   }
+
+   public FakeOpenAiServer answer(String answer) {
+      this.answer = answer;
+      return this;
+   }
+
+   public String endpoint() {
+      return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + PATH;
+   }
+
+   public long requestCount() {
+      return requestCount.get();
+   }
+
+   @Override
+   public void close() {
+      server.stop(0);
+      executor.shutdownNow();
+   }
+
+   private void handle(HttpExchange exchange) throws IOException {
+      try (exchange) {
+         if (!"POST".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(405, -1);
+            return;
+         }
+         JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+         requestCount.incrementAndGet();
+         sleep(sampleLatency());
+         if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+            sendError(exchange);
+         } else if (request.path("stream").asBoolean(false)) {
+            sendStream(exchange);
+         } else {
+            ChatResponse chatResponse = new ChatResponse(List.of(new Choice(0, new Message("assistant", answer))));
+            sendJson(exchange, 200, objectMapper.writeValueAsBytes(chatResponse));
+         }
+      }
+   }
+
+   private void sendError(HttpExchange exchange) throws IOException {
+      if (errorStatus == 429) {
+         exchange.getResponseHeaders().add("retry-after-ms", "10");
+      }
+      Map<String, Object> error = Map.of("error", Map.of("message", "fake openai error", "type", "fake_error"));
+      sendJson(exchange, errorStatus, objectMapper.writeValueAsBytes(error));
+   }
+
+   private void sendJson(HttpExchange exchange, int status, byte[] body) throws IOException {
+      exchange.getResponseHeaders().add("Content-Type", "application/json");
+      exchange.sendResponseHeaders(status, body.length);
+      exchange.getResponseBody().write(body);
+   }
+
+   private void sendStream(HttpExchange exchange) throws IOException {
+      exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+      exchange.sendResponseHeaders(200, 0);
+      OutputStream body = exchange.getResponseBody();
+      for (String token : tokens(answer)) {
+         ChatStreamResponse chunk = new ChatStreamResponse(List.of(
+                 new ChatStreamResponse.StreamChoice(0, new Message("assistant", token))));
+         writeEvent(body, objectMapper.writeValueAsString(chunk));
+         sleep(tokenInterval.toNanos());
+      }
+      writeEvent(body, "[DONE]");
+   }
+
+   private void writeEvent(OutputStream body, String data) throws IOException {
+      body.write(("data: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+      body.flush();
+   }
+
+   // 공백을 앞 단어에 붙여서 나눔(다시 합치면 원문)
+   private List<String> tokens(String text) {
+      List<String> tokens = new ArrayList<>();
+      int start = 0;
+      for (int i = 0; i < text.length(); i++) {
+         if (text.charAt(i) == ' ') {
+            tokens.add(text.substring(start, i + 1));
+            start = i + 1;
+         }
+      }
+      if (start < text.length()) {
+         tokens.add(text.substring(start));
+      }
+      return tokens;
+   }
+
+   // median * exp(sigma * z), sigma는 p99가 맞도록 계산
+   private long sampleLatency() {
+      long median = medianLatency.toNanos();
+      if (median <= 0) {
+         return 0;
+      }
+      double sigma = Math.log((double) p99Latency.toNanos() / median) / Z_99;
+      return (long) (median * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+   }
+
+   private void sleep(long nanos) {
+      if (nanos <= 0) {
+         return;
+      }
+      try {
+         TimeUnit.NANOSECONDS.sleep(nanos);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+   }
+}
@@ -0,0 +1,72 @@
+package kr.masul.client.ai.chat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kr.masul.client.ai.chat.dto.ChatRequest;
+import kr.masul.client.ai.chat.dto.ChatResponse;
+import kr.masul.client.ai.chat.dto.Message;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+// 실제 http 연결(JDK HttpClient)로 OpenAiChatClient와 FakeOpenAiServer를 같이 확인
+class FakeOpenAiServerTest {
+
+   private FakeOpenAiServer fakeServer;
+   private OpenAiChatClient openAiChatClient;
+   private ChatRequest chatRequest;
+
+   @BeforeEach
+   void setUp() {
+      fakeServer = FakeOpenAiServer.start();
+      openAiChatClient = new OpenAiChatClient(fakeServer.endpoint(), "test-key",
+              new RestClientBuilderConfiguration().restClientBuilder(Duration.ofSeconds(1), Duration.ofSeconds(5)),
+              new ObjectMapper(), 0, 0, Duration.ofSeconds(30), 1, Duration.ZERO);
+      chatRequest = new ChatRequest("gpt-4", List.of(
+              new Message("system", "답변을 위한 질문"),
+              new Message("user", "답변을 위한 기초 자료들 ")));
+   }
+
+   @AfterEach
+   void tearDown() {
+      fakeServer.close();
+   }
+
+   @Test
+   void testGenerate() {
+      // Given
+      fakeServer.latency(Duration.ofMillis(5), Duration.ofMillis(20)).answer("ai 답변 내용");
+      // When
+      ChatResponse chatResponse = openAiChatClient.generate(chatRequest);
+      // Then
+      assertThat(chatResponse.choices().get(0).message().content()).isEqualTo("ai 답변 내용");
+      assertThat(fakeServer.requestCount()).isEqualTo(1);
+   }
+
+   @Test
+   void testStream() {
+      // Given
+      fakeServer.answer("여러 단어로 나누어 보내는 답변").tokenInterval(Duration.ofMillis(1));
+      StringBuilder summary = new StringBuilder();
+      // When
+      openAiChatClient.stream(chatRequest, summary::append);
+      // Then
+      assertThat(summary.toString()).isEqualTo("여러 단어로 나누어 보내는 답변");
+   }
+
+   @Test
+   void testErrorRate() {
+      // Given
+      fakeServer.errorRate(1.0, 503);
+      // When
+      Throwable thrown = catchThrowable(() -> openAiChatClient.generate(chatRequest));
+      // Then
+      assertThat(thrown).isInstanceOf(HttpServerErrorException.ServiceUnavailable.class);
+   }
+}
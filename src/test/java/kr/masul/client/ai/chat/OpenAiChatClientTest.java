@@ -10,13 +10,21 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.client.RestClientTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
 import org.springframework.test.web.client.MockRestServiceServer;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.catchThrowable;
@@ -110,10 +118,10 @@ class OpenAiChatClientTest {
 
    @Test
    void testGenerateToManyRequest() throws JsonProcessingException {
-      //Given
-      mockServer.expect(requestTo(url))
+      //Given: retry.max-attempts(3)번 모두 429
+      mockServer.expect(ExpectedCount.times(3), requestTo(url))
               .andExpect(method(HttpMethod.POST))
-              .andRespond(withTooManyRequests());
+              .andRespond(withTooManyRequests().header(HttpHeaders.RETRY_AFTER, "0"));
       // When
       Throwable thrown = catchThrowable(() -> {
          ChatResponse generatedChatResponse = openAiChatClient.generate(this.chatRequest);
@@ -122,4 +130,100 @@ class OpenAiChatClientTest {
       mockServer.verify();
       assertThat(thrown).isInstanceOf(HttpClientErrorException.TooManyRequests.class);
    }
-}
\ No newline at end of file
+
+   @Test
+   void testGenerateRetryAfterTooManyRequest() throws JsonProcessingException {
+      // Given
+      ChatResponse chatResponse = new ChatResponse(List.of(
+              new Choice(0, new Message("assistant", "ai 답변 내용"))));
+      mockServer.expect(requestTo(url))
+              .andExpect(method(HttpMethod.POST))
+              .andRespond(withTooManyRequests().header("retry-after-ms", "10"));
+      mockServer.expect(requestTo(url))
+              .andExpect(method(HttpMethod.POST))
+              .andRespond(withSuccess(objectMapper.writeValueAsString(chatResponse), MediaType.APPLICATION_JSON));
+      // When
+      ChatResponse generatedChatResponse = openAiChatClient.generate(this.chatRequest);
+      // Then
+      mockServer.verify();
+      assertThat(generatedChatResponse.choices().get(0).message().content()).isEqualTo("ai 답변 내용");
+   }
+
+   @Test
+   void testGenerateCoalescesIdenticalRequests() throws Exception {
+      // Given: 첫 요청의 응답을 붙잡아 둔 사이에 같은 요청이 들어옴
+      ChatResponse chatResponse = new ChatResponse(List.of(
+              new Choice(0, new Message("assistant", "ai 답변 내용"))));
+      String json = objectMapper.writeValueAsString(chatResponse);
+      CountDownLatch requested = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      mockServer.expect(ExpectedCount.once(), requestTo(url))
+              .andExpect(method(HttpMethod.POST))
+              .andRespond(request -> {
+                 requested.countDown();
+                 try {
+                    release.await(5, TimeUnit.SECONDS);
+                 } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                 }
+                 return withSuccess(json, MediaType.APPLICATION_JSON).createResponse(request);
+              });
+      ExecutorService executor = Executors.newFixedThreadPool(2);
+      try {
+         Future<ChatResponse> first = executor.submit(() -> openAiChatClient.generate(this.chatRequest));
+         assertThat(requested.await(5, TimeUnit.SECONDS)).isTrue();
+         Future<ChatResponse> second = executor.submit(() -> openAiChatClient.generate(
+                 new ChatRequest("gpt-4", List.copyOf(this.chatRequest.messages()))));
+         // When: 두번째 요청이 첫 요청을 기다리기 시작한 뒤 응답
+         Thread.sleep(100);
+         release.countDown();
+         // Then
+         assertThat(first.get(5, TimeUnit.SECONDS).choices().get(0).message().content()).isEqualTo("ai 답변 내용");
+         assertThat(second.get(5, TimeUnit.SECONDS).choices().get(0).message().content()).isEqualTo("ai 답변 내용");
+         mockServer.verify();
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   @Test
+   void testStreamSuccess() {
+      // Given
+      String body = """
+              data: {"choices":[{"index":0,"delta":{"role":"assistant","content":""}}]}
+
+              data: {"choices":[{"index":0,"delta":{"content":"ai "}}]}
+
+              data: {"choices":[{"index":0,"delta":{"content":"답변"}}]}
+
+              data: {"choices":[{"index":0,"delta":{},"finish_reason":"stop"}]}
+
+              data: [DONE]
+
+              """;
+      mockServer.expect(requestTo(url))
+              .andExpect(method(HttpMethod.POST))
+              .andExpect(jsonPath("$.stream").value(true))
+              .andExpect(jsonPath("$.model").value("gpt-4"))
+              .andRespond(withSuccess(body, MediaType.TEXT_EVENT_STREAM));
+      List<String> tokens = new ArrayList<>();
+      // When
+      openAiChatClient.stream(this.chatRequest, tokens::add);
+      // Then
+      mockServer.verify();
+      assertThat(tokens).isEqualTo(List.of("", "ai ", "답변"));
+   }
+
+   @Test
+   void testStreamToManyRequest() {
+      //Given
+      mockServer.expect(ExpectedCount.times(3), requestTo(url))
+              .andExpect(method(HttpMethod.POST))
+              .andRespond(withTooManyRequests().header(HttpHeaders.RETRY_AFTER, "0"));
+      // When
+      Throwable thrown = catchThrowable(() -> openAiChatClient.stream(this.chatRequest, token -> {}));
+      // Then
+      mockServer.verify();
+      assertThat(thrown).isInstanceOf(HttpClientErrorException.TooManyRequests.class);
+   }
+}
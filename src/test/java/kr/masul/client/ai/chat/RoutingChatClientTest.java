@@ -0,0 +1,219 @@
+package kr.masul.client.ai.chat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kr.masul.client.ai.chat.ChatRoutingProperties.Route;
+import kr.masul.client.ai.chat.dto.ChatRequest;
+import kr.masul.client.ai.chat.dto.ChatResponse;
+import kr.masul.client.ai.chat.dto.Choice;
+import kr.masul.client.ai.chat.dto.Message;
+import kr.masul.system.exception.ChatRateLimitException;
+import kr.masul.system.exception.ChatTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class RoutingChatClientTest {
+
+   @Mock
+   OpenAiChatClient openAiChatClient;
+
+   SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+   RoutingChatClient routingChatClient;
+
+   @AfterEach
+   void tearDown() {
+      if (routingChatClient != null) {
+         routingChatClient.close();
+      }
+   }
+
+   private RoutingChatClient router(Duration latencySlo, Duration smallTimeout) {
+      return router(latencySlo, smallTimeout, Duration.ofMinutes(1));
+   }
+
+   private RoutingChatClient router(Duration latencySlo, Duration smallTimeout, Duration probeInterval) {
+      return new RoutingChatClient(openAiChatClient, meterRegistry, new ChatRoutingProperties(latencySlo, 0.5, probeInterval, 4,
+              List.of(new Route("small", 100, smallTimeout),
+                      new Route("large", 10000, Duration.ofSeconds(5)))));
+   }
+
+   private ChatRequest request(int chars) {
+      return new ChatRequest("gpt-4", List.of(
+              new Message("system", "질문할 내용"),
+              new Message("user", "a".repeat(chars))));
+   }
+
+   private ChatResponse answer(String content) {
+      return new ChatResponse(List.of(new Choice(0, new Message("assistant", content))));
+   }
+
+   @Test
+   void testSmallInputUsesFirstModel() {
+      // Given
+      routingChatClient = router(Duration.ZERO, Duration.ofSeconds(5));
+      given(openAiChatClient.generate(any())).willReturn(answer("요약"));
+      // When
+      routingChatClient.generate(request(100));
+      // Then
+      ArgumentCaptor<ChatRequest> sent = ArgumentCaptor.forClass(ChatRequest.class);
+      verify(openAiChatClient).generate(sent.capture());
+      assertThat(sent.getValue().model()).isEqualTo("small");
+      assertThat(meterRegistry.get("ai.chat.latency").tag("model", "small").tag("outcome", "success").timer().count())
+              .isEqualTo(1);
+   }
+
+   @Test
+   void testLargeInputUsesLargerModel() {
+      // Given: 약 250 token
+      routingChatClient = router(Duration.ZERO, Duration.ofSeconds(5));
+      given(openAiChatClient.generate(any())).willReturn(answer("요약"));
+      // When
+      routingChatClient.generate(request(1000));
+      // Then
+      verify(openAiChatClient).generate(argThat(r -> r.model().equals("large")));
+   }
+
+   @Test
+   void testTimeoutFallsBackToNextModel() {
+      // Given
+      routingChatClient = router(Duration.ZERO, Duration.ofMillis(50));
+      given(openAiChatClient.generate(argThat(r -> r != null && r.model().equals("small")))).willAnswer(invocation -> {
+         Thread.sleep(2000);
+         return answer("늦은 요약");
+      });
+      given(openAiChatClient.generate(argThat(r -> r != null && r.model().equals("large")))).willReturn(answer("요약"));
+      // When
+      ChatResponse chatResponse = routingChatClient.generate(request(100));
+      // Then
+      assertThat(chatResponse.choices().get(0).message().content()).isEqualTo("요약");
+      assertThat(meterRegistry.get("ai.chat.latency").tag("model", "small").tag("outcome", "timeout").timer().count())
+              .isEqualTo(1);
+   }
+
+   @Test
+   void testLastModelTimeout() {
+      // Given: large만 후보인데 응답이 없음
+      routingChatClient = new RoutingChatClient(openAiChatClient, meterRegistry, new ChatRoutingProperties(Duration.ZERO, null, null, null,
+              List.of(new Route("large", 10000, Duration.ofMillis(50)))));
+      given(openAiChatClient.generate(any())).willAnswer(invocation -> {
+         Thread.sleep(2000);
+         return answer("늦은 요약");
+      });
+      // When
+      Throwable thrown = catchThrowable(() -> routingChatClient.generate(request(100)));
+      // Then
+      assertThat(thrown).isInstanceOf(ChatTimeoutException.class);
+   }
+
+   @Test
+   void testSlowModelIsSkippedBySlo() {
+      // Given: small이 latency-slo보다 느렸음
+      routingChatClient = router(Duration.ofMillis(20), Duration.ofSeconds(5));
+      given(openAiChatClient.generate(argThat(r -> r != null && r.model().equals("small")))).willAnswer(invocation -> {
+         Thread.sleep(100);
+         return answer("느린 요약");
+      });
+      given(openAiChatClient.generate(argThat(r -> r != null && r.model().equals("large")))).willReturn(answer("요약"));
+      routingChatClient.generate(request(100));
+      // When
+      ChatResponse chatResponse = routingChatClient.generate(request(100));
+      // Then
+      assertThat(chatResponse.choices().get(0).message().content()).isEqualTo("요약");
+      verify(openAiChatClient, times(1)).generate(argThat(r -> r != null && r.model().equals("small")));
+   }
+
+   @Test
+   void testEmptyLadderKeepsRequestedModel() {
+      // Given
+      routingChatClient = new RoutingChatClient(openAiChatClient, meterRegistry, new ChatRoutingProperties(null, null, null, null, null));
+      ChatRequest chatRequest = request(100);
+      given(openAiChatClient.generate(chatRequest)).willReturn(answer("요약"));
+      // When
+      routingChatClient.generate(chatRequest);
+      // Then
+      verify(openAiChatClient).generate(chatRequest);
+   }
+
+   @Test
+   void testSlowModelIsProbedAgain() throws InterruptedException {
+      // Given: small이 한번 느렸지만 그 뒤로는 빨라짐
+      routingChatClient = router(Duration.ofMillis(20), Duration.ofSeconds(5), Duration.ofMillis(500));
+      AtomicInteger smallCalls = new AtomicInteger();
+      given(openAiChatClient.generate(argThat(r -> r != null && r.model().equals("small")))).willAnswer(invocation -> {
+         if (smallCalls.getAndIncrement() == 0) {
+            Thread.sleep(100);
+         }
+         return answer("small 요약");
+      });
+      routingChatClient.generate(request(100));
+      assertThat(routingChatClient.candidates(request(100))).extracting(Route::model).containsExactly("large");
+      // When: probe-interval이 지나면 small에 다시 보냄
+      Thread.sleep(600);
+      ChatResponse chatResponse = routingChatClient.generate(request(100));
+      // Then
+      assertThat(chatResponse.choices().get(0).message().content()).isEqualTo("small 요약");
+      verify(openAiChatClient, times(2)).generate(argThat(r -> r != null && r.model().equals("small")));
+   }
+
+   @Test
+   void testRepeatedTimeoutsSkipModelWithoutLatency() {
+      // Given: small이 계속 timeout, 한번은 건너뛰지 않고 비율이 max-timeout-rate(0.5)를 넘으면 건너뜀
+      routingChatClient = router(Duration.ZERO, Duration.ofMillis(20));
+      given(openAiChatClient.generate(argThat(r -> r != null && r.model().equals("small")))).willAnswer(invocation -> {
+         Thread.sleep(2000);
+         return answer("늦은 요약");
+      });
+      given(openAiChatClient.generate(argThat(r -> r != null && r.model().equals("large")))).willReturn(answer("요약"));
+      routingChatClient.generate(request(100));
+      assertThat(routingChatClient.candidates(request(100))).extracting(Route::model).containsExactly("small", "large");
+      for (int i = 0; i < 3; i++) {
+         routingChatClient.generate(request(100));
+      }
+      // When and Then
+      assertThat(routingChatClient.candidates(request(100))).extracting(Route::model).containsExactly("large");
+   }
+
+   @Test
+   void testBoundedThreads() throws InterruptedException {
+      // Given: thread 1개를 다른 요청이 사용중
+      routingChatClient = new RoutingChatClient(openAiChatClient, meterRegistry, new ChatRoutingProperties(Duration.ZERO, null, null, 1,
+              List.of(new Route("large", 10000, Duration.ofSeconds(5)))));
+      CountDownLatch started = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      given(openAiChatClient.generate(any())).willAnswer(invocation -> {
+         started.countDown();
+         release.await();
+         return answer("요약");
+      });
+      ExecutorService caller = Executors.newSingleThreadExecutor();
+      caller.submit(() -> routingChatClient.generate(request(100)));
+      started.await(5, TimeUnit.SECONDS);
+      // When
+      Throwable thrown = catchThrowable(() -> routingChatClient.generate(request(100)));
+      // Then
+      assertThat(thrown).isInstanceOf(ChatRateLimitException.class);
+      release.countDown();
+      caller.shutdown();
+   }
+}
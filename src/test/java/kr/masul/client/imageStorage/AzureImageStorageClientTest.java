@@ -0,0 +1,100 @@
+package kr.masul.client.imageStorage;
+
+import com.azure.storage.blob.BlobClient;
+import com.azure.storage.blob.BlobContainerClient;
+import com.azure.storage.blob.BlobServiceClient;
+import com.azure.storage.blob.options.BlobParallelUploadOptions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kr.masul.system.exception.ImageTooLargeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AzureImageStorageClientTest {
+
+   @Mock
+   BlobServiceClient blobServiceClient;
+   @Mock
+   BlobContainerClient blobContainerClient;
+   @Mock
+   BlobClient blobClient;
+
+   SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+   AzureImageStorageClient imageStorageClient;
+
+   @BeforeEach
+   void setUp() {
+      imageStorageClient = new AzureImageStorageClient(blobServiceClient, meterRegistry,
+              DataSize.ofBytes(10), DataSize.ofBytes(4), DataSize.ofBytes(4), 2, 1);
+   }
+
+   @Test
+   void testUploadStreamsInBlocks() throws IOException {
+      // Given
+      given(blobServiceClient.getBlobContainerClient("images")).willReturn(blobContainerClient);
+      given(blobContainerClient.getBlobClient(endsWith(".png"))).willReturn(blobClient);
+      given(blobClient.uploadWithResponse(any(BlobParallelUploadOptions.class), any(), any())).willAnswer(invocation -> {
+         invocation.getArgument(0, BlobParallelUploadOptions.class).getDataStream().readAllBytes();
+         return null;
+      });
+      given(blobClient.getBlobUrl()).willReturn("https://blob/images/a.png");
+      // When
+      String url = imageStorageClient.uploadImage("images", "a.png", new ByteArrayInputStream(new byte[8]), -1, "image/png");
+      // Then
+      assertThat(url).isEqualTo("https://blob/images/a.png");
+      ArgumentCaptor<BlobParallelUploadOptions> options = ArgumentCaptor.forClass(BlobParallelUploadOptions.class);
+      verify(blobClient).uploadWithResponse(options.capture(), any(), any());
+      assertThat(options.getValue().getParallelTransferOptions().getBlockSizeLong()).isEqualTo(4);
+      assertThat(options.getValue().getParallelTransferOptions().getMaxConcurrency()).isEqualTo(2);
+      assertThat(options.getValue().getHeaders().getContentType()).isEqualTo("image/png");
+      assertThat(meterRegistry.get("image.upload.size").summary().totalAmount()).isEqualTo(8);
+      assertThat(meterRegistry.get("image.upload").tag("result", "success").timer().count()).isEqualTo(1);
+   }
+
+   @Test
+   void testRejectDeclaredLengthOverLimit() {
+      // When
+      Throwable thrown = catchThrowable(() ->
+              imageStorageClient.uploadImage("images", "a.png", new ByteArrayInputStream(new byte[11]), 11, "image/png"));
+      // Then: 저장소에 연결하지 않음
+      assertThat(thrown).isInstanceOf(ImageTooLargeException.class).hasMessage("Image is larger than 10 bytes");
+      verifyNoInteractions(blobServiceClient);
+   }
+
+   @Test
+   void testRejectStreamOverLimit() {
+      // Given: 길이를 모르는 body, sdk가 읽다가 던진 예외를 감싸서 던짐
+      given(blobServiceClient.getBlobContainerClient("images")).willReturn(blobContainerClient);
+      given(blobContainerClient.getBlobClient(anyString())).willReturn(blobClient);
+      given(blobClient.uploadWithResponse(any(BlobParallelUploadOptions.class), any(), any())).willAnswer(invocation -> {
+         try {
+            invocation.getArgument(0, BlobParallelUploadOptions.class).getDataStream().readAllBytes();
+         } catch (RuntimeException e) {
+            throw new UncheckedIOException(new IOException(e));
+         }
+         return null;
+      });
+      // When
+      Throwable thrown = catchThrowable(() ->
+              imageStorageClient.uploadImage("images", "a.png", new ByteArrayInputStream(new byte[20]), -1, "image/png"));
+      // Then
+      assertThat(thrown).isInstanceOf(ImageTooLargeException.class);
+      assertThat(meterRegistry.get("image.upload").tag("result", "failure").timer().count()).isEqualTo(1);
+   }
+}
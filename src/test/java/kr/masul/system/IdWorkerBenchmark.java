@@ -0,0 +1,43 @@
+package kr.masul.system;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IdWorker(CAS)와 예전 SynchronizedIdWorker의 초당 발급 수 비교
+ * IdWorkerBenchmarkTest에서 thread 수를 바꾸어 실행(./mvnw test -Pbenchmark)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class IdWorkerBenchmark {
+
+   private final IdWorker idWorker = new IdWorker(1, 1);
+   private final SynchronizedIdWorker synchronizedIdWorker = new SynchronizedIdWorker(1, 1);
+
+   @Benchmark
+   public long casNextId() {
+      return idWorker.nextId();
+   }
+
+   @Benchmark
+   public long synchronizedNextId() {
+      return synchronizedIdWorker.nextId();
+   }
+
+   @Benchmark
+   public long[] casNextIds100() {
+      return idWorker.nextIds(100);
+   }
+
+   @Benchmark
+   public long[] synchronizedNextIds100() {
+      return synchronizedIdWorker.nextIds(100);
+   }
+}
@@ -0,0 +1,42 @@
+package kr.masul.system;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * IdWorkerBenchmark(JMH) 실행, 기본 빌드에서는 제외되고 ./mvnw test -Pbenchmark 로 실행
+ * -Dbenchmark.threads=1,4,16
+ */
+@Tag("benchmark")
+class IdWorkerBenchmarkTest {
+
+   @Test
+   void compareThroughput() throws Exception {
+      int[] threads = Arrays.stream(System.getProperty("benchmark.threads", "1,4,16").split(","))
+              .mapToInt(t -> Integer.parseInt(t.trim()))
+              .toArray();
+      for (int thread : threads) {
+         Options options = new OptionsBuilder()
+                 .include(IdWorkerBenchmark.class.getSimpleName())
+                 .threads(thread)
+                 .forks(1)
+                 .warmupIterations(2)
+                 .warmupTime(TimeValue.seconds(1))
+                 .measurementIterations(3)
+                 .measurementTime(TimeValue.seconds(1))
+                 .build();
+         Collection<RunResult> results = new Runner(options).run();
+         assertThat(results).isNotEmpty();
+      }
+   }
+}
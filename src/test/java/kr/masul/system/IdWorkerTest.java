@@ -0,0 +1,148 @@
+package kr.masul.system;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class IdWorkerTest {
+
+   // twepoch 이후의 고정된 시각
+   private static final long NOW = 1_700_000_000_000L;
+
+   @Test
+   void testNextIdUniqueAcrossThreads() throws Exception {
+      // Given
+      IdWorker idWorker = new IdWorker(1, 1);
+      ExecutorService executor = Executors.newFixedThreadPool(8);
+      Callable<long[]> task = () -> {
+         long[] ids = new long[20000];
+         for (int i = 0; i < ids.length; i++) {
+            ids[i] = idWorker.nextId();
+         }
+         return ids;
+      };
+      // When
+      List<Future<long[]>> futures = executor.invokeAll(IntStream.range(0, 8).mapToObj(i -> task).toList());
+      executor.shutdown();
+      // Then: thread 안에서는 증가하고 전체에서 중복이 없음
+      Set<Long> all = new HashSet<>();
+      for (Future<long[]> future : futures) {
+         long[] ids = future.get();
+         for (int i = 0; i < ids.length; i++) {
+            assertThat(all.add(ids[i])).isTrue();
+            if (i > 0) {
+               assertThat(ids[i]).isGreaterThan(ids[i - 1]);
+            }
+         }
+      }
+      assertThat(all).hasSize(8 * 20000);
+   }
+
+   @Test
+   void testNextIdsReservesOrderedBlock() {
+      // Given: 같은 ms에 sequence(4096)를 넘는 block
+      AtomicLong clock = new AtomicLong(NOW);
+      IdWorker idWorker = new IdWorker(1, 1, 1000, 5000, clock::get);
+      // When
+      long[] ids = idWorker.nextIds(5000);
+      long next = idWorker.nextId();
+      // Then
+      for (int i = 1; i < ids.length; i++) {
+         assertThat(ids[i]).isGreaterThan(ids[i - 1]);
+      }
+      assertThat(next).isGreaterThan(ids[ids.length - 1]);
+   }
+
+   @Test
+   void testNextIdsLargerThanBorrowWindowIsReservedInPieces() {
+      // Given: 한번에 빌려 쓸 수 있는 id는 (1 + 1) * 4096개, 시계는 읽을 때마다 1ms씩 진행
+      AtomicLong clock = new AtomicLong(NOW);
+      IdWorker idWorker = new IdWorker(1, 1, 1, 5000, clock::getAndIncrement);
+      // When
+      long[] ids = idWorker.nextIds(20000);
+      // Then: 끝없이 기다리거나 시계 애러 없이 증가하는 id
+      assertThat(ids).hasSize(20000);
+      for (int i = 1; i < ids.length; i++) {
+         assertThat(ids[i]).isGreaterThan(ids[i - 1]);
+      }
+      assertThat(catchThrowable(() -> idWorker.nextIds(0))).isInstanceOf(IllegalArgumentException.class);
+   }
+
+   @Test
+   void testSmallClockRegressionBorrowsFromFuture() {
+      // Given
+      AtomicLong clock = new AtomicLong(NOW);
+      IdWorker idWorker = new IdWorker(1, 1, 1000, 5000, clock::get);
+      long before = idWorker.nextId();
+      // When: 시계가 500ms 뒤로 감
+      clock.set(NOW - 500);
+      long after = idWorker.nextId();
+      // Then: 애러 없이 계속 증가
+      assertThat(after).isGreaterThan(before);
+   }
+
+   @Test
+   void testLargeClockRegressionFails() {
+      // Given
+      AtomicLong clock = new AtomicLong(NOW);
+      IdWorker idWorker = new IdWorker(1, 1, 1000, 5000, clock::get);
+      idWorker.nextId();
+      // When: 빌릴 수 있는 1초 + 기다릴 수 있는 5초보다 많이 뒤로 감
+      clock.set(NOW - 60_000);
+      Throwable thrown = catchThrowable(idWorker::nextId);
+      // Then
+      assertThat(thrown).isInstanceOf(IllegalStateException.class);
+   }
+
+   @Test
+   void testInstancesDoNotShareState() {
+      // Given: 예전에는 lastTimestamp가 static이라 다른 instance의 시계에 영향을 받음
+      AtomicLong clock = new AtomicLong(NOW);
+      IdWorker late = new IdWorker(1, 1, 0, 0, () -> NOW + 60_000);
+      IdWorker idWorker = new IdWorker(2, 1, 0, 0, clock::get);
+      late.nextId();
+      // When
+      Throwable thrown = catchThrowable(idWorker::nextId);
+      // Then
+      assertThat(thrown).isNull();
+   }
+
+   @Test
+   void testTimestampOfDecodesIssueTime() {
+      // Given
+      IdWorker idWorker = new IdWorker(31, 31, 1000, 0, () -> NOW);
+      // When
+      long[] ids = idWorker.nextIds(3);
+      // Then
+      assertThat(IdWorker.timestampOf(ids[0])).isEqualTo(NOW);
+      assertThat(IdWorker.timestampOf(ids[2])).isEqualTo(NOW);
+   }
+
+   @Test
+   void testMinIdAtBoundsIdsOfThatMillisecond() {
+      // Given: 같은 ms에 발급된 id, 1ms 뒤에 발급된 id
+      AtomicLong clock = new AtomicLong(NOW);
+      IdWorker idWorker = new IdWorker(31, 31, 0, 0, clock::get);
+      long first = idWorker.nextId();
+      long[] sameMillis = idWorker.nextIds(100);
+      clock.set(NOW + 1);
+      long next = idWorker.nextId();
+      // When and then: [minIdAt(NOW), minIdAt(NOW + 1)) 범위에 NOW에 발급된 id만 들어감
+      assertThat(first).isGreaterThanOrEqualTo(IdWorker.minIdAt(NOW));
+      assertThat(sameMillis[99]).isLessThan(IdWorker.minIdAt(NOW + 1));
+      assertThat(next).isGreaterThanOrEqualTo(IdWorker.minIdAt(NOW + 1));
+      assertThat(IdWorker.minIdAt(0)).isZero();
+      assertThat(IdWorker.minIdAt(Long.MAX_VALUE)).isEqualTo(Long.MAX_VALUE);
+   }
+}
@@ -0,0 +1,134 @@
+package kr.masul.system;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+
+/**
+ * 예전 IdWorker(synchronized, 같은 ms에 sequence가 다 차면 다음 ms까지 spin)
+ * IdWorkerBenchmark에서 비교용으로만 사용
+ */
+class SynchronizedIdWorker {
+
+  private final static long twepoch = 1288834974657L;
+
+  private final static long workerIdBits = 5L;
+
+  private final static long datacenterIdBits = 5L;
+
+  private final static long maxWorkerId = -1L ^ (-1L << workerIdBits);
+
+  private final static long maxDatacenterId = -1L ^ (-1L << datacenterIdBits);
+
+  private final static long sequenceBits = 12L;
+
+  private final static long workerIdShift = sequenceBits;
+
+  private final static long datacenterIdShift = sequenceBits + workerIdBits;
+
+  private final static long timestampLeftShift = sequenceBits + workerIdBits + datacenterIdBits;
+
+  private final static long sequenceMask = -1L ^ (-1L << sequenceBits);
+
+  private static long lastTimestamp = -1L;
+
+  private long sequence = 0L;
+
+  private final long workerId;
+
+  private final long datacenterId;
+
+
+  SynchronizedIdWorker() {
+    this.datacenterId = getDatacenterId(maxDatacenterId);
+    this.workerId = getMaxWorkerId(datacenterId, maxWorkerId);
+  }
+
+  SynchronizedIdWorker(long workerId, long datacenterId) {
+    if (workerId > maxWorkerId || workerId < 0) {
+      throw new IllegalArgumentException(String.format("worker Id can't be greater than %d or less than 0", maxWorkerId));
+    }
+    if (datacenterId > maxDatacenterId || datacenterId < 0) {
+      throw new IllegalArgumentException(String.format("datacenter Id can't be greater than %d or less than 0", maxDatacenterId));
+    }
+    this.workerId = workerId;
+    this.datacenterId = datacenterId;
+  }
+
+  public synchronized long nextId() {
+    return generate();
+  }
+
+  /**
+   * count개의 id를 lock 한번으로 예약(bulk insert용), 순서대로 증가함
+   */
+  public synchronized long[] nextIds(int count) {
+    long[] ids = new long[count];
+    for (int i = 0; i < count; i++) {
+      ids[i] = generate();
+    }
+    return ids;
+  }
+
+  private long generate() {
+    long timestamp = timeGen();
+    if (timestamp < lastTimestamp) {
+      throw new RuntimeException(String.format("Clock moved backwards.  Refusing to generate id for %d milliseconds", lastTimestamp - timestamp));
+    }
+    if (lastTimestamp == timestamp) {
+      sequence = (sequence + 1) & sequenceMask;
+      if (sequence == 0) {
+        timestamp = tilNextMillis(lastTimestamp);
+      }
+    } else {
+      sequence = 0L;
+    }
+    lastTimestamp = timestamp;
+    long nextId = ((timestamp - twepoch) << timestampLeftShift)
+            | (datacenterId << datacenterIdShift)
+            | (workerId << workerIdShift) | sequence;
+    return nextId;
+  }
+
+  private long tilNextMillis(final long lastTimestamp) {
+    long timestamp = this.timeGen();
+    while (timestamp <= lastTimestamp) {
+      timestamp = this.timeGen();
+    }
+    return timestamp;
+  }
+
+  private long timeGen() {
+    return System.currentTimeMillis();
+  }
+
+  protected static long getMaxWorkerId(long datacenterId, long maxWorkerId) {
+    StringBuffer mpid = new StringBuffer();
+    mpid.append(datacenterId);
+    String name = ManagementFactory.getRuntimeMXBean().getName();
+    if (!name.isEmpty()) {
+      mpid.append(name.split("@")[0]); // GET jvmPid
+    }
+    return (mpid.toString().hashCode() & 0xffff) % (maxWorkerId + 1);
+  }
+
+  protected static long getDatacenterId(long maxDatacenterId) {
+    long id = 0L;
+    try {
+      InetAddress ip = InetAddress.getLocalHost();
+      NetworkInterface network = NetworkInterface.getByInetAddress(ip);
+      if (network == null) {
+        id = 1L;
+      } else {
+        byte[] mac = network.getHardwareAddress();
+        id = ((0x000000FF & (long) mac[mac.length - 1])
+                | (0x0000FF00 & (((long) mac[mac.length - 2]) << 8))) >> 6;
+        id = id % (maxDatacenterId + 1);
+      }
+    } catch (Exception e) {
+      System.out.println(" getDatacenterId: " + e.getMessage());
+    }
+    return id;
+  }
+
+}
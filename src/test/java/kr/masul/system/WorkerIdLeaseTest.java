@@ -0,0 +1,159 @@
+package kr.masul.system;
+
+import kr.masul.client.redisCache.RedisCacheClient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class WorkerIdLeaseTest {
+
+   @Mock
+   RedisCacheClient redisCacheClient;
+
+   AtomicLong ticker = new AtomicLong();
+   List<Long> sleeps = new ArrayList<>();
+
+   // sleep 하는 대신 ticker를 그만큼 진행
+   private WorkerIdLease lease(boolean enabled) {
+      return new WorkerIdLease(redisCacheClient, enabled, Duration.ofSeconds(30), Duration.ofSeconds(10), 3, 2,
+              ticker::get, millis -> {
+                 sleeps.add(millis);
+                 ticker.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+              });
+   }
+
+   @Test
+   void testDisabledUsesStaticIds() {
+      // When
+      WorkerIdLease workerIdLease = lease(false);
+      // Then
+      assertThat(workerIdLease.getMode()).isEqualTo(WorkerIdLease.Mode.STATIC);
+      assertThat(workerIdLease.getWorkerId()).isEqualTo(3);
+      assertThat(workerIdLease.getDatacenterId()).isEqualTo(2);
+      assertThat(workerIdLease.isValid()).isTrue();
+      verifyNoInteractions(redisCacheClient);
+   }
+
+   @Test
+   void testAcquireFreeSlot() {
+      // Given: 첫번째로 시도한 slot만 비어 있음
+      given(redisCacheClient.setIfAbsent(anyString(), anyString(), anyLong(), any())).willReturn(true);
+      // When
+      WorkerIdLease workerIdLease = lease(true);
+      // Then
+      assertThat(workerIdLease.getMode()).isEqualTo(WorkerIdLease.Mode.REDIS);
+      assertThat(workerIdLease.getWorkerId()).isBetween(0L, 31L);
+      assertThat(workerIdLease.getDatacenterId()).isBetween(0L, 31L);
+      assertThat(workerIdLease.isValid()).isTrue();
+      verify(redisCacheClient).setIfAbsent(workerIdLease.key(), workerIdLease.getHolder(), 30000L, TimeUnit.MILLISECONDS);
+   }
+
+   @Test
+   void testAllSlotsTaken() {
+      // Given
+      given(redisCacheClient.setIfAbsent(anyString(), anyString(), anyLong(), any())).willReturn(false);
+      // When
+      Throwable thrown = catchThrowable(() -> lease(true));
+      // Then
+      assertThat(thrown).isInstanceOf(IllegalStateException.class);
+   }
+
+   @Test
+   void testRedisDownFailsStartup() {
+      // Given
+      given(redisCacheClient.setIfAbsent(anyString(), anyString(), anyLong(), any()))
+              .willThrow(new RedisConnectionFailureException("redis down"));
+      // When: static 값으로 넘어가지 않고 acquire-timeout(10s)까지 backoff 하며 다시 시도
+      Throwable thrown = catchThrowable(() -> lease(true));
+      // Then
+      assertThat(thrown).isInstanceOf(IllegalStateException.class)
+              .hasCauseInstanceOf(RedisConnectionFailureException.class);
+      assertThat(sleeps).containsExactly(200L, 400L, 800L, 1600L, 3200L, 3801L);
+      assertThat(ticker.get()).isGreaterThanOrEqualTo(TimeUnit.SECONDS.toNanos(10));
+   }
+
+   @Test
+   void testRedisRecoversDuringBackoff() {
+      // Given: 두번 실패한 다음 연결됨
+      given(redisCacheClient.setIfAbsent(anyString(), anyString(), anyLong(), any()))
+              .willThrow(new RedisConnectionFailureException("redis down"))
+              .willThrow(new RedisConnectionFailureException("redis down"))
+              .willReturn(true);
+      // When
+      WorkerIdLease workerIdLease = lease(true);
+      // Then
+      assertThat(workerIdLease.getMode()).isEqualTo(WorkerIdLease.Mode.REDIS);
+      assertThat(workerIdLease.isValid()).isTrue();
+      assertThat(sleeps).containsExactly(200L, 400L);
+   }
+
+   @Test
+   void testRenewExtendsLease() {
+      // Given
+      given(redisCacheClient.setIfAbsent(anyString(), anyString(), anyLong(), any())).willReturn(true);
+      WorkerIdLease workerIdLease = lease(true);
+      given(redisCacheClient.expireIfEquals(workerIdLease.key(), workerIdLease.getHolder(), 30000L, TimeUnit.MILLISECONDS))
+              .willReturn(true);
+      // When
+      ticker.set(TimeUnit.SECONDS.toNanos(20));
+      workerIdLease.renew();
+      ticker.set(TimeUnit.SECONDS.toNanos(40));
+      // Then
+      assertThat(workerIdLease.isValid()).isTrue();
+      assertThat(workerIdLease.remaining()).isEqualTo(Duration.ofSeconds(10));
+   }
+
+   @Test
+   void testLeaseTakenByAnotherNode() {
+      // Given
+      given(redisCacheClient.setIfAbsent(anyString(), anyString(), anyLong(), any())).willReturn(true);
+      WorkerIdLease workerIdLease = lease(true);
+      given(redisCacheClient.expireIfEquals(anyString(), anyString(), anyLong(), any())).willReturn(false);
+      given(redisCacheClient.setIfAbsent(eq(workerIdLease.key()), anyString(), anyLong(), any())).willReturn(false);
+      IdWorker idWorker = new IdWorker(workerIdLease.getWorkerId(), workerIdLease.getDatacenterId(), workerIdLease::isValid);
+      // When
+      workerIdLease.renew();
+      // Then
+      assertThat(workerIdLease.isValid()).isFalse();
+      assertThat(catchThrowable(idWorker::nextId)).isInstanceOf(IllegalStateException.class);
+      workerIdLease.release();
+      verify(redisCacheClient, never()).deleteIfEquals(anyString(), anyString());
+   }
+
+   @Test
+   void testLeaseExpiresWhenRedisUnreachable() {
+      // Given
+      given(redisCacheClient.setIfAbsent(anyString(), anyString(), anyLong(), any())).willReturn(true);
+      WorkerIdLease workerIdLease = lease(true);
+      given(redisCacheClient.expireIfEquals(anyString(), anyString(), anyLong(), any()))
+              .willThrow(new RedisConnectionFailureException("redis down"));
+      // When: 연장하지 못한 채 TTL이 지남
+      ticker.set(TimeUnit.SECONDS.toNanos(10));
+      workerIdLease.renew();
+      boolean validBeforeTtl = workerIdLease.isValid();
+      ticker.set(TimeUnit.SECONDS.toNanos(31));
+      // Then
+      assertThat(validBeforeTtl).isTrue();
+      assertThat(workerIdLease.isValid()).isFalse();
+   }
+}
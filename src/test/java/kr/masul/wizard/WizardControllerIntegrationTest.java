@@ -39,6 +39,7 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
 @Testcontainers
@@ -188,6 +189,29 @@ class WizardControllerIntegrationTest {
               .andExpect(jsonPath("$.data").isEmpty());
    }
 
+   @Test
+   @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+   void testFindByIdModifiedAfterArtifactCountChange() throws Exception {
+      // Given: 처음 조회했을 때의 Last-Modified(wizard 2, artifact 12303의 owner)
+      String wizardLastModified = mockMvc.perform(get(url+"/wizards/2").accept(MediaType.APPLICATION_JSON).header("Authorization", token))
+              .andReturn().getResponse().getHeader("Last-Modified");
+      String artifactLastModified = mockMvc.perform(get(url+"/artifacts/12303").accept(MediaType.APPLICATION_JSON).header("Authorization", token))
+              .andReturn().getResponse().getHeader("Last-Modified");
+      // Last-Modified는 초 단위이므로 다음 초에 artifact 수를 바꿈
+      Thread.sleep(1100);
+      mockMvc.perform(put(url+"/wizards/2/artifacts/12306").accept(MediaType.APPLICATION_JSON).header("Authorization", token))
+              .andExpect(jsonPath("$.flag").value(true));
+      // When and Then: If-Modified-Since만 보내도 바뀐 artifact 수를 받음
+      mockMvc.perform(get(url+"/wizards/2").accept(MediaType.APPLICATION_JSON).header("Authorization", token)
+                      .header("If-Modified-Since", wizardLastModified))
+              .andExpect(status().isOk())
+              .andExpect(jsonPath("$.data.numberOfArtifacts").value(3));
+      mockMvc.perform(get(url+"/artifacts/12303").accept(MediaType.APPLICATION_JSON).header("Authorization", token)
+                      .header("If-Modified-Since", artifactLastModified))
+              .andExpect(status().isOk())
+              .andExpect(jsonPath("$.data.owner.numberOfArtifacts").value(3));
+   }
+
    @Test
    void testAssignArtifactNotFoundWizard() throws Exception {
       mockMvc.perform(put(url+"/wizards/6/artifacts/12306").accept(MediaType.APPLICATION_JSON).header("Authorization", token))
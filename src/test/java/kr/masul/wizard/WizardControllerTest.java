@@ -2,6 +2,10 @@ package kr.masul.wizard;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import kr.masul.artifact.Artifact;
+import kr.masul.artifact.ArtifactProjection;
+import kr.masul.artifact.ArtifactService;
+import kr.masul.artifact.export.ArtifactExportFormat;
+import kr.masul.system.CursorCodec;
 import kr.masul.system.StatusCode;
 import kr.masul.system.exception.ObjectNotFoundException;
 import org.hamcrest.Matchers;
@@ -12,6 +16,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -21,12 +27,16 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
 @AutoConfigureMockMvc(addFilters = false)
@@ -36,6 +46,9 @@ class WizardControllerTest {
    @MockitoBean
    WizardService wizardService;
 
+   @MockitoBean
+   ArtifactService artifactService;
+
    @Autowired
    MockMvc mockMvc;
 
@@ -51,37 +64,37 @@ class WizardControllerTest {
    void setUp() {
       wizards = new ArrayList<>();
       Artifact a1 = new Artifact();
-      a1.setId("91");
+      a1.setId(91L);
       a1.setName("Deluminator");
       a1.setDescription("A Deluminator is a device invented by Albus Dumbledore that resembles a cigarette lighter....");
       a1.setImageUrl("ImageUrl");
 
       Artifact a2 = new Artifact();
-      a2.setId("92");
+      a2.setId(92L);
       a2.setName("Invisibility Cloak");
       a2.setDescription("An invisibility cloak invisible.");
       a2.setImageUrl("ImageUrl");
 
       Artifact a3 = new Artifact();
-      a3.setId("93");
+      a3.setId(93L);
       a3.setName("Elder Wand");
       a3.setDescription("The Elder Wand, known ...");
       a3.setImageUrl("ImageUrl");
 
       Artifact a4 = new Artifact();
-      a4.setId("94");
+      a4.setId(94L);
       a4.setName("The Marauder's Map");
       a4.setDescription("A magical map of Hogwarts , ....");
       a4.setImageUrl("ImageUrl");
 
       Artifact a5 = new Artifact();
-      a5.setId("95");
+      a5.setId(95L);
       a5.setName("The Sword Of Gryffindor");
       a5.setDescription("A goblin-made sword adorned ....");
       a5.setImageUrl("ImageUrl");
 
       Artifact a6 = new Artifact();
-      a6.setId("96");
+      a6.setId(96L);
       a6.setName("Resurrection Stone");
       a6.setDescription("The Resurrection Stone, ....");
       a6.setImageUrl("ImageUrl");
@@ -115,9 +128,12 @@ class WizardControllerTest {
       w.setName("SuperMan");
       w.setBirthday(LocalDateTime.of(1234,2,2, 2,2, 2));
 
+      given(wizardService.findVersion(2)).willReturn(new WizardVersion(5L, Instant.parse("2026-10-01T10:00:00Z"), 0));
       given(wizardService.findById(2)).willReturn(w);
       // When and Then
       mockMvc.perform(get(url+"/wizards/2").accept(MediaType.APPLICATION_JSON))
+              .andExpect(header().string("ETag", "\"5-0\""))
+              .andExpect(header().string("Last-Modified", "Thu, 01 Oct 2026 10:00:00 GMT"))
               .andExpect(jsonPath("$.flag").value(true))
               .andExpect(jsonPath("$.code").value(StatusCode.SUCCESS))
               .andExpect(jsonPath("$.message").value("Find Success"))
@@ -130,27 +146,43 @@ class WizardControllerTest {
    @Test
    void testFindByIdNotFound() throws Exception {
       // Given
-      given(wizardService.findById(2)).willThrow(new ObjectNotFoundException("wizard", 2));
+      given(wizardService.findVersion(2)).willThrow(new ObjectNotFoundException("wizard", 2));
       // When and Then
       mockMvc.perform(get(url+"/wizards/2").accept(MediaType.APPLICATION_JSON))
               .andExpect(jsonPath("$.flag").value(false))
               .andExpect(jsonPath("$.code").value(StatusCode.NOT_FOUND))
               .andExpect(jsonPath("$.message").value("Could not find wizard with id 2"))
               .andExpect(jsonPath("$.data").isEmpty());
-      verify(wizardService, times(1)).findById(2);
+      verify(wizardService, times(1)).findVersion(2);
+      verify(wizardService, never()).findById(2);
+   }
+
+   @Test
+   void testFindByIdNotModified() throws Exception {
+      // Given
+      given(wizardService.findVersion(2)).willReturn(new WizardVersion(5L, Instant.parse("2026-10-01T10:00:00Z"), 0));
+      // When and Then
+      mockMvc.perform(get(url+"/wizards/2").header("If-None-Match", "\"5-0\"").accept(MediaType.APPLICATION_JSON))
+              .andExpect(status().isNotModified())
+              .andExpect(content().string(""));
+      verify(wizardService, never()).findById(2);
    }
 
    @Test
    void testFindAllSuccess() throws Exception {
       // Given
-      given(wizardService.findAll()).willReturn(wizards);
+      List<WizardDto> wizardDtos = wizards.stream()
+              .map(w -> new WizardDto(w.getId(), w.getName(), w.getBirthday(), w.getNumberOfArtifacts()))
+              .toList();
+      given(wizardService.findAllDto()).willReturn(wizardDtos);
       // When and Then
       mockMvc.perform(get(url + "/wizards").accept(MediaType.APPLICATION_JSON))
               .andExpect(jsonPath("$.flag").value(true))
               .andExpect(jsonPath("$.code").value(StatusCode.SUCCESS))
               .andExpect(jsonPath("$.message").value("Find all Success"))
-              .andExpect(jsonPath("$.data", Matchers.hasSize(3)));
-      verify(wizardService, times(1)).findAll();
+              .andExpect(jsonPath("$.data", Matchers.hasSize(3)))
+              .andExpect(jsonPath("$.data[0].numberOfArtifacts").value(2));
+      verify(wizardService, times(1)).findAllDto();
    }
 
    @Test
@@ -258,7 +290,7 @@ class WizardControllerTest {
    @Test
    void testAssignArtifactSuccess() throws Exception {
       // Given
-       doNothing().when(wizardService).assignArtifact(2, "12306");
+       doNothing().when(wizardService).assignArtifact(2, 12306L);
 
       // When and Then
       mockMvc.perform(put(url+"/wizards/2/artifacts/12306").accept(MediaType.APPLICATION_JSON))
@@ -266,13 +298,13 @@ class WizardControllerTest {
               .andExpect(jsonPath("$.code").value(StatusCode.SUCCESS))
               .andExpect(jsonPath("$.message").value("Assign artifact Success"))
               .andExpect(jsonPath("$.data").isEmpty());
-      verify(wizardService, times(1)).assignArtifact(2,"12306");
+      verify(wizardService, times(1)).assignArtifact(2,12306L);
    }
 
    @Test
    void testAssignArtifactNotFoundWizard() throws Exception {
       // Given
-      doThrow(new ObjectNotFoundException("wizard", 6)).when(wizardService).assignArtifact(6, "12306");
+      doThrow(new ObjectNotFoundException("wizard", 6)).when(wizardService).assignArtifact(6, 12306L);
 
       // When and Then
       mockMvc.perform(put(url+"/wizards/6/artifacts/12306").accept(MediaType.APPLICATION_JSON))
@@ -280,13 +312,13 @@ class WizardControllerTest {
               .andExpect(jsonPath("$.code").value(StatusCode.NOT_FOUND))
               .andExpect(jsonPath("$.message").value("Could not find wizard with id 6"))
               .andExpect(jsonPath("$.data").isEmpty());
-      verify(wizardService, times(1)).assignArtifact(6,"12306");
+      verify(wizardService, times(1)).assignArtifact(6,12306L);
    }
    @Test
    void testAssignArtifactNotFoundArtifact() throws Exception {
       // Given
-      doThrow(new ObjectNotFoundException("artifact", "12309"))
-              .when(wizardService).assignArtifact(2, "12309");
+      doThrow(new ObjectNotFoundException("artifact", 12309L))
+              .when(wizardService).assignArtifact(2, 12309L);
 
       // When and Then
       mockMvc.perform(put(url+"/wizards/2/artifacts/12309").accept(MediaType.APPLICATION_JSON))
@@ -294,6 +326,134 @@ class WizardControllerTest {
               .andExpect(jsonPath("$.code").value(StatusCode.NOT_FOUND))
               .andExpect(jsonPath("$.message").value("Could not find artifact with id 12309"))
               .andExpect(jsonPath("$.data").isEmpty());
-      verify(wizardService, times(1)).assignArtifact(2,"12309");
+      verify(wizardService, times(1)).assignArtifact(2,12309L);
+   }
+
+   @Test
+   void testFindArtifactsFirstPage() throws Exception {
+      // Given
+      List<ArtifactProjection> projections = List.of(
+              new ArtifactProjection(12305L, "Fifth Artifact", "Fifth Artifact money", "image", null, 2, "WonderWoman", null, 3),
+              new ArtifactProjection(12303L, "Third Artifact", "Third Artifact get large", "image", null, 2, "WonderWoman", null, 3));
+      given(artifactService.findAllByOwnerAfter(2, null, 2))
+              .willReturn(new SliceImpl<>(projections, PageRequest.of(0, 2), true));
+      // When and Then
+      mockMvc.perform(get(url+"/wizards/2/artifacts").param("size", "2").accept(MediaType.APPLICATION_JSON))
+              .andExpect(jsonPath("$.flag").value(true))
+              .andExpect(jsonPath("$.data.content", Matchers.hasSize(2)))
+              .andExpect(jsonPath("$.data.content[0].id").value("12305"))
+              .andExpect(jsonPath("$.data.content[0].owner.numberOfArtifacts").value(3))
+              .andExpect(jsonPath("$.data.hasNext").value(true))
+              .andExpect(jsonPath("$.data.next").value(CursorCodec.encode("12303")));
+      verify(wizardService, times(1)).checkExists(2);
+   }
+
+   @Test
+   void testFindArtifactsSeek() throws Exception {
+      // Given
+      given(artifactService.findAllByOwnerAfter(2, 12303L, 2))
+              .willReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 2), false));
+      // When and Then
+      mockMvc.perform(get(url+"/wizards/2/artifacts").param("size", "2")
+                      .param("after", CursorCodec.encode("12303")).accept(MediaType.APPLICATION_JSON))
+              .andExpect(jsonPath("$.flag").value(true))
+              .andExpect(jsonPath("$.data.hasNext").value(false))
+              .andExpect(jsonPath("$.data.next").isEmpty());
+   }
+
+   @Test
+   void testFindArtifactsNotFoundWizard() throws Exception {
+      // Given
+      doThrow(new ObjectNotFoundException("wizard", 6)).when(wizardService).checkExists(6);
+      // When and Then
+      mockMvc.perform(get(url+"/wizards/6/artifacts").accept(MediaType.APPLICATION_JSON))
+              .andExpect(jsonPath("$.flag").value(false))
+              .andExpect(jsonPath("$.code").value(StatusCode.NOT_FOUND))
+              .andExpect(jsonPath("$.message").value("Could not find wizard with id 6"));
+      verify(artifactService, never()).findAllByOwnerAfter(any(), any(), anyInt());
+   }
+
+   @Test
+   void testExportArtifacts() throws Exception {
+      // Given
+      given(artifactService.exportByOwner(eq(2), eq(ArtifactExportFormat.NDJSON), any())).willReturn(3L);
+      // When and Then
+      mockMvc.perform(get(url+"/wizards/2/artifacts").param("format", "ndjson"))
+              .andExpect(status().isOk())
+              .andExpect(header().string("Content-Disposition", "attachment; filename=\"wizard-2-artifacts.ndjson\""));
+      verify(wizardService, times(1)).checkExists(2);
+      verify(artifactService, times(1)).exportByOwner(eq(2), eq(ArtifactExportFormat.NDJSON), any());
+   }
+
+   @Test
+   void testExportArtifactsNotFoundWizard() throws Exception {
+      // Given
+      doThrow(new ObjectNotFoundException("wizard", 6)).when(wizardService).checkExists(6);
+      // When and Then
+      mockMvc.perform(get(url+"/wizards/6/artifacts").param("format", "csv").accept(MediaType.APPLICATION_JSON))
+              .andExpect(jsonPath("$.flag").value(false))
+              .andExpect(jsonPath("$.code").value(StatusCode.NOT_FOUND));
+      verify(artifactService, never()).exportByOwner(any(), any(), any());
+   }
+
+   @Test
+   void testTransferArtifacts() throws Exception {
+      // Given
+      given(wizardService.transferArtifacts(2, 3, List.of(12303L, 12304L))).willReturn(2);
+      // When and Then
+      mockMvc.perform(post(url+"/wizards/2/artifacts/transfer").contentType(MediaType.APPLICATION_JSON)
+                      .content("{\"toWizardId\":3,\"artifactIds\":[\"12303\",\"12304\"]}")
+                      .accept(MediaType.APPLICATION_JSON))
+              .andExpect(jsonPath("$.flag").value(true))
+              .andExpect(jsonPath("$.message").value("Transfer artifacts Success"))
+              .andExpect(jsonPath("$.data").value(2));
+   }
+
+   @Test
+   void testTransferArtifactsWithoutTarget() throws Exception {
+      // When and Then
+      mockMvc.perform(post(url+"/wizards/2/artifacts/transfer").contentType(MediaType.APPLICATION_JSON)
+                      .content("{}").accept(MediaType.APPLICATION_JSON))
+              .andExpect(jsonPath("$.flag").value(false))
+              .andExpect(jsonPath("$.code").value(StatusCode.BAD_REQUEST))
+              .andExpect(jsonPath("$.data.toWizardId").value("TO WIZARD ID is required."));
+      verify(wizardService, never()).transferArtifacts(any(), any(), any());
+   }
+
+   @Test
+   void testFindLeaderboard() throws Exception {
+      // Given
+      given(wizardService.findLeaderboard(2)).willReturn(List.of(
+              new WizardDto(1, "Albus Dumbledore", null, 3), new WizardDto(2, "Harry Potter", null, 2)));
+      // When and Then
+      mockMvc.perform(get(url+"/wizards/leaderboard").param("limit", "2").accept(MediaType.APPLICATION_JSON))
+              .andExpect(jsonPath("$.flag").value(true))
+              .andExpect(jsonPath("$.code").value(StatusCode.SUCCESS))
+              .andExpect(jsonPath("$.message").value("Find leaderboard Success"))
+              .andExpect(jsonPath("$.data", Matchers.hasSize(2)))
+              .andExpect(jsonPath("$.data[0].id").value(1))
+              .andExpect(jsonPath("$.data[0].numberOfArtifacts").value(3));
+   }
+
+   @Test
+   void testRebuildLeaderboard() throws Exception {
+      // Given
+      given(wizardService.rebuildLeaderboard()).willReturn(3);
+      // When and Then
+      mockMvc.perform(post(url+"/wizards/leaderboard/rebuild").accept(MediaType.APPLICATION_JSON))
+              .andExpect(jsonPath("$.flag").value(true))
+              .andExpect(jsonPath("$.message").value("Rebuild leaderboard Success"))
+              .andExpect(jsonPath("$.data").value(3));
+   }
+
+   @Test
+   void testRebuildLeaderboardAlreadyRunning() throws Exception {
+      // Given: 다른 서버가 만드는 중
+      given(wizardService.rebuildLeaderboard()).willReturn(-1);
+      // When and Then
+      mockMvc.perform(post(url+"/wizards/leaderboard/rebuild").accept(MediaType.APPLICATION_JSON))
+              .andExpect(jsonPath("$.flag").value(true))
+              .andExpect(jsonPath("$.message").value("Leaderboard is already being rebuilt"))
+              .andExpect(jsonPath("$.data").isEmpty());
    }
-}
\ No newline at end of file
+}
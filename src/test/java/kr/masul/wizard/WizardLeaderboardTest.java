@@ -0,0 +1,150 @@
+package kr.masul.wizard;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kr.masul.client.redisCache.RedisCacheClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WizardLeaderboardTest {
+
+   @Mock
+   RedisCacheClient redisCacheClient;
+   @Mock
+   WizardRepository wizardRepository;
+
+   SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+   WizardLeaderboard wizardLeaderboard;
+
+   WizardDto albus = new WizardDto(1, "Albus Dumbledore", null, 3);
+   WizardDto harry = new WizardDto(2, "Harry Potter", null, 2);
+
+   @BeforeEach
+   void setUp() {
+      wizardLeaderboard = new WizardLeaderboard(redisCacheClient, wizardRepository, meterRegistry, 100, 2,
+              Duration.ofMinutes(10), 3600000);
+   }
+
+   @Test
+   void testTopKeepsRedisOrder() {
+      // Given: 순위 사이에 삭제된 wizard(3)가 남아 있음
+      given(redisCacheClient.reverseRangeWithScores(WizardLeaderboard.KEY, 3)).willReturn(List.of(
+              TypedTuple.of("2", 5.0), TypedTuple.of("3", 4.0), TypedTuple.of("1", 3.0)));
+      given(wizardRepository.findAllDtoByIdIn(List.of(2, 3, 1))).willReturn(List.of(albus, harry));
+      // When
+      List<WizardDto> top = wizardLeaderboard.top(3);
+      // Then
+      assertThat(top).containsExactly(harry, albus);
+      verify(wizardRepository, never()).findTopByArtifactCount(any());
+   }
+
+   @Test
+   void testTopLimitIsCapped() {
+      // Given
+      given(redisCacheClient.reverseRangeWithScores(WizardLeaderboard.KEY, 100)).willReturn(List.of(TypedTuple.of("1", 3.0)));
+      given(wizardRepository.findAllDtoByIdIn(List.of(1))).willReturn(List.of(albus));
+      // When and Then
+      assertThat(wizardLeaderboard.top(100000)).containsExactly(albus);
+   }
+
+   @Test
+   void testTopFallsBackToDatabase() {
+      // Given
+      given(redisCacheClient.reverseRangeWithScores(anyString(), anyLong())).willThrow(new RedisConnectionFailureException("down"));
+      given(wizardRepository.findTopByArtifactCount(PageRequest.of(0, 2))).willReturn(List.of(albus, harry));
+      // When and Then
+      assertThat(wizardLeaderboard.top(2)).containsExactly(albus, harry);
+      assertThat(meterRegistry.get("wizard.leaderboard.fallback").counter().count()).isEqualTo(1);
+   }
+
+   @Test
+   void testIncrementIgnoresRedisFailure() {
+      // Given
+      doThrow(new RedisConnectionFailureException("down")).when(redisCacheClient)
+              .incrementScore(anyString(), anyString(), anyString(), anyDouble());
+      // When
+      wizardLeaderboard.increment(1, 1);
+      // Then
+      verify(redisCacheClient).incrementScore(WizardLeaderboard.KEY, WizardLeaderboard.REBUILD_KEY, "1", 1);
+   }
+
+   @Test
+   void testRebuildReadsPages() {
+      // Given: page 크기 2
+      WizardDto neville = new WizardDto(5, "Neville Longbottom", null, 1);
+      given(redisCacheClient.setIfAbsent(eq(WizardLeaderboard.LOCK_KEY), anyString(), anyLong(), any())).willReturn(true);
+      given(wizardRepository.findDtoPageAfter(Integer.MIN_VALUE, PageRequest.of(0, 2))).willReturn(List.of(albus, harry));
+      given(wizardRepository.findDtoPageAfter(2, PageRequest.of(0, 2))).willReturn(List.of(neville));
+      // When
+      int count = wizardLeaderboard.rebuild();
+      // Then: 다시 만드는 key에 page씩 채운 뒤 바꾸고 lock을 놓음
+      assertThat(count).isEqualTo(3);
+      InOrder inOrder = inOrder(redisCacheClient);
+      inOrder.verify(redisCacheClient).delete(WizardLeaderboard.REBUILD_KEY);
+      inOrder.verify(redisCacheClient).addToSortedSet(WizardLeaderboard.REBUILD_KEY,
+              Set.of(TypedTuple.of("1", 3.0), TypedTuple.of("2", 2.0)), 600000L, TimeUnit.MILLISECONDS);
+      inOrder.verify(redisCacheClient).addToSortedSet(WizardLeaderboard.REBUILD_KEY,
+              Set.of(TypedTuple.of("5", 1.0)), 600000L, TimeUnit.MILLISECONDS);
+      inOrder.verify(redisCacheClient).replaceSortedSet(WizardLeaderboard.KEY, WizardLeaderboard.REBUILD_KEY);
+      inOrder.verify(redisCacheClient).deleteIfEquals(eq(WizardLeaderboard.LOCK_KEY), anyString());
+      verify(wizardRepository, never()).findAllDto();
+   }
+
+   @Test
+   void testRebuildSkippedWhileAnotherNodeRebuilds() {
+      // Given
+      given(redisCacheClient.setIfAbsent(eq(WizardLeaderboard.LOCK_KEY), anyString(), anyLong(), any())).willReturn(false);
+      // When
+      int count = wizardLeaderboard.rebuild();
+      // Then
+      assertThat(count).isEqualTo(-1);
+      verifyNoInteractions(wizardRepository);
+      verify(redisCacheClient, never()).replaceSortedSet(anyString(), anyString());
+   }
+
+   @Test
+   void testRebuildReleasesLockOnFailure() {
+      // Given
+      given(redisCacheClient.setIfAbsent(eq(WizardLeaderboard.LOCK_KEY), anyString(), anyLong(), any())).willReturn(true);
+      given(wizardRepository.findDtoPageAfter(Integer.MIN_VALUE, PageRequest.of(0, 2))).willReturn(List.of(albus, harry));
+      doThrow(new RedisConnectionFailureException("down")).when(redisCacheClient)
+              .addToSortedSet(anyString(), anySet(), anyLong(), any());
+      // When
+      Throwable thrown = catchThrowable(() -> wizardLeaderboard.rebuild());
+      // Then
+      assertThat(thrown).isInstanceOf(RedisConnectionFailureException.class);
+      verify(redisCacheClient).deleteIfEquals(eq(WizardLeaderboard.LOCK_KEY), anyString());
+      verify(redisCacheClient, never()).replaceSortedSet(anyString(), anyString());
+   }
+
+   @Test
+   void testScheduledRebuildRunsOncePerInterval() {
+      // Given: 이번 주기에는 다른 서버가 이미 만듦
+      given(redisCacheClient.setIfAbsent(eq(WizardLeaderboard.SCHEDULED_KEY), anyString(), eq(3240000L), any()))
+              .willReturn(false);
+      // When
+      wizardLeaderboard.scheduledRebuild();
+      // Then
+      verify(redisCacheClient, never()).setIfAbsent(eq(WizardLeaderboard.LOCK_KEY), anyString(), anyLong(), any());
+      verifyNoInteractions(wizardRepository);
+   }
+}
@@ -1,6 +1,7 @@
 package kr.masul.wizard;
 
 import kr.masul.artifact.Artifact;
+import kr.masul.artifact.ArtifactCache;
 import kr.masul.artifact.ArtifactRepository;
 import kr.masul.system.exception.ObjectNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,12 +14,15 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
 
@@ -30,6 +34,10 @@ class WizardServiceTest {
    WizardRepository wizardRepository;
    @Mock
    ArtifactRepository artifactRepository;
+   @Mock
+   ArtifactCache artifactCache;
+   @Mock
+   WizardLeaderboard wizardLeaderboard;
 
    @InjectMocks
    WizardService wizardService;
@@ -69,6 +77,17 @@ class WizardServiceTest {
       assertThat(wizard.getName()).isEqualTo("SuperMan");
       verify(wizardRepository, times(1)).findById(2);
    }
+   @Test
+   void testFindVersionNotFound() {
+      // Given
+      given(wizardRepository.findVersionById(2)).willReturn(Optional.empty());
+      // When
+      Throwable thrown = catchThrowable(() -> wizardService.findVersion(2));
+      // Then
+      assertThat(thrown).isInstanceOf(ObjectNotFoundException.class)
+              .hasMessage("Could not find wizard with id 2");
+   }
+
    @Test
    @DisplayName("wizard find by id fail")
    void testFindByIdNotFound() {
@@ -112,6 +131,7 @@ class WizardServiceTest {
       // Then
       assertThat(add.getId()).isEqualTo(2);
       assertThat(add.getName()).isEqualTo("SuperMan");
+      verify(wizardLeaderboard, times(1)).increment(2, 0);
    }
 
    @Test
@@ -164,16 +184,70 @@ class WizardServiceTest {
    @Test
    void testDeleteSuccess() {
       // Given
-      Wizard w1 = new Wizard();
-      w1.setId(2);
-      w1.setName("SuperMan");
-
-      given(wizardRepository.findById(2)).willReturn(Optional.of(w1));
+      given(wizardRepository.existsById(2)).willReturn(true);
+      given(artifactRepository.findIdsByOwnerId(2)).willReturn(List.of(12303L, 12304L));
       doNothing().when(wizardRepository).deleteById(2);
       // When
       wizardService.delete(2);
-      // Then
+      // Then: artifact를 하나씩 읽지 않고 update 한번으로 owner를 비움
+      verify(artifactRepository, times(1)).clearOwner(eq(2), any(Instant.class));
+      verify(artifactRepository, never()).findById(any());
       verify(wizardRepository, times(1)).deleteById(2);
+      verify(artifactCache, times(1)).evictAll(List.of(12303L, 12304L));
+      verify(wizardLeaderboard, times(1)).remove(2);
+   }
+
+   @Test
+   void testTransferAllArtifacts() {
+      // Given
+      Wizard w3 = new Wizard();
+      w3.setId(3);
+      given(wizardRepository.existsById(2)).willReturn(true);
+      given(wizardRepository.findById(3)).willReturn(Optional.of(w3));
+      given(artifactRepository.findIdsByOwnerId(2)).willReturn(List.of(12303L, 12304L));
+      given(artifactRepository.transferAll(eq(2), eq(w3), any(Instant.class))).willReturn(2);
+      // When
+      int moved = wizardService.transferArtifacts(2, 3, null);
+      // Then
+      assertThat(moved).isEqualTo(2);
+      verify(wizardRepository, times(1)).addArtifactCount(eq(2), eq(-2), any(Instant.class));
+      verify(wizardRepository, times(1)).addArtifactCount(eq(3), eq(2), any(Instant.class));
+      verify(wizardLeaderboard, times(1)).increment(2, -2);
+      verify(wizardLeaderboard, times(1)).increment(3, 2);
+      verify(artifactCache, times(1)).evictAll(List.of(12303L, 12304L));
+   }
+
+   @Test
+   void testTransferSelectedArtifacts() {
+      // Given: 12305는 다른 wizard 소유라 옮겨지지 않음
+      Wizard w3 = new Wizard();
+      w3.setId(3);
+      given(wizardRepository.existsById(2)).willReturn(true);
+      given(wizardRepository.findById(3)).willReturn(Optional.of(w3));
+      given(artifactRepository.transfer(eq(2), eq(w3), eq(List.of(12303L, 12305L)), any(Instant.class))).willReturn(1);
+      // When
+      int moved = wizardService.transferArtifacts(2, 3, List.of(12303L, 12305L));
+      // Then
+      assertThat(moved).isEqualTo(1);
+      verify(artifactRepository, never()).findIdsByOwnerId(any());
+      verify(wizardRepository, times(1)).addArtifactCount(eq(2), eq(-1), any(Instant.class));
+      verify(wizardRepository, times(1)).addArtifactCount(eq(3), eq(1), any(Instant.class));
+      verify(wizardLeaderboard, times(1)).increment(2, -1);
+      verify(wizardLeaderboard, times(1)).increment(3, 1);
+      verify(artifactCache, times(1)).evictAll(List.of(12303L, 12305L));
+   }
+
+   @Test
+   void testTransferToUnknownWizard() {
+      // Given
+      given(wizardRepository.existsById(2)).willReturn(true);
+      given(wizardRepository.findById(9)).willReturn(Optional.empty());
+      // When
+      Throwable thrown = catchThrowable(() -> wizardService.transferArtifacts(2, 9, null));
+      // Then
+      assertThat(thrown).isInstanceOf(ObjectNotFoundException.class)
+              .hasMessage("Could not find wizard with id 9");
+      verify(artifactRepository, never()).transferAll(any(), any(), any());
    }
 
    @Test
@@ -198,7 +272,7 @@ class WizardServiceTest {
    void testAssignSuccess() {
       // Given
       Artifact a = new Artifact();
-      a.setId("12306");
+      a.setId(12306L);
       a.setName("Sixth Artifact");
       a.setDescription("Sixth Artifact brain");
       a.setImageUrl("image");
@@ -212,13 +286,20 @@ class WizardServiceTest {
       w3.setId(3);
       w3.setName("Neville Longbottom");
 
-      given(artifactRepository.findById("12306")).willReturn(Optional.of(a));
+      given(artifactRepository.findById(12306L)).willReturn(Optional.of(a));
       given(wizardRepository.findById(3)).willReturn(Optional.of(w3));
       // When
-      wizardService.assignArtifact(3, "12306");
+      wizardService.assignArtifact(3, 12306L);
       // Then
       assertThat(a.getOwner().getId()).isEqualTo(3);
       assertThat(w3.getArtifacts().size()).isEqualTo(1);
+      assertThat(w3.getNumberOfArtifacts()).isEqualTo(1);
+      assertThat(w.getNumberOfArtifacts()).isEqualTo(0);
+      verify(wizardRepository, times(1)).addArtifactCount(eq(2), eq(-1), any(Instant.class));
+      verify(wizardRepository, times(1)).addArtifactCount(eq(3), eq(1), any(Instant.class));
+      verify(wizardLeaderboard, times(1)).increment(2, -1);
+      verify(wizardLeaderboard, times(1)).increment(3, 1);
+      verify(artifactCache, times(1)).evict(12306L);
    }
 
    @Test
@@ -226,7 +307,7 @@ class WizardServiceTest {
    void testAssignNotFoundWizard() {
       // Given
       Artifact a = new Artifact();
-      a.setId("12306");
+      a.setId(12306L);
       a.setName("Sixth Artifact");
       a.setDescription("Sixth Artifact brain");
       a.setImageUrl("image");
@@ -236,10 +317,10 @@ class WizardServiceTest {
       w.setName("SuperMan");
 
       given(wizardRepository.findById(2)).willReturn(Optional.empty());
-      given(artifactRepository.findById("12306")).willReturn(Optional.of(a));
+      given(artifactRepository.findById(12306L)).willReturn(Optional.of(a));
       // When
       Throwable thrown = catchThrowable(() -> {
-         wizardService.assignArtifact(2, "12306");
+         wizardService.assignArtifact(2, 12306L);
       });
       // Then
       assertThat(thrown).isInstanceOf(ObjectNotFoundException.class).hasMessage("Could not find wizard with id 2");
@@ -254,10 +335,10 @@ class WizardServiceTest {
       w.setId(2);
       w.setName("SuperMan");
 
-      given(artifactRepository.findById("12309")).willReturn(Optional.empty());
+      given(artifactRepository.findById(12309L)).willReturn(Optional.empty());
       // When
       Throwable thrown = catchThrowable(() -> {
-         wizardService.assignArtifact(2, "12309");
+         wizardService.assignArtifact(2, 12309L);
       });
       // Then
       assertThat(thrown).isInstanceOf(ObjectNotFoundException.class)